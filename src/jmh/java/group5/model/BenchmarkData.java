@@ -0,0 +1,86 @@
+package group5.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import group5.model.beans.MBeans;
+
+/**
+ * Generates OMDb shaped MBeans records for the benchmarks.
+ */
+public final class BenchmarkData {
+
+    /** Genres to pick from. */
+    private static final List<String> GENRES = List.of("Action", "Adventure", "Animation", "Biography", "Comedy",
+            "Crime", "Drama", "Family", "Fantasy", "History", "Horror", "Music", "Mystery", "Romance", "Sci-Fi",
+            "Sport", "Thriller", "War", "Western");
+
+    /** Languages to pick from. */
+    private static final List<String> LANGUAGES = List.of("English", "French", "Spanish", "German", "Italian",
+            "Japanese", "Korean", "Mandarin", "Hindi", "Swedish");
+
+    /** MPA ratings to pick from. */
+    private static final List<String> RATED = List.of("G", "PG", "PG-13", "R", "NC-17", "N/A");
+
+    /** Title words to build titles from. */
+    private static final String[] WORDS = {"The", "Last", "Dark", "Night", "Star", "River", "King", "Lost", "City",
+            "Love", "War", "Ghost", "Blue", "Iron", "Secret", "Winter", "Road", "House", "Dream", "Fire"};
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private BenchmarkData() {
+        // empty
+    }
+
+    /**
+     * Get the imdbID used for the nth generated record.
+     *
+     * @param n index of the record
+     * @return the imdbID
+     */
+    public static String id(int n) {
+        return String.format("tt%08d", n);
+    }
+
+    /**
+     * Generate records with deterministic content.
+     *
+     * @param count number of records to generate
+     * @return list of generated records
+     */
+    public static List<MBeans> movies(int count) {
+        Random random = new Random(count);
+        List<MBeans> movies = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            movies.add(movie(i, random));
+        }
+        return movies;
+    }
+
+    /**
+     * Generate a single record.
+     *
+     * @param n index of the record
+     * @param random source of randomness
+     * @return the generated record
+     */
+    private static MBeans movie(int n, Random random) {
+        int year = 1920 + random.nextInt(105);
+        String title = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + n;
+        List<String> genre = List.of(GENRES.get(random.nextInt(GENRES.size())),
+                GENRES.get(random.nextInt(GENRES.size())));
+        List<String> director = List.of("Director " + random.nextInt(20_000));
+        List<String> writer = List.of("Writer " + random.nextInt(40_000), "Writer " + random.nextInt(40_000));
+        List<String> actors = List.of("Actor " + random.nextInt(200_000), "Actor " + random.nextInt(200_000),
+                "Actor " + random.nextInt(200_000));
+        List<String> language = List.of(LANGUAGES.get(random.nextInt(LANGUAGES.size())));
+        return new MBeans(title, year, "movie", RATED.get(random.nextInt(RATED.size())),
+                LocalDate.of(year, 1 + random.nextInt(12), 1 + random.nextInt(28)), 80 + random.nextInt(100),
+                genre, director, writer, actors, "Plot of " + title + ".", language, List.of("United States"),
+                "N/A", "N/A", random.nextInt(100), random.nextInt(100) / 10.0, random.nextInt(900_000_000),
+                id(n), random.nextBoolean(), -1.0);
+    }
+}
@@ -0,0 +1,121 @@
+package group5.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import group5.model.beans.MBeans;
+import group5.model.filter.FilterHandler;
+import group5.model.filter.MovieIndex;
+
+/**
+ * Measures the heap taken per movie by a generated source list kept as plain
+ * records and kept in columns, and checks the columnar views read back the
+ * same movies and filter the same way.
+ *
+ * Run with java -cp build/libs/project-jmh.jar group5.model.SourceFootprint
+ * [sourceSize].
+ */
+public final class SourceFootprint {
+
+    /** Number of records in the source list when no size is given. */
+    private static final int DEFAULT_SIZE = 200_000;
+
+    /** Filters checked against both representations. */
+    private static final List<List<List<String>>> FILTERS = List.of(
+            List.of(List.of("title", "~=", "star king")),
+            List.of(List.of("genre", "==", "drama"), List.of("released", ">", "1990")),
+            List.of(List.of("actor", "~=", "actor 123"), List.of("mpa", "==", "PG-13")));
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private SourceFootprint() {
+        // empty
+    }
+
+    /**
+     * Print the bytes per movie of both representations.
+     *
+     * @param args optional number of records in the source list
+     */
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SIZE;
+
+        long empty = usedHeap();
+        List<MBeans> beans = BenchmarkData.movies(size);
+        long beansHeap = usedHeap() - empty;
+
+        ColumnarSource columns = new ColumnarSource(size);
+        List<MBeans> views = toColumns(beans, columns);
+        beans = null;
+        long columnsHeap = usedHeap() - empty;
+
+        System.out.printf(Locale.ROOT, "%d movies, %d dictionary strings%n", columns.size(), columns.dictionarySize());
+        System.out.printf(Locale.ROOT, "records: %,d bytes, %.0f bytes per movie%n", beansHeap,
+                (double) beansHeap / size);
+        System.out.printf(Locale.ROOT, "columns: %,d bytes, %.0f bytes per movie%n", columnsHeap,
+                (double) columnsHeap / size);
+        // The generator is deterministic, so the records come out the same again
+        check(BenchmarkData.movies(size), views);
+    }
+
+    /**
+     * Copy records into columns.
+     *
+     * Kept out of main so no frame slot holds on to the records afterwards.
+     *
+     * @param beans the records
+     * @param columns the columns to copy them into
+     * @return the views of the copied records, in the same order
+     */
+    private static List<MBeans> toColumns(List<MBeans> beans, ColumnarSource columns) {
+        List<MBeans> views = new ArrayList<>(beans.size());
+        for (MBeans bean : beans) {
+            views.add(columns.add(bean));
+        }
+        return views;
+    }
+
+    /**
+     * Check the views read back the records and filter the same way.
+     *
+     * @param beans the records
+     * @param views the views of the same records, in the same order
+     * @throws IllegalStateException if they differ
+     */
+    private static void check(List<MBeans> beans, List<MBeans> views) {
+        for (int i = 0; i < beans.size(); i++) {
+            MBeans bean = beans.get(i);
+            MBeans view = views.get(i);
+            if (!bean.toString().equals(view.toString()) || bean.getWatched() != view.getWatched()
+                    || !bean.getActorsKeys().equals(view.getActorsKeys())) {
+                throw new IllegalStateException("check - view differs from record " + bean.getID());
+            }
+        }
+        FilterHandler handler = new FilterHandler();
+        MovieIndex viewIndex = new MovieIndex(views);
+        for (List<List<String>> filters : FILTERS) {
+            long expected = handler.filter(filters, beans.stream()).count();
+            long scanned = handler.filter(filters, views.stream()).count();
+            long indexed = handler.filter(filters, viewIndex).count();
+            if (scanned != expected || indexed != expected) {
+                throw new IllegalStateException("check - " + filters + " matched " + scanned + " and " + indexed
+                        + " views, not " + expected);
+            }
+        }
+    }
+
+    /**
+     * Get the heap in use once garbage is collected.
+     *
+     * @return the bytes in use
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
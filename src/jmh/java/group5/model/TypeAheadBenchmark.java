@@ -0,0 +1,133 @@
+package group5.model;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import group5.model.beans.MBeans;
+import group5.model.filter.FilterHandler;
+import group5.model.filter.MovieIndex;
+
+/**
+ * Measures typing a title one char at a time with a year filter set, each
+ * keystroke filtering from scratch or narrowing the previous result, on the
+ * indexed source list and on an unindexed list such as a watch list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TypeAheadBenchmark {
+
+    /** The title typed, one keystroke per prefix. */
+    private static final String TYPED = "star king";
+
+    /** Number of records in the source list. */
+    @Param({"1000000"})
+    private int sourceSize;
+
+    /** Generated source list. */
+    private List<MBeans> source;
+
+    /** Index of the source list. */
+    private MovieIndex index;
+
+    /** Filter handler under test. */
+    private FilterHandler handler;
+
+    /**
+     * Generate and index the source list.
+     */
+    @Setup
+    public void setUp() {
+        source = BenchmarkData.movies(sourceSize);
+        index = new MovieIndex(source);
+        handler = new FilterHandler();
+    }
+
+    /**
+     * Filter the whole list on every keystroke.
+     *
+     * @return matches of the last keystroke
+     */
+    @Benchmark
+    public List<MBeans> fromScratch() {
+        List<MBeans> matches = null;
+        for (int i = 1; i <= TYPED.length(); i++) {
+            matches = handler.filter(spec(i), index).collect(Collectors.toList());
+        }
+        return matches;
+    }
+
+    /**
+     * Narrow the previous result on every keystroke, through a fresh cache.
+     *
+     * @return matches of the last keystroke
+     */
+    @Benchmark
+    public List<MBeans> refined() {
+        FilterCache cache = new FilterCache(32);
+        List<MBeans> matches = null;
+        for (int i = 1; i <= TYPED.length(); i++) {
+            List<List<String>> filters = spec(i);
+            matches = cache.get(filters, -1,
+                    previous -> handler.filter(filters, index, previous).collect(Collectors.toList()));
+        }
+        return matches;
+    }
+
+    /**
+     * Scan the whole unindexed list on every keystroke.
+     *
+     * @return matches of the last keystroke
+     */
+    @Benchmark
+    public List<MBeans> listFromScratch() {
+        List<MBeans> matches = null;
+        for (int i = 1; i <= TYPED.length(); i++) {
+            matches = handler.filter(spec(i), source.stream()).collect(Collectors.toList());
+        }
+        return matches;
+    }
+
+    /**
+     * Narrow the previous result of the unindexed list on every keystroke.
+     *
+     * @return matches of the last keystroke
+     */
+    @Benchmark
+    public List<MBeans> listRefined() {
+        FilterCache cache = new FilterCache(32);
+        List<MBeans> matches = null;
+        for (int i = 1; i <= TYPED.length(); i++) {
+            List<List<String>> filters = spec(i);
+            matches = cache.get(filters, 0, previous -> handler.filter(filters,
+                    previous == null ? source.stream() : previous.stream()).collect(Collectors.toList()));
+        }
+        return matches;
+    }
+
+    /**
+     * Get the filters after a number of keystrokes.
+     *
+     * @param typed number of chars typed
+     * @return the filters
+     */
+    private static List<List<String>> spec(int typed) {
+        return List.of(List.of("title", "~=", TYPED.substring(0, typed)), List.of("released", ">=", "1950"));
+    }
+}
@@ -0,0 +1,144 @@
+package group5.model;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import group5.model.beans.MBeans;
+import group5.model.formatters.Formats;
+import group5.model.formatters.MBeansFormatter;
+
+/**
+ * Measures importing a 500 movie watch list against source lists of growing size.
+ *
+ * The linearMatch benchmark replays the old per-row scan of the source list
+ * for comparison with the imdbID index used by Model.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class WatchListImportBenchmark {
+
+    /** Number of movies in the imported watch list. */
+    private static final int WATCHLIST_SIZE = 500;
+
+    /** Number of records in the source list. */
+    @Param({"500", "50000", "1000000"})
+    private int sourceSize;
+
+    /** Generated source list. */
+    private List<MBeans> source;
+
+    /** Records written to the watch list file. */
+    private List<MBeans> watchList;
+
+    /** Model under test. */
+    private Model model;
+
+    /** Watch list file to import. */
+    private File watchListFile;
+
+    /** Directory of the files the model writes. */
+    private Path modelDirectory;
+
+    /**
+     * Generate the source list and write the watch list file.
+     *
+     * @throws IOException if the watch list file cannot be written
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        source = BenchmarkData.movies(sourceSize);
+        watchList = new ArrayList<>(WATCHLIST_SIZE);
+        int step = sourceSize / WATCHLIST_SIZE;
+        for (int i = 0; i < WATCHLIST_SIZE; i++) {
+            watchList.add(source.get(i * step));
+        }
+        Path directory = Files.createTempDirectory("bench");
+        watchListFile = directory.resolve("bench_import.json").toFile();
+        try (OutputStream out = new FileOutputStream(watchListFile)) {
+            MBeansFormatter.writeMediasToFile(watchList, out, Formats.JSON);
+        }
+        modelDirectory = directory.resolve("model");
+        model = new Model(source, false, modelDirectory);
+    }
+
+    /**
+     * Remove the imported list so the next invocation imports it again.
+     */
+    @TearDown(Level.Invocation)
+    public void removeImported() {
+        if (model.getUserListCount() > 0) {
+            model.deleteWatchList(0);
+            modelDirectory.resolve("unused").resolve("bench_import.json").toFile().delete();
+        }
+    }
+
+    /**
+     * Close the model, then delete the watch list file and the files written
+     * by the model.
+     *
+     * @throws IOException if a file cannot be deleted
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        model.close();
+        watchListFile.delete();
+        try (Stream<Path> files = Files.walk(watchListFile.getParentFile().toPath())) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Import the watch list file through the model and wait for it to be written.
+     *
+     * @return index of the imported list
+     */
+    @Benchmark
+    public int importWatchList() {
+        int index = model.loadWatchList(watchListFile.getPath());
+        model.flush();
+        return index;
+    }
+
+    /**
+     * Match every watch list row by scanning the source list.
+     *
+     * @param bh blackhole consuming matches
+     */
+    @Benchmark
+    public void linearMatch(Blackhole bh) {
+        for (MBeans bean : watchList) {
+            bh.consume(source.stream().filter(b -> b.equals(bean)).findFirst().orElse(null));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package group5.model.filter;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import group5.model.BenchmarkData;
+import group5.model.beans.MBeans;
+
+/**
+ * Measures a query combining many indexed filters, answered by combining the
+ * index bitmaps or by scanning every movie.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BitmapFilterBenchmark {
+
+    /** A genre, a rating, a decade, a language and the watched status. */
+    static final List<List<String>> FILTERS = List.of(
+            List.of("genre", "==", "Drama"),
+            List.of("mpa", "==", "R"),
+            List.of("released", ">=", "1990"),
+            List.of("released", "<=", "1999"),
+            List.of("language", "==", "English"),
+            List.of("haswatched", "==", "true"));
+
+    /** Number of records in the source list. */
+    @Param({"1000000"})
+    private int sourceSize;
+
+    /** Generated source list. */
+    private List<MBeans> source;
+
+    /** Index of the source list. */
+    private MovieIndex index;
+
+    /** Filter handler under test. */
+    private FilterHandler handler;
+
+    /**
+     * Generate and index the source list.
+     */
+    @Setup
+    public void setUp() {
+        source = BenchmarkData.movies(sourceSize);
+        index = new MovieIndex(source);
+        handler = new FilterHandler();
+    }
+
+    /**
+     * Combine the bitmaps only.
+     *
+     * @return the matching ordinals
+     */
+    @Benchmark
+    public OrdinalBitmap bitmaps() {
+        return FilterHandler.match(FILTERS, index);
+    }
+
+    /**
+     * Combine the bitmaps and check the movies left.
+     *
+     * @return the matches
+     */
+    @Benchmark
+    public List<MBeans> indexed() {
+        return handler.filter(FILTERS, index).collect(Collectors.toList());
+    }
+
+    /**
+     * Filter by scanning every movie.
+     *
+     * @return the matches
+     */
+    @Benchmark
+    public List<MBeans> scan() {
+        return handler.filter(FILTERS, source.stream()).collect(Collectors.toList());
+    }
+}
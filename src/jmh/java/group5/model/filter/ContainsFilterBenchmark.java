@@ -0,0 +1,85 @@
+package group5.model.filter;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import group5.model.BenchmarkData;
+import group5.model.beans.MBeans;
+
+/**
+ * Measures CONTAINS filters typed into the filter pane, answered from the
+ * trigram indexes or by scanning every movie.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ContainsFilterBenchmark {
+
+    /** Number of records in the source list. */
+    @Param({"1000000"})
+    private int sourceSize;
+
+    /** The searched column and needle, separated by a colon. */
+    @Param({"title:king 4242", "title:7531", "actor:actor 1234", "director:director 777"})
+    private String query;
+
+    /** Generated source list. */
+    private List<MBeans> source;
+
+    /** Index of the source list. */
+    private MovieIndex index;
+
+    /** Filter handler under test. */
+    private FilterHandler handler;
+
+    /** The filter for the query. */
+    private List<List<String>> filters;
+
+    /**
+     * Generate and index the source list.
+     */
+    @Setup
+    public void setUp() {
+        source = BenchmarkData.movies(sourceSize);
+        index = new MovieIndex(source);
+        handler = new FilterHandler();
+        String[] parts = query.split(":", 2);
+        filters = List.of(List.of(parts[0], "~=", parts[1]));
+    }
+
+    /**
+     * Filter through the trigram index.
+     *
+     * @return the matches
+     */
+    @Benchmark
+    public List<MBeans> indexed() {
+        return handler.filter(filters, index).collect(Collectors.toList());
+    }
+
+    /**
+     * Filter by scanning every movie.
+     *
+     * @return the matches
+     */
+    @Benchmark
+    public List<MBeans> scan() {
+        return handler.filter(filters, source.stream()).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,92 @@
+package group5.model.filter;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import group5.model.BenchmarkData;
+import group5.model.MovieData;
+import group5.model.beans.MBeans;
+
+/**
+ * Measures filtering the source list with the filters built by the filter
+ * pane.
+ *
+ * The interpreted benchmark replays the old per-filter evaluation through
+ * FilterOperation, collecting a list after each filter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class FilterBenchmark {
+
+    /** Filters set by a typical search: a title word, a genre, a year range and a minimum rating. */
+    static final List<List<String>> FILTERS = List.of(
+            List.of("title", "~=", "night"),
+            List.of("genre", "~=", "drama"),
+            List.of("released", ">=", "1980"),
+            List.of("released", "<=", "2010"),
+            List.of("imdb", ">=", "5.0"));
+
+    /** Number of records in the source list. */
+    @Param({"100000"})
+    private int sourceSize;
+
+    /** Generated source list. */
+    private List<MBeans> source;
+
+    /** Filter handler under test. */
+    private FilterHandler handler;
+
+    /**
+     * Generate the source list.
+     */
+    @Setup
+    public void setUp() {
+        source = BenchmarkData.movies(sourceSize);
+        handler = new FilterHandler();
+    }
+
+    /**
+     * Filter through the handler.
+     *
+     * @return the matches
+     */
+    @Benchmark
+    public List<MBeans> compiled() {
+        return handler.filter(FILTERS, source.stream()).collect(Collectors.toList());
+    }
+
+    /**
+     * Filter one filter at a time through FilterOperation, without planning.
+     *
+     * @return the matches
+     */
+    @Benchmark
+    public List<MBeans> interpreted() {
+        List<MBeans> filtered = source;
+        for (List<String> filter : FILTERS) {
+            MovieData column = MovieData.fromString(filter.get(0));
+            Operations op = Operations.getOperatorFromStr(filter.get(1));
+            filtered = filtered.stream()
+                    .filter(FilterOperation.getFilter(column, op, filter.get(2)))
+                    .collect(Collectors.toList());
+        }
+        return filtered;
+    }
+}
@@ -0,0 +1,78 @@
+package group5.model.filter;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import group5.model.BenchmarkData;
+import group5.model.beans.MBeans;
+
+/**
+ * Measures filtering large source lists on a growing number of threads.
+ *
+ * One thread filters sequentially and is the baseline for the speedup. The
+ * 5M list needs a heap of about 4 GB, run it with -jvmArgs -Xmx6g.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ParallelFilterBenchmark {
+
+    /** Number of records in the source list. */
+    @Param({"100000", "1000000", "5000000"})
+    private int sourceSize;
+
+    /** Number of filter threads. */
+    @Param({"1", "2", "4", "8", "16"})
+    private int threads;
+
+    /** Generated source list. */
+    private List<MBeans> source;
+
+    /** Filter handler under test. */
+    private FilterHandler handler;
+
+    /**
+     * Generate the source list and size the worker pool.
+     */
+    @Setup
+    public void setUp() {
+        source = BenchmarkData.movies(sourceSize);
+        handler = new FilterHandler();
+        handler.setParallelism(threads);
+    }
+
+    /**
+     * Stop the worker pool.
+     */
+    @TearDown
+    public void tearDown() {
+        handler.close();
+    }
+
+    /**
+     * Filter through the handler.
+     *
+     * @return the matches
+     */
+    @Benchmark
+    public List<MBeans> filter() {
+        return handler.filter(FilterBenchmark.FILTERS, source.stream()).collect(Collectors.toList());
+    }
+}
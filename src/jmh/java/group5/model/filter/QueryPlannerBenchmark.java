@@ -0,0 +1,102 @@
+package group5.model.filter;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import group5.model.BenchmarkData;
+import group5.model.beans.MBeans;
+
+/**
+ * Measures a query mixing a rare director with broad ranges, run as planned,
+ * by looking every filter up in the index, or by scanning every movie.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class QueryPlannerBenchmark {
+
+    /** A rare director among broad year, runtime, rating, genre and language filters. */
+    static final List<List<String>> FILTERS = List.of(
+            List.of("released", ">=", "1900"),
+            List.of("runtime", ">", "90"),
+            List.of("imdb", ">=", "2"),
+            List.of("genre", "==", "Drama"),
+            List.of("language", "==", "English"),
+            List.of("director", "==", "Director 4242"));
+
+    /** Number of records in the source list. */
+    @Param({"1000000"})
+    private int sourceSize;
+
+    /** Generated source list. */
+    private List<MBeans> source;
+
+    /** Index of the source list. */
+    private MovieIndex index;
+
+    /** Filter handler under test. */
+    private FilterHandler handler;
+
+    /**
+     * Generate and index the source list, and print the plan.
+     */
+    @Setup
+    public void setUp() {
+        source = BenchmarkData.movies(sourceSize);
+        index = new MovieIndex(source);
+        handler = new FilterHandler();
+        System.out.println(QueryPlanner.plan(FILTERS, index).explain());
+    }
+
+    /**
+     * Run the plan chosen by the planner.
+     *
+     * @return the matches
+     */
+    @Benchmark
+    public List<MBeans> planned() {
+        return handler.filter(FILTERS, index).collect(Collectors.toList());
+    }
+
+    /**
+     * Look every filter up in the index and check the movies left.
+     *
+     * @return the matches
+     */
+    @Benchmark
+    public List<MBeans> lookupAll() {
+        OrdinalBitmap candidates = null;
+        for (List<String> filter : FILTERS) {
+            OrdinalBitmap bitmap = index.lookup(filter);
+            candidates = candidates == null ? bitmap : candidates.and(bitmap);
+        }
+        return index.movies(candidates).stream().filter(FilterCompiler.compile(FILTERS))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Filter by scanning every movie.
+     *
+     * @return the matches
+     */
+    @Benchmark
+    public List<MBeans> scan() {
+        return handler.filter(FILTERS, source.stream()).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,74 @@
+package group5.model.formatters;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+
+import group5.model.BenchmarkData;
+import group5.model.beans.MBeans;
+
+/**
+ * Measures deserializing OMDb shaped JSON records, with runtimes such as
+ * "142 min", box office values such as "$85,892,546" and release dates such
+ * as "20 Jul 1988".
+ *
+ * Run with `-prof gc` to compare gc.alloc.rate.norm, the bytes allocated per
+ * call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DeserializeBenchmark {
+
+    /** Number of records deserialized per call. */
+    @Param({"100000"})
+    private int recordCount;
+
+    /** The records as JSON. */
+    private byte[] json;
+
+    /**
+     * Write the generated records as JSON.
+     *
+     * @throws IOException if the records cannot be written
+     */
+    @Setup
+    public void setUp() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MBeansFormatter.writeMedias(BenchmarkData.movies(recordCount), out, Formats.JSON);
+        json = out.toByteArray();
+    }
+
+    /**
+     * Deserialize every record.
+     *
+     * @param blackhole consumes the records
+     * @throws IOException if a record cannot be read
+     */
+    @Benchmark
+    public void deserialize(Blackhole blackhole) throws IOException {
+        try (MappingIterator<MBeans> records = MBeansMappers.reader(Formats.JSON).readValues(json)) {
+            while (records.hasNext()) {
+                blackhole.consume(records.next());
+            }
+        }
+    }
+}
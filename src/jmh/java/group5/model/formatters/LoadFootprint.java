@@ -0,0 +1,115 @@
+package group5.model.formatters;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import group5.model.beans.MBeans;
+
+/**
+ * Prints the heap histogram of the bundled source list scaled up and loaded
+ * from JSON, to see what the loaded records are made of.
+ *
+ * Run with java -Xmx3g -cp build/libs/project-jmh.jar
+ * group5.model.formatters.LoadFootprint [sourceSize].
+ */
+public final class LoadFootprint {
+
+    /** Number of records in the scaled source list when no size is given. */
+    private static final int DEFAULT_SIZE = 1_000_000;
+
+    /** Number of histogram lines printed. */
+    private static final int HISTOGRAM_LINES = 15;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private LoadFootprint() {
+        // empty
+    }
+
+    /**
+     * Load the scaled source list and print its heap histogram.
+     *
+     * @param args optional number of records in the scaled source list
+     * @throws IOException if the source list cannot be read or written
+     * @throws JMException if the histogram cannot be taken
+     */
+    public static void main(String[] args) throws IOException, JMException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SIZE;
+        File sourceFile = Files.createTempFile("footprint_source", ".json").toFile();
+        try {
+            writeScaled(sourceFile, size);
+            long empty = usedHeap();
+            List<MBeans> records;
+            try (Stream<MBeans> stream = MBeansLoader.streamMediasFromJSON(sourceFile.getPath())) {
+                records = stream.collect(Collectors.toList());
+            }
+            long used = usedHeap() - empty;
+            System.out.printf(Locale.ROOT, "%d records: %,d bytes, %.0f bytes per record%n", records.size(), used,
+                    (double) used / records.size());
+            String histogram = (String) ManagementFactory.getPlatformMBeanServer().invoke(
+                    new ObjectName("com.sun.management:type=DiagnosticCommand"), "gcClassHistogram",
+                    new Object[] {null}, new String[] {String[].class.getName()});
+            histogram.lines().limit(HISTOGRAM_LINES).forEach(System.out::println);
+        } finally {
+            sourceFile.delete();
+        }
+    }
+
+    /**
+     * Write the bundled source list repeated up to a number of records, each
+     * copy with its own imdbID.
+     *
+     * @param sourceFile the file to write
+     * @param size number of records to write
+     * @throws IOException if the source list cannot be read or written
+     */
+    private static void writeScaled(File sourceFile, int size) throws IOException {
+        List<MBeans> bundled;
+        try (InputStream in = LoadFootprint.class.getClassLoader().getResourceAsStream("source_bak.json")) {
+            Files.copy(in, sourceFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        try (Stream<MBeans> stream = MBeansLoader.streamMediasFromJSON(sourceFile.getPath())) {
+            bundled = stream.collect(Collectors.toList());
+        }
+        List<MBeans> scaled = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            MBeans movie = bundled.get(i % bundled.size());
+            scaled.add(new MBeans(movie.getTitle(), movie.getYear(), movie.getType(), movie.getRated(),
+                    movie.getReleased(), movie.getRuntime(), movie.getGenre(), movie.getDirector(),
+                    movie.getWriter(), movie.getActors(), movie.getPlot(), movie.getLanguage(), movie.getCountry(),
+                    movie.getAwards(), movie.getPoster(), movie.getMetascore(), movie.getImdbRating(),
+                    movie.getBoxOffice(), String.format("tt%08d", i), movie.getWatched(), movie.getMyRating()));
+        }
+        try (OutputStream out = new FileOutputStream(sourceFile)) {
+            MBeansFormatter.writeMedias(scaled, out, Formats.JSON);
+        }
+    }
+
+    /**
+     * Get the heap in use once garbage is collected.
+     *
+     * @return the bytes in use
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
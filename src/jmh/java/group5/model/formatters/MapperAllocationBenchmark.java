@@ -0,0 +1,132 @@
+package group5.model.formatters;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+import group5.model.BenchmarkData;
+import group5.model.beans.MBeans;
+import group5.model.net.MovieAPIHandler;
+
+/**
+ * Measures the per-call cost of building a mapper against the shared readers
+ * and writers of MBeansMappers.
+ *
+ * Run with `-prof gc` to compare gc.alloc.rate.norm, the bytes allocated per
+ * call. The fresh benchmarks replay how the formatters and the API handler
+ * built their mappers before.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MapperAllocationBenchmark {
+
+    /** Number of movies in a written list, the size of a typical watch list. */
+    private static final int LIST_SIZE = 10;
+
+    /** Movies to write. */
+    private List<MBeans> records;
+
+    /** A single movie as returned by the API. */
+    private byte[] movieJson;
+
+    /**
+     * Generate the records and the API response.
+     *
+     * @throws IOException if the response cannot be written
+     */
+    @Setup
+    public void setUp() throws IOException {
+        records = BenchmarkData.movies(LIST_SIZE);
+        movieJson = new ObjectMapper().writeValueAsBytes(records.get(0));
+    }
+
+    /**
+     * Write a list to JSON with a new mapper.
+     *
+     * @throws IOException if writing fails
+     */
+    @Benchmark
+    public void jsonWriteFresh() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.enable(SerializationFeature.INDENT_OUTPUT);
+        mapper.writeValue(OutputStream.nullOutputStream(), records);
+    }
+
+    /**
+     * Write a list to JSON with the shared writer.
+     *
+     * @throws IOException if writing fails
+     */
+    @Benchmark
+    public void jsonWriteShared() throws IOException {
+        MBeansFormatter.writeMedias(records, OutputStream.nullOutputStream(), Formats.JSON);
+    }
+
+    /**
+     * Write a list to CSV with a new mapper and schema.
+     *
+     * @throws IOException if writing fails
+     */
+    @Benchmark
+    public void csvWriteFresh() throws IOException {
+        CsvMapper mapper = new CsvMapper();
+        CsvSchema schema = mapper.schemaFor(MBeans.class).withHeader();
+        mapper.writer(schema).writeValue(OutputStream.nullOutputStream(), records);
+    }
+
+    /**
+     * Write a list to CSV with the shared writer.
+     *
+     * @throws IOException if writing fails
+     */
+    @Benchmark
+    public void csvWriteShared() throws IOException {
+        MBeansFormatter.writeMedias(records, OutputStream.nullOutputStream(), Formats.CSV);
+    }
+
+    /**
+     * Parse an API movie with a new mapper.
+     *
+     * @return the parsed movie
+     * @throws IOException if parsing fails
+     */
+    @Benchmark
+    public MBeans apiParseFresh() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        return mapper.treeToValue(mapper.readTree(new ByteArrayInputStream(movieJson)), MBeans.class);
+    }
+
+    /**
+     * Parse an API movie with the shared reader.
+     *
+     * @return the parsed movie
+     */
+    @Benchmark
+    public MBeans apiParseShared() {
+        return MovieAPIHandler.parseMovieFromAPI(new ByteArrayInputStream(movieJson));
+    }
+}
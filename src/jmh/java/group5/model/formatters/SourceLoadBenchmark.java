@@ -0,0 +1,89 @@
+package group5.model.formatters;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import group5.model.BenchmarkData;
+import group5.model.beans.MBeans;
+
+/**
+ * Measures loading the source list into an imdbID index, the way
+ * Model.loadSourceData does, from JSON and from a binary snapshot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class SourceLoadBenchmark {
+
+    /** Number of records in the source list. */
+    @Param({"1000000"})
+    private int sourceSize;
+
+    /** Format of the source file. */
+    @Param({"JSON", "BINARY"})
+    private Formats format;
+
+    /** Source file to load. */
+    private File sourceFile;
+
+    /**
+     * Write the generated source list in the benchmarked format.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Setup
+    public void setUp() throws IOException {
+        sourceFile = Files.createTempFile("bench_source", "." + format).toFile();
+        try (OutputStream out = new FileOutputStream(sourceFile)) {
+            MBeansFormatter.writeMedias(BenchmarkData.movies(sourceSize), out, format);
+        }
+    }
+
+    /**
+     * Delete the source file.
+     */
+    @TearDown
+    public void tearDown() {
+        sourceFile.delete();
+    }
+
+    /**
+     * Stream the source file into an index keyed by imdbID.
+     *
+     * @return the loaded index
+     * @throws IOException if the file cannot be read
+     */
+    @Benchmark
+    public Map<String, MBeans> load() throws IOException {
+        Map<String, MBeans> index = new LinkedHashMap<>();
+        try (Stream<MBeans> records = format == Formats.BINARY
+                ? MBeansLoader.streamMediasFromBinary(sourceFile.getPath())
+                : MBeansLoader.streamMediasFromJSON(sourceFile.getPath())) {
+            records.forEach(bean -> index.putIfAbsent(bean.getID(), bean));
+        }
+        return index;
+    }
+}
@@ -0,0 +1,90 @@
+package group5.model.formatters;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import group5.model.BenchmarkData;
+import group5.model.beans.MBeans;
+
+/**
+ * Measures writing the source list to a JSON file, indented as for user
+ * exports and compact as for the saves the application reads back. The size
+ * of the written file is printed on tear down.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class SourceSaveBenchmark {
+
+    /** Number of records in the source list. */
+    @Param({"1000000"})
+    private int sourceSize;
+
+    /** Whether the file is written compact. */
+    @Param({"false", "true"})
+    private boolean compact;
+
+    /** Source list to write. */
+    private List<MBeans> source;
+
+    /** File written. */
+    private File sourceFile;
+
+    /**
+     * Generate the source list.
+     *
+     * @throws IOException if the file cannot be created
+     */
+    @Setup
+    public void setUp() throws IOException {
+        source = BenchmarkData.movies(sourceSize);
+        sourceFile = Files.createTempFile("bench_save", ".json").toFile();
+    }
+
+    /**
+     * Print the size of the written file and delete it.
+     */
+    @TearDown
+    public void tearDown() {
+        System.out.printf("%n%s file: %,d bytes%n", compact ? "compact" : "indented", sourceFile.length());
+        sourceFile.delete();
+    }
+
+    /**
+     * Write the source list.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Benchmark
+    public void save() throws IOException {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(sourceFile))) {
+            if (compact) {
+                MBeansFormatter.writeMediasCompact(source, out, Formats.JSON);
+            } else {
+                MBeansFormatter.writeMedias(source, out, Formats.JSON);
+            }
+        }
+    }
+}
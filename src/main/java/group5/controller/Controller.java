@@ -5,10 +5,16 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import javax.swing.SwingUtilities;
+
 import org.apache.commons.lang3.tuple.Triple;
 
 import group5.model.filter.Operations;
@@ -30,6 +36,24 @@ public class Controller implements IController, IFeature {
      * The view object representing the user interface.
      */
     private IView view;
+    /**
+     * Runs the filter passes started while the user types, one at a time and
+     * off the event dispatch thread.
+     */
+    private final ExecutorService liveFilterExecutor = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "live-filter");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /**
+     * Generation of the latest table update. A live filter pass only shows its
+     * result if no newer keystroke or table update came since it started.
+     */
+    private final AtomicLong tableGeneration = new AtomicLong();
+    /**
+     * The live filter pass last started, null if none was.
+     */
+    private Future<?> liveFilter;
 
     /**
      * Constructor for the controller.
@@ -58,9 +82,9 @@ public class Controller implements IController, IFeature {
 
         // setup source table records - only after all the user lists are loaded
         // no filters applied on initialization
-        view.setSourceTableRecords(model.getRecords(),
-                getWatchlistNames(), getRecordUserListMatrix(model.getRecords()));
+        showSourceRecords(model.getRecords());
         view.getFilterPane().setMovies(model.getRecords(), true);
+        setSourceFilterRanges();
     }
 
     /**
@@ -72,6 +96,7 @@ public class Controller implements IController, IFeature {
     @Override
     public void deleteWatchlist(int userListIndex) {
         System.out.println("[Controller] Request to delete watchlist " + userListIndex);
+        cancelLiveFilter();
         if (userListIndex < 0 || userListIndex >= model.getUserListCount()) {
             System.out.println("[Controller] Error deleting watchlist: index out of bounds");
         } else {
@@ -84,8 +109,7 @@ public class Controller implements IController, IFeature {
             // update source table because of new RecordUserListMatrix
             // (not necessary because the table will be updated on tab change in current implementation,
             // kept for safety in case of future changes)
-            view.setSourceTableRecords(model.getRecords(),
-                    getWatchlistNames(), getRecordUserListMatrix(model.getRecords()));
+            showSourceRecords(model.getRecords());
             view.setActiveTab(0);
         }
     }
@@ -142,6 +166,7 @@ public class Controller implements IController, IFeature {
     @Override
     public void importListFromFile(String filepath) {
         System.out.println("[Controller] User requested to import watchlist from " + filepath);
+        cancelLiveFilter();
         int newWatchlistIdx = model.loadWatchList(filepath);
         if (newWatchlistIdx < 0) {
             Path path = Paths.get(filepath);
@@ -164,8 +189,7 @@ public class Controller implements IController, IFeature {
         // Set records for the new table (this call isn't necessary because the table will be updated on tab change)
         view.setUserTableRecords(model.getRecords(newWatchlistIdx), newWatchlistIdx);
         // Update the source table because of new RecordUserListMatrix
-        view.setSourceTableRecords(model.getRecords(),
-                getWatchlistNames(), getRecordUserListMatrix(model.getRecords()));
+        showSourceRecords(model.getRecords());
         view.setActiveTab(newWatchlistIdx + 1);
 
     }
@@ -193,10 +217,10 @@ public class Controller implements IController, IFeature {
      */
     @Override
     public void applyFilters() {
+        cancelLiveFilter();
         view.clearTableSelection();
         List<List<String>> filters = getFilterOptions();
         int currTabIdx = view.getActiveTab();
-        List<MBeans> recordList;
         if (currTabIdx == 0) {
             // Source table: fetch API + apply filters + update filter ranges
             try {
@@ -204,17 +228,15 @@ public class Controller implements IController, IFeature {
             } catch (Exception e) {
                 System.out.println("[Controller] Failed to fetch new records: Operating in offline mode");
             }
-            recordList = model.getRecords(filters).collect(Collectors.toList());
-            view.setSourceTableRecords(recordList.stream(),
-                    getWatchlistNames(), getRecordUserListMatrix(recordList.stream()));
+            showSourceRecords(model.getRecords(filters));
 
             // this filter range has to be set without any filters
             view.getFilterPane().setMovies(model.getAllRecords(), true);
+            setSourceFilterRanges();
 
         } else {
             // User table: apply filters only
-            recordList = model.getRecords(currTabIdx - 1, filters).collect(Collectors.toList());
-            view.setUserTableRecords(recordList.stream(), currTabIdx - 1);
+            view.setUserTableRecords(model.getRecords(currTabIdx - 1, filters), currTabIdx - 1);
         }
     }
 
@@ -225,6 +247,7 @@ public class Controller implements IController, IFeature {
      */
     @Override
     public void clearFiltersAndReloadRecords() {
+        cancelLiveFilter();
         model.clearFilter();
         view.getFilterPane().resetFilterOptions();
         view.getFilterPane().clearFilterOptions();
@@ -234,12 +257,45 @@ public class Controller implements IController, IFeature {
             view.setSourceTableRecords(recordList.stream(),
                     getWatchlistNames(), getRecordUserListMatrix(recordList.stream()));
             view.getFilterPane().setMovies(recordList.stream(), true);
+            setSourceFilterRanges();
         } else {
             view.setUserTableRecords(recordList.stream(), currTabIdx - 1);
             view.getFilterPane().setMovies(recordList.stream());
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <br>
+     * Implemented to store the filters and filter the active table on the
+     * live filter thread. The pass still running for the previous keystroke
+     * is cancelled, and a result is shown only if it is still the latest.
+     * Unlike applyFilters, no new records are fetched from the API.
+     */
+    @Override
+    public void filterAsYouType() {
+        List<List<String>> filters = getFilterOptions();
+        int currTabIdx = view.getActiveTab();
+        model.setFilter(filters);
+        long generation = cancelLiveFilter();
+        liveFilter = liveFilterExecutor.submit(() -> {
+            try {
+                if (currTabIdx == 0) {
+                    List<MBeans> records = model.filterRecords(filters).collect(Collectors.toList());
+                    String[] names = getWatchlistNames();
+                    boolean[][] matrix = getRecordUserListMatrix(records.stream());
+                    publishLiveFilter(generation, () -> view.setSourceTableRecords(records.stream(), names, matrix));
+                } else {
+                    List<MBeans> records = model.filterRecords(currTabIdx - 1, filters)
+                            .collect(Collectors.toList());
+                    publishLiveFilter(generation, () -> view.setUserTableRecords(records.stream(), currTabIdx - 1));
+                }
+            } catch (RuntimeException e) {
+                System.out.println("[Controller] Error filtering as you type: " + e.getMessage());
+            }
+        });
+    }
+
     /**
      * {@inheritDoc}
      * <br>
@@ -258,6 +314,7 @@ public class Controller implements IController, IFeature {
      * and then refresh the table records in the view.
      */
     public void removeFromWatchlist(MBeans record, int userListIndex) {
+        cancelLiveFilter();
         if (view.getActiveTab() > 0) {
             // only clears selection if the current tab is the affected watchlist
             view.clearTableSelection();
@@ -276,8 +333,7 @@ public class Controller implements IController, IFeature {
             view.getFilterPane().setMovies(model.getAllRecords(userListIndex), false);
         }
 
-        view.setSourceTableRecords(model.getRecords(),
-                getWatchlistNames(), getRecordUserListMatrix(model.getRecords()));
+        showSourceRecords(model.getRecords());
         view.setUserTableRecords(model.getRecords(userListIndex), userListIndex);
     }
 
@@ -288,9 +344,9 @@ public class Controller implements IController, IFeature {
      * and then refresh the table records in the view.
      */
     public void addToWatchlist(MBeans record, int userListIndex) {
+        cancelLiveFilter();
         model.addToWatchList(record, userListIndex);
-        view.setSourceTableRecords(model.getRecords(), getWatchlistNames(),
-                getRecordUserListMatrix(model.getRecords()));
+        showSourceRecords(model.getRecords());
         view.setUserTableRecords(model.getRecords(userListIndex), userListIndex); // This is not absolutely necessary
         // Since adding to a list is done from the source tab only, there's no need to update the filter pane
     }
@@ -302,6 +358,7 @@ public class Controller implements IController, IFeature {
      */
     public void changeRating(MBeans record, double rating) {
         System.out.println("[Controller] Changing rating for " + record.getTitle() + " to " + rating);
+        cancelLiveFilter();
         model.updateUserRating(record, rating);
     }
 
@@ -312,14 +369,13 @@ public class Controller implements IController, IFeature {
      * accordingly depending on the caller of the change.
      */
     public void changeWatchedStatus(MBeans record, boolean watched, String caller) {
+        cancelLiveFilter();
         model.updateWatched(record, watched);
         if (caller.equalsIgnoreCase("detailsPane")) {   // If caller is detailsPane, update the listPane
             System.out.println("[Controller] Changed Watched Status: Updating listPane from detailsPane");
             if (view.getActiveTab() == 0) {
                 // If the current tab is the source table, update the source table
-                view.setSourceTableRecords(getRecordsForActiveTab(),
-                        getWatchlistNames(),
-                        getRecordUserListMatrix(getRecordsForActiveTab()));
+                showSourceRecords(getRecordsForActiveTab());
             } else if (getRecordsForActiveTab().anyMatch(r -> r == record)) {
                 // If the record is in the active user list, update the user list
                 view.setUserTableRecords(getRecordsForActiveTab(), view.getActiveTab() - 1);
@@ -345,6 +401,39 @@ public class Controller implements IController, IFeature {
         clearFiltersAndReloadRecords();
     }
 
+    /**
+     * Private helper method to cancel the live filter pass in flight, so its
+     * result is never shown over a newer table update.
+     *
+     * @return the generation of the new table update
+     */
+    private long cancelLiveFilter() {
+        long generation = tableGeneration.incrementAndGet();
+        if (liveFilter != null) {
+            liveFilter.cancel(true);
+        }
+        return generation;
+    }
+
+    /**
+     * Private helper method to show the result of a live filter pass on the
+     * event dispatch thread, if no newer table update came since it started.
+     *
+     * @param generation the generation of the pass
+     * @param update the table update showing the result
+     */
+    private void publishLiveFilter(long generation, Runnable update) {
+        if (Thread.currentThread().isInterrupted() || generation != tableGeneration.get()) {
+            return;
+        }
+        SwingUtilities.invokeLater(() -> {
+            if (generation == tableGeneration.get()) {
+                view.clearTableSelection();
+                update.run();
+            }
+        });
+    }
+
     /**
      * A private method to retrieve the records for the active tab for convenience.
      *
@@ -359,6 +448,29 @@ public class Controller implements IController, IFeature {
         }
     }
 
+    /**
+     * Private helper method to show records in the source table.
+     *
+     * The records are evaluated once and shared by the table and the watchlist
+     * matrix, so a filtered stream is not filtered twice.
+     *
+     * @param records a stream of MBeans records
+     */
+    private void showSourceRecords(Stream<MBeans> records) {
+        List<MBeans> recordList = records.collect(Collectors.toList());
+        view.setSourceTableRecords(recordList.stream(),
+                getWatchlistNames(), getRecordUserListMatrix(recordList.stream()));
+    }
+
+    /**
+     * Private helper method to set the range filter min/max from the source
+     * list indexes instead of streaming the source list for each column.
+     */
+    private void setSourceFilterRanges() {
+        view.getFilterPane().setRangeFilterRanges(model.getRange(MovieData.RELEASED),
+                model.getRange(MovieData.IMDB), model.getRange(MovieData.BOXOFFICE));
+    }
+
     /**
      * Private helper method to retrieve a boolean matrix representing the user
      * lists for each record.
@@ -84,6 +84,12 @@ public interface IFeature {
      */
     void applyFilters();
 
+    /**
+     * Handles filters typed by the user, filtering in the background once
+     * typing pauses.
+     */
+    void filterAsYouType();
+
     /**
      * Clears all applied filters and refreshes the views.
      */
@@ -0,0 +1,141 @@
+package group5.model;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Crash safe file writes.
+ *
+ * Content is written to a temporary file in the target directory, forced to
+ * disk and then renamed over the target, so the target always holds either
+ * the previous or the new content. The previous content can be kept as a
+ * `.bak` file next to the target.
+ */
+public final class AtomicFileWriter {
+
+    /** Suffix of the file holding the previous generation. */
+    public static final String BACKUP_SUFFIX = ".bak";
+
+    /**
+     * Writes content to an output stream.
+     */
+    @FunctionalInterface
+    public interface Content {
+
+        /**
+         * Write the content.
+         *
+         * @param out the stream to write to, closed by the caller.
+         * @throws IOException if the content cannot be written.
+         */
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private AtomicFileWriter() {
+        // empty
+    }
+
+    /**
+     * Atomically replace a file with new content.
+     *
+     * If writing fails the target is left untouched.
+     *
+     * @param filename path of the file to replace.
+     * @param keepBackup whether to keep the previous content as a `.bak` file.
+     * @param content writes the new content.
+     * @throws IOException if the content cannot be written or moved in place.
+     */
+    public static void write(String filename, boolean keepBackup, Content content) throws IOException {
+        Path target = Paths.get(filename).toAbsolutePath();
+        Path directory = target.getParent();
+        Path temp = Files.createTempFile(directory, "." + target.getFileName(), ".tmp");
+        try {
+            try (FileOutputStream file = new FileOutputStream(temp.toFile())) {
+                OutputStream out = new BufferedOutputStream(file);
+                // Formatters may close the stream they are given, keep the file open until it is synced
+                content.writeTo(new FilterOutputStream(out) {
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        out.write(b, off, len);
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        out.flush();
+                    }
+                });
+                out.flush();
+                file.getFD().sync();
+            }
+            if (keepBackup && Files.exists(target)) {
+                backup(target);
+            }
+            move(temp, target);
+            syncDirectory(directory);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Keep the current content of a file as its `.bak` file.
+     *
+     * Uses a hard link where supported so no data is copied.
+     *
+     * @param target the file to back up.
+     * @throws IOException if the backup cannot be created.
+     */
+    private static void backup(Path target) throws IOException {
+        Path backup = target.resolveSibling(target.getFileName() + BACKUP_SUFFIX);
+        Files.deleteIfExists(backup);
+        try {
+            Files.createLink(backup, target);
+        } catch (IOException | UnsupportedOperationException e) {
+            Files.copy(target, backup, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Rename the temporary file over the target, atomically where supported.
+     *
+     * @param temp the written temporary file.
+     * @param target the file to replace.
+     * @throws IOException if the file cannot be moved.
+     */
+    private static void move(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Force the directory entry of the renamed file to disk.
+     *
+     * Not every platform allows opening a directory, in which case the rename
+     * is left to the file system.
+     *
+     * @param directory the directory holding the target.
+     */
+    private static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // directory sync is best effort
+        }
+    }
+}
@@ -0,0 +1,382 @@
+package group5.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import group5.model.beans.MBeans;
+
+/**
+ * MBeans view of a movie stored in a ColumnarSource.
+ *
+ * The view holds only the ordinal of the movie, every field is read from the
+ * columns. The watched status and user rating, the fields users edit, are
+ * written back to the columns. The first call to any other setter copies
+ * every field into the bean, after which the bean no longer reads the
+ * columns. Serializing the view writes a plain MBeans copy.
+ */
+final class ColumnarMBeans extends MBeans {
+
+    /** Serialization version. */
+    private static final long serialVersionUID = 1L;
+
+    /** The source holding the movie. */
+    private final transient ColumnarSource source;
+
+    /** Ordinal of the movie in the source. */
+    private final int ordinal;
+
+    /** Whether the fields were copied into the bean. */
+    private boolean materialized;
+
+    /**
+     * Columnar bean constructor.
+     *
+     * @param source the source holding the movie
+     * @param ordinal ordinal of the movie in the source
+     */
+    ColumnarMBeans(ColumnarSource source, int ordinal) {
+        this.source = source;
+        this.ordinal = ordinal;
+    }
+
+    @Override
+    public String getTitle() {
+        return this.materialized ? super.getTitle() : this.source.title(this.ordinal);
+    }
+
+    @Override
+    public int getYear() {
+        return this.materialized ? super.getYear() : this.source.year(this.ordinal);
+    }
+
+    @Override
+    public String getType() {
+        return this.materialized ? super.getType() : this.source.type(this.ordinal);
+    }
+
+    @Override
+    public String getRated() {
+        return this.materialized ? super.getRated() : this.source.rated(this.ordinal);
+    }
+
+    @Override
+    public LocalDate getReleased() {
+        return this.materialized ? super.getReleased() : this.source.released(this.ordinal);
+    }
+
+    @Override
+    public int getRuntime() {
+        return this.materialized ? super.getRuntime() : this.source.runtime(this.ordinal);
+    }
+
+    @Override
+    public List<String> getGenre() {
+        return this.materialized ? super.getGenre() : this.source.list(ColumnarSource.GENRE, this.ordinal, false);
+    }
+
+    @Override
+    public List<String> getDirector() {
+        if (this.materialized) {
+            return super.getDirector();
+        }
+        return this.source.list(ColumnarSource.DIRECTOR, this.ordinal, false);
+    }
+
+    @Override
+    public List<String> getWriter() {
+        return this.materialized ? super.getWriter() : this.source.list(ColumnarSource.WRITER, this.ordinal, false);
+    }
+
+    @Override
+    public List<String> getActors() {
+        return this.materialized ? super.getActors() : this.source.list(ColumnarSource.ACTORS, this.ordinal, false);
+    }
+
+    @Override
+    public String getPlot() {
+        return this.materialized ? super.getPlot() : this.source.plot(this.ordinal);
+    }
+
+    @Override
+    public List<String> getLanguage() {
+        if (this.materialized) {
+            return super.getLanguage();
+        }
+        return this.source.list(ColumnarSource.LANGUAGE, this.ordinal, false);
+    }
+
+    @Override
+    public List<String> getCountry() {
+        if (this.materialized) {
+            return super.getCountry();
+        }
+        return this.source.list(ColumnarSource.COUNTRY, this.ordinal, false);
+    }
+
+    @Override
+    public String getAwards() {
+        return this.materialized ? super.getAwards() : this.source.awards(this.ordinal);
+    }
+
+    @Override
+    public String getPoster() {
+        return this.materialized ? super.getPoster() : this.source.poster(this.ordinal);
+    }
+
+    @Override
+    public int getMetascore() {
+        return this.materialized ? super.getMetascore() : this.source.metascore(this.ordinal);
+    }
+
+    @Override
+    public double getImdbRating() {
+        return this.materialized ? super.getImdbRating() : this.source.imdbRating(this.ordinal);
+    }
+
+    @Override
+    public int getBoxOffice() {
+        return this.materialized ? super.getBoxOffice() : this.source.boxOffice(this.ordinal);
+    }
+
+    @Override
+    public String getID() {
+        return this.materialized ? super.getID() : this.source.id(this.ordinal);
+    }
+
+    @Override
+    public boolean getWatched() {
+        return this.source.watched(this.ordinal);
+    }
+
+    @Override
+    public double getMyRating() {
+        return this.source.myRating(this.ordinal);
+    }
+
+    @Override
+    public String getTitleKey() {
+        return this.materialized ? super.getTitleKey() : this.source.titleKey(this.ordinal);
+    }
+
+    @Override
+    public String getRatedKey() {
+        return this.materialized ? super.getRatedKey() : this.source.ratedKey(this.ordinal);
+    }
+
+    @Override
+    public List<String> getGenreKeys() {
+        if (this.materialized) {
+            return super.getGenreKeys();
+        }
+        return this.source.list(ColumnarSource.GENRE, this.ordinal, true);
+    }
+
+    @Override
+    public List<String> getDirectorKeys() {
+        if (this.materialized) {
+            return super.getDirectorKeys();
+        }
+        return this.source.list(ColumnarSource.DIRECTOR, this.ordinal, true);
+    }
+
+    @Override
+    public List<String> getWriterKeys() {
+        if (this.materialized) {
+            return super.getWriterKeys();
+        }
+        return this.source.list(ColumnarSource.WRITER, this.ordinal, true);
+    }
+
+    @Override
+    public List<String> getActorsKeys() {
+        if (this.materialized) {
+            return super.getActorsKeys();
+        }
+        return this.source.list(ColumnarSource.ACTORS, this.ordinal, true);
+    }
+
+    @Override
+    public List<String> getLanguageKeys() {
+        if (this.materialized) {
+            return super.getLanguageKeys();
+        }
+        return this.source.list(ColumnarSource.LANGUAGE, this.ordinal, true);
+    }
+
+    @Override
+    public void setTitle(String title) {
+        materialize();
+        super.setTitle(title);
+    }
+
+    @Override
+    public void setYear(int year) {
+        materialize();
+        super.setYear(year);
+    }
+
+    @Override
+    public void setType(String type) {
+        materialize();
+        super.setType(type);
+    }
+
+    @Override
+    public void setRated(String rated) {
+        materialize();
+        super.setRated(rated);
+    }
+
+    @Override
+    public void setReleased(LocalDate released) {
+        materialize();
+        super.setReleased(released);
+    }
+
+    @Override
+    public void setRuntime(int runtime) {
+        materialize();
+        super.setRuntime(runtime);
+    }
+
+    @Override
+    public void setGenre(List<String> genre) {
+        materialize();
+        super.setGenre(genre);
+    }
+
+    @Override
+    public void setDirector(List<String> director) {
+        materialize();
+        super.setDirector(director);
+    }
+
+    @Override
+    public void setWriter(List<String> writer) {
+        materialize();
+        super.setWriter(writer);
+    }
+
+    @Override
+    public void setActors(List<String> actors) {
+        materialize();
+        super.setActors(actors);
+    }
+
+    @Override
+    public void setPlot(String plot) {
+        materialize();
+        super.setPlot(plot);
+    }
+
+    @Override
+    public void setLanguage(List<String> language) {
+        materialize();
+        super.setLanguage(language);
+    }
+
+    @Override
+    public void setCountry(List<String> country) {
+        materialize();
+        super.setCountry(country);
+    }
+
+    @Override
+    public void setAwards(String awards) {
+        materialize();
+        super.setAwards(awards);
+    }
+
+    @Override
+    public void setPoster(String poster) {
+        materialize();
+        super.setPoster(poster);
+    }
+
+    @Override
+    public void setMetascore(int metascore) {
+        materialize();
+        super.setMetascore(metascore);
+    }
+
+    @Override
+    public void setImdbRating(double imdbRating) {
+        materialize();
+        super.setImdbRating(imdbRating);
+    }
+
+    @Override
+    public void setBoxOffice(int boxOffice) {
+        materialize();
+        super.setBoxOffice(boxOffice);
+    }
+
+    @Override
+    public void setWatched(boolean watched) {
+        this.source.setWatched(this.ordinal, watched);
+    }
+
+    @Override
+    public void setMyRating(double myRating) {
+        this.source.setMyRating(this.ordinal, myRating);
+    }
+
+    @Override
+    public void setID(String id) {
+        materialize();
+        super.setID(id);
+    }
+
+    /**
+     * Copy every field but the watched status and user rating into the bean,
+     * so edits are kept in the bean.
+     */
+    private void materialize() {
+        if (this.materialized) {
+            return;
+        }
+        super.setTitle(getTitle());
+        super.setYear(getYear());
+        super.setType(getType());
+        super.setRated(getRated());
+        super.setReleased(getReleased());
+        super.setRuntime(getRuntime());
+        super.setGenre(copy(getGenre()));
+        super.setDirector(copy(getDirector()));
+        super.setWriter(copy(getWriter()));
+        super.setActors(copy(getActors()));
+        super.setPlot(getPlot());
+        super.setLanguage(copy(getLanguage()));
+        super.setCountry(copy(getCountry()));
+        super.setAwards(getAwards());
+        super.setPoster(getPoster());
+        super.setMetascore(getMetascore());
+        super.setImdbRating(getImdbRating());
+        super.setBoxOffice(getBoxOffice());
+        super.setID(getID());
+        this.materialized = true;
+    }
+
+    /**
+     * Copy a list read from the columns.
+     *
+     * @param list the list, may be null
+     * @return a modifiable copy, null if the list is null
+     */
+    private static List<String> copy(List<String> list) {
+        return list == null ? null : new ArrayList<>(list);
+    }
+
+    /**
+     * Serialize a plain copy, the columns are not serialized.
+     *
+     * @return a copy of this bean
+     */
+    private Object writeReplace() {
+        return new MBeans(getTitle(), getYear(), getType(), getRated(), getReleased(), getRuntime(),
+                copy(getGenre()), copy(getDirector()), copy(getWriter()), copy(getActors()), getPlot(),
+                copy(getLanguage()), copy(getCountry()), getAwards(), getPoster(), getMetascore(), getImdbRating(),
+                getBoxOffice(), getID(), getWatched(), getMyRating());
+    }
+}
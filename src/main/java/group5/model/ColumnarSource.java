@@ -0,0 +1,585 @@
+package group5.model;
+
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import group5.model.beans.MBeans;
+import group5.model.beans.SearchKeys;
+
+/**
+ * Source list kept in columns instead of one MBeans object per movie.
+ *
+ * Numbers are kept in primitive arrays, the release date as an epoch day and
+ * the watched status in a BitSet. Types, content ratings, awards, genres,
+ * people, languages and countries are dictionary encoded: each distinct
+ * string is stored once and movies hold its code. List columns keep the
+ * codes of every movie in one array, with the offset of each movie's first
+ * entry. Titles, plots, posters and imdbIDs are mostly unique and are kept
+ * as they are. Each movie is read and edited through a ColumnarMBeans view,
+ * a small object holding only its ordinal. Movies are appended and edited
+ * under the model lock, and never removed.
+ */
+final class ColumnarSource {
+
+    /** List column of the genres. */
+    static final int GENRE = 0;
+
+    /** List column of the directors. */
+    static final int DIRECTOR = 1;
+
+    /** List column of the writers. */
+    static final int WRITER = 2;
+
+    /** List column of the actors. */
+    static final int ACTORS = 3;
+
+    /** List column of the languages. */
+    static final int LANGUAGE = 4;
+
+    /** List column of the countries. */
+    static final int COUNTRY = 5;
+
+    /** Number of list columns. */
+    private static final int LIST_COLUMNS = 6;
+
+    /** Code of a missing string. */
+    private static final int NONE = -1;
+
+    /** Epoch day of a missing release date, such as "N/A". */
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    /** Capacity of an empty source. */
+    private static final int MIN_CAPACITY = 16;
+
+    /** Number of movies stored. */
+    private int count;
+
+    /** imdbID of each movie. */
+    private String[] id;
+
+    /** Title of each movie. */
+    private String[] title;
+
+    /** Search key of each title, built on first use. */
+    private String[] titleKey;
+
+    /** Plot of each movie. */
+    private String[] plot;
+
+    /** Poster URL of each movie. */
+    private String[] poster;
+
+    /** Year of each movie. */
+    private int[] year;
+
+    /** Release date of each movie, as an epoch day, NO_DATE if it has none. */
+    private int[] released;
+
+    /** Runtime of each movie. */
+    private int[] runtime;
+
+    /** Metascore of each movie. */
+    private int[] metascore;
+
+    /** Box office earnings of each movie. */
+    private int[] boxOffice;
+
+    /** IMDb rating of each movie. */
+    private double[] imdbRating;
+
+    /** User rating of each movie. */
+    private double[] myRating;
+
+    /** Watched movies. */
+    private final BitSet watched = new BitSet();
+
+    /** Code of the media type of each movie. */
+    private int[] type;
+
+    /** Code of the content rating of each movie. */
+    private int[] rated;
+
+    /** Code of the awards of each movie. */
+    private int[] awards;
+
+    /** Offset of each movie's first entry in the codes of each list column, plus the end offset. */
+    private final int[][] listStarts = new int[LIST_COLUMNS][];
+
+    /** Entry codes of each list column, for all movies in order. */
+    private final int[][] listCodes = new int[LIST_COLUMNS][];
+
+    /** Movies whose list is missing, per list column. */
+    private final BitSet[] listMissing = new BitSet[LIST_COLUMNS];
+
+    /** Distinct strings, by code. */
+    private final List<String> strings = new ArrayList<>();
+
+    /** Code of each distinct string. */
+    private final Map<String, Integer> codes = new HashMap<>();
+
+    /** Search key of each distinct string, built on first use. */
+    private String[] keys = new String[MIN_CAPACITY];
+
+    /** View of each movie. */
+    private ColumnarMBeans[] views;
+
+    /**
+     * Create an empty source.
+     *
+     * @param capacity number of movies to make room for
+     */
+    ColumnarSource(int capacity) {
+        int size = Math.max(capacity, MIN_CAPACITY);
+        this.id = new String[size];
+        this.title = new String[size];
+        this.titleKey = new String[size];
+        this.plot = new String[size];
+        this.poster = new String[size];
+        this.year = new int[size];
+        this.released = new int[size];
+        this.runtime = new int[size];
+        this.metascore = new int[size];
+        this.boxOffice = new int[size];
+        this.imdbRating = new double[size];
+        this.myRating = new double[size];
+        this.type = new int[size];
+        this.rated = new int[size];
+        this.awards = new int[size];
+        this.views = new ColumnarMBeans[size];
+        for (int column = 0; column < LIST_COLUMNS; column++) {
+            this.listStarts[column] = new int[size + 1];
+            this.listCodes[column] = new int[size];
+            this.listMissing[column] = new BitSet();
+        }
+    }
+
+    /**
+     * Append a movie, copying its fields into the columns.
+     *
+     * @param movie the movie
+     * @return the view of the stored movie, the one reference the model keeps
+     */
+    ColumnarMBeans add(MBeans movie) {
+        if (this.count == this.id.length) {
+            grow(2 * this.count);
+        }
+        int ordinal = this.count;
+        this.id[ordinal] = movie.getID();
+        this.title[ordinal] = movie.getTitle();
+        this.plot[ordinal] = movie.getPlot();
+        this.poster[ordinal] = movie.getPoster();
+        this.year[ordinal] = movie.getYear();
+        this.released[ordinal] = movie.getReleased() == null ? NO_DATE : (int) movie.getReleased().toEpochDay();
+        this.runtime[ordinal] = movie.getRuntime();
+        this.metascore[ordinal] = movie.getMetascore();
+        this.boxOffice[ordinal] = movie.getBoxOffice();
+        this.imdbRating[ordinal] = movie.getImdbRating();
+        this.myRating[ordinal] = movie.getMyRating();
+        this.watched.set(ordinal, movie.getWatched());
+        this.type[ordinal] = code(movie.getType());
+        this.rated[ordinal] = code(movie.getRated());
+        this.awards[ordinal] = code(movie.getAwards());
+        addList(GENRE, ordinal, movie.getGenre());
+        addList(DIRECTOR, ordinal, movie.getDirector());
+        addList(WRITER, ordinal, movie.getWriter());
+        addList(ACTORS, ordinal, movie.getActors());
+        addList(LANGUAGE, ordinal, movie.getLanguage());
+        addList(COUNTRY, ordinal, movie.getCountry());
+        this.views[ordinal] = new ColumnarMBeans(this, ordinal);
+        this.count++;
+        return this.views[ordinal];
+    }
+
+    /**
+     * Get the number of movies stored.
+     *
+     * @return the size
+     */
+    int size() {
+        return this.count;
+    }
+
+    /**
+     * Get the number of distinct strings in the dictionary.
+     *
+     * @return the dictionary size
+     */
+    int dictionarySize() {
+        return this.strings.size();
+    }
+
+    /**
+     * Get the view of a movie.
+     *
+     * @param ordinal the movie
+     * @return the view
+     */
+    ColumnarMBeans view(int ordinal) {
+        return this.views[ordinal];
+    }
+
+    /**
+     * Get the imdbID of a movie.
+     *
+     * @param ordinal the movie
+     * @return the imdbID
+     */
+    String id(int ordinal) {
+        return this.id[ordinal];
+    }
+
+    /**
+     * Get the title of a movie.
+     *
+     * @param ordinal the movie
+     * @return the title
+     */
+    String title(int ordinal) {
+        return this.title[ordinal];
+    }
+
+    /**
+     * Get the search key of the title of a movie.
+     *
+     * @param ordinal the movie
+     * @return the title key, null if there is no title
+     */
+    String titleKey(int ordinal) {
+        String key = this.titleKey[ordinal];
+        if (key == null) {
+            key = SearchKeys.normalize(this.title[ordinal]);
+            this.titleKey[ordinal] = key;
+        }
+        return key;
+    }
+
+    /**
+     * Get the plot of a movie.
+     *
+     * @param ordinal the movie
+     * @return the plot
+     */
+    String plot(int ordinal) {
+        return this.plot[ordinal];
+    }
+
+    /**
+     * Get the poster URL of a movie.
+     *
+     * @param ordinal the movie
+     * @return the poster URL
+     */
+    String poster(int ordinal) {
+        return this.poster[ordinal];
+    }
+
+    /**
+     * Get the year of a movie.
+     *
+     * @param ordinal the movie
+     * @return the year
+     */
+    int year(int ordinal) {
+        return this.year[ordinal];
+    }
+
+    /**
+     * Get the release date of a movie.
+     *
+     * @param ordinal the movie
+     * @return the release date, null if the movie has none
+     */
+    LocalDate released(int ordinal) {
+        int epochDay = this.released[ordinal];
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    /**
+     * Get the runtime of a movie.
+     *
+     * @param ordinal the movie
+     * @return the runtime
+     */
+    int runtime(int ordinal) {
+        return this.runtime[ordinal];
+    }
+
+    /**
+     * Get the metascore of a movie.
+     *
+     * @param ordinal the movie
+     * @return the metascore
+     */
+    int metascore(int ordinal) {
+        return this.metascore[ordinal];
+    }
+
+    /**
+     * Get the box office earnings of a movie.
+     *
+     * @param ordinal the movie
+     * @return the box office earnings
+     */
+    int boxOffice(int ordinal) {
+        return this.boxOffice[ordinal];
+    }
+
+    /**
+     * Get the IMDb rating of a movie.
+     *
+     * @param ordinal the movie
+     * @return the IMDb rating
+     */
+    double imdbRating(int ordinal) {
+        return this.imdbRating[ordinal];
+    }
+
+    /**
+     * Get the user rating of a movie.
+     *
+     * @param ordinal the movie
+     * @return the user rating
+     */
+    double myRating(int ordinal) {
+        return this.myRating[ordinal];
+    }
+
+    /**
+     * Set the user rating of a movie.
+     *
+     * @param ordinal the movie
+     * @param rating the user rating
+     */
+    void setMyRating(int ordinal, double rating) {
+        this.myRating[ordinal] = rating;
+    }
+
+    /**
+     * Get the watched status of a movie.
+     *
+     * @param ordinal the movie
+     * @return true if the movie was watched
+     */
+    boolean watched(int ordinal) {
+        return this.watched.get(ordinal);
+    }
+
+    /**
+     * Set the watched status of a movie.
+     *
+     * @param ordinal the movie
+     * @param watched the watched status
+     */
+    void setWatched(int ordinal, boolean watched) {
+        this.watched.set(ordinal, watched);
+    }
+
+    /**
+     * Get the media type of a movie.
+     *
+     * @param ordinal the movie
+     * @return the media type
+     */
+    String type(int ordinal) {
+        return string(this.type[ordinal]);
+    }
+
+    /**
+     * Get the content rating of a movie.
+     *
+     * @param ordinal the movie
+     * @return the content rating
+     */
+    String rated(int ordinal) {
+        return string(this.rated[ordinal]);
+    }
+
+    /**
+     * Get the search key of the content rating of a movie.
+     *
+     * @param ordinal the movie
+     * @return the content rating key, null if there is no content rating
+     */
+    String ratedKey(int ordinal) {
+        return key(this.rated[ordinal]);
+    }
+
+    /**
+     * Get the awards of a movie.
+     *
+     * @param ordinal the movie
+     * @return the awards
+     */
+    String awards(int ordinal) {
+        return string(this.awards[ordinal]);
+    }
+
+    /**
+     * Get a list of a movie.
+     *
+     * @param column the list column
+     * @param ordinal the movie
+     * @param keys true for the search keys of the entries, false for the
+     *             entries
+     * @return an unmodifiable list reading the columns, null if the movie has
+     *         no list
+     */
+    List<String> list(int column, int ordinal, boolean keys) {
+        if (this.listMissing[column].get(ordinal)) {
+            return null;
+        }
+        return new Entries(this.listCodes[column], this.listStarts[column][ordinal],
+                this.listStarts[column][ordinal + 1], keys);
+    }
+
+    /**
+     * Get the string of a code.
+     *
+     * @param code the code
+     * @return the string, null for NONE
+     */
+    private String string(int code) {
+        return code == NONE ? null : this.strings.get(code);
+    }
+
+    /**
+     * Get the search key of the string of a code.
+     *
+     * @param code the code
+     * @return the key, null for NONE
+     */
+    private String key(int code) {
+        if (code == NONE) {
+            return null;
+        }
+        String key = this.keys[code];
+        if (key == null) {
+            key = SearchKeys.normalize(this.strings.get(code));
+            this.keys[code] = key;
+        }
+        return key;
+    }
+
+    /**
+     * Get the code of a string, adding it to the dictionary if it is new.
+     *
+     * @param value the string, may be null
+     * @return the code, NONE for null
+     */
+    private int code(String value) {
+        if (value == null) {
+            return NONE;
+        }
+        Integer code = this.codes.get(value);
+        if (code == null) {
+            code = this.strings.size();
+            this.strings.add(value);
+            this.codes.put(value, code);
+            if (code == this.keys.length) {
+                this.keys = Arrays.copyOf(this.keys, 2 * code);
+            }
+        }
+        return code;
+    }
+
+    /**
+     * Append the list of the last movie to a list column.
+     *
+     * @param column the list column
+     * @param ordinal the movie, the last one
+     * @param values the list, may be null
+     */
+    private void addList(int column, int ordinal, List<String> values) {
+        int start = this.listStarts[column][ordinal];
+        int size = values == null ? 0 : values.size();
+        if (start + size > this.listCodes[column].length) {
+            this.listCodes[column] = Arrays.copyOf(this.listCodes[column],
+                    Math.max(2 * this.listCodes[column].length, start + size));
+        }
+        for (int i = 0; i < size; i++) {
+            this.listCodes[column][start + i] = code(values.get(i));
+        }
+        this.listStarts[column][ordinal + 1] = start + size;
+        this.listMissing[column].set(ordinal, values == null);
+    }
+
+    /**
+     * Make room for more movies.
+     *
+     * @param capacity the new capacity
+     */
+    private void grow(int capacity) {
+        this.id = Arrays.copyOf(this.id, capacity);
+        this.title = Arrays.copyOf(this.title, capacity);
+        this.titleKey = Arrays.copyOf(this.titleKey, capacity);
+        this.plot = Arrays.copyOf(this.plot, capacity);
+        this.poster = Arrays.copyOf(this.poster, capacity);
+        this.year = Arrays.copyOf(this.year, capacity);
+        this.released = Arrays.copyOf(this.released, capacity);
+        this.runtime = Arrays.copyOf(this.runtime, capacity);
+        this.metascore = Arrays.copyOf(this.metascore, capacity);
+        this.boxOffice = Arrays.copyOf(this.boxOffice, capacity);
+        this.imdbRating = Arrays.copyOf(this.imdbRating, capacity);
+        this.myRating = Arrays.copyOf(this.myRating, capacity);
+        this.type = Arrays.copyOf(this.type, capacity);
+        this.rated = Arrays.copyOf(this.rated, capacity);
+        this.awards = Arrays.copyOf(this.awards, capacity);
+        this.views = Arrays.copyOf(this.views, capacity);
+        for (int column = 0; column < LIST_COLUMNS; column++) {
+            this.listStarts[column] = Arrays.copyOf(this.listStarts[column], capacity + 1);
+        }
+    }
+
+    /**
+     * Entries of a movie's list, read from the codes of its list column.
+     */
+    private final class Entries extends AbstractList<String> {
+
+        /** Codes of the list column. */
+        private final int[] codes;
+
+        /** Offset of the first entry. */
+        private final int start;
+
+        /** Offset after the last entry. */
+        private final int end;
+
+        /** Whether the search keys of the entries are read. */
+        private final boolean keys;
+
+        /**
+         * Entries constructor.
+         *
+         * @param codes codes of the list column
+         * @param start offset of the first entry
+         * @param end offset after the last entry
+         * @param keys whether to read search keys
+         */
+        private Entries(int[] codes, int start, int end, boolean keys) {
+            this.codes = codes;
+            this.start = start;
+            this.end = end;
+            this.keys = keys;
+        }
+
+        @Override
+        public String get(int index) {
+            if (index < 0 || index >= this.end - this.start) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            int code = this.codes[this.start + index];
+            return this.keys ? key(code) : string(code);
+        }
+
+        @Override
+        public int size() {
+            return this.end - this.start;
+        }
+    }
+}
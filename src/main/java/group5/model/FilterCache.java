@@ -0,0 +1,186 @@
+package group5.model;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+import group5.model.beans.MBeans;
+import group5.model.filter.FilterCompiler;
+
+/**
+ * Least recently used cache of filter results.
+ *
+ * Results are keyed by the normalized filter spec, the list filtered and the
+ * data version they were computed at, so the same filters typed another way
+ * share an entry. Any change to the data bumps the version and empties the
+ * cache. A result computed while the version moved on is stored under the
+ * old version, where it is never read again.
+ *
+ * A spec that only narrows a cached one, such as a title needle typed one
+ * char further, is filtered over the cached result instead of the whole list.
+ */
+final class FilterCache {
+
+    /** Largest number of results kept. */
+    private final int capacity;
+
+    /** Cached results in access order, least recently used first. */
+    private final Map<Key, List<MBeans>> entries;
+
+    /** Data version, bumped on every change. */
+    private long version;
+
+    /** Number of requests answered from the cache. */
+    private long hits;
+
+    /** Number of requests that had to filter. */
+    private long misses;
+
+    /**
+     * Create an empty cache.
+     *
+     * @param capacity largest number of results kept
+     */
+    FilterCache(int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, List<MBeans>> eldest) {
+                return size() > FilterCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Get the result of a filter on a list, filtering on a miss.
+     *
+     * On a miss the filter is handed the smallest cached result of the list
+     * that the spec narrows, or null to filter the whole list. The filtering
+     * runs outside the lock, so a slow filter does not hold up requests
+     * answered from the cache.
+     *
+     * @param filters list of [column, operator, value] filters
+     * @param listId id of the list filtered, -1 for the source list
+     * @param filter filters the movies given, or the whole list if given null,
+     *               keeping their order
+     * @return the unmodifiable result
+     */
+    List<MBeans> get(List<List<String>> filters, int listId, Function<List<MBeans>, List<MBeans>> filter) {
+        List<List<String>> spec = FilterCompiler.normalize(filters);
+        Key key;
+        List<MBeans> base;
+        synchronized (this) {
+            key = new Key(spec, listId, this.version);
+            List<MBeans> cached = this.entries.get(key);
+            if (cached != null) {
+                this.hits++;
+                return cached;
+            }
+            this.misses++;
+            base = narrowest(key);
+        }
+        List<MBeans> result = Collections.unmodifiableList(filter.apply(base));
+        synchronized (this) {
+            if (key.version == this.version) {
+                this.entries.put(key, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Bump the data version and drop every cached result.
+     */
+    synchronized void invalidate() {
+        this.version++;
+        this.entries.clear();
+    }
+
+    /**
+     * Get the number of requests answered from the cache.
+     *
+     * @return the hit count
+     */
+    synchronized long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * Get the number of requests that had to filter.
+     *
+     * @return the miss count
+     */
+    synchronized long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * Find the smallest cached result a spec narrows.
+     *
+     * Unfiltered results are skipped, the index filters the whole list faster
+     * than a scan of it.
+     *
+     * @param key the key of the spec
+     * @return the result, null if the spec narrows no cached result
+     */
+    private List<MBeans> narrowest(Key key) {
+        List<MBeans> narrowest = null;
+        for (Map.Entry<Key, List<MBeans>> entry : this.entries.entrySet()) {
+            Key cached = entry.getKey();
+            if (cached.listId == key.listId && cached.version == key.version && !cached.spec.isEmpty()
+                    && (narrowest == null || entry.getValue().size() < narrowest.size())
+                    && FilterCompiler.refines(key.spec, cached.spec)) {
+                narrowest = entry.getValue();
+            }
+        }
+        return narrowest;
+    }
+
+    /**
+     * Cache key of a filter result.
+     */
+    private static final class Key {
+
+        /** The normalized filter spec. */
+        private final List<List<String>> spec;
+
+        /** Id of the list filtered. */
+        private final int listId;
+
+        /** Data version the result was computed at. */
+        private final long version;
+
+        /**
+         * Key constructor.
+         *
+         * @param spec the normalized filter spec
+         * @param listId id of the list filtered
+         * @param version data version
+         */
+        private Key(List<List<String>> spec, int listId, long version) {
+            this.spec = spec;
+            this.listId = listId;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return this.listId == other.listId && this.version == other.version && this.spec.equals(other.spec);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.spec, this.listId, this.version);
+        }
+    }
+}
@@ -15,6 +15,12 @@ public interface IModel {
     /** String file path to default database location. */
     String DEFAULT_DATA = "./data/source/source.json";  // Path to default movie DB here
 
+    /** String file path to the journal of edits not yet written to the default database. */
+    String DEFAULT_JOURNAL = "./data/source/source.journal";
+
+    /** String file path to the binary snapshot of the default database, read instead of it when newer. */
+    String DEFAULT_SNAPSHOT = "./data/source/source.bin";
+
     /** String file path to default watchlist location. */
     String DEFAULT_WATCHLIST = "./data/watchlist";  // Path to watchlist movie DB here
 
@@ -104,6 +110,25 @@ public interface IModel {
      */
     Stream<MBeans> getRecords(int userListId, List<List<String>> filters);
 
+    /**
+     * Filter the source list without storing the filters, so it can run off
+     * the event thread while the user is still typing.
+     *
+     * @param filters The filters to apply to the source list.
+     * @return stream of MBeans representing the filtered source list.
+     */
+    Stream<MBeans> filterRecords(List<List<String>> filters);
+
+    /**
+     * Filter a watch list without storing the filters, so it can run off the
+     * event thread while the user is still typing.
+     *
+     * @param userListId The identifier of the watch list to filter.
+     * @param filters The filters to apply to the watch list.
+     * @return stream of MBeans representing the filtered watch list.
+     */
+    Stream<MBeans> filterRecords(int userListId, List<List<String>> filters);
+
     /**
      * Save the watch list to a file.
      *
@@ -150,6 +175,26 @@ public interface IModel {
      */
     void saveSourceList();
 
+    /**
+     * Write every pending change to the local files, blocking until the
+     * writes complete.
+     */
+    void flush();
+
+    /**
+     * Filter large source lists on the given number of threads. Filtering is
+     * sequential until this is called.
+     *
+     * @param threads the number of worker threads, 1 to filter sequentially.
+     */
+    void setFilterParallelism(int threads);
+
+    /**
+     * Write every pending change to the local files and stop the background
+     * writes and filter threads. The model cannot be changed once closed.
+     */
+    void close();
+
     /**
      * Update local source list file using the new beans added from API.
      *
@@ -185,6 +230,29 @@ public interface IModel {
      */
     void clearFilter();
 
+    /**
+     * Store the filters used by getRecords().
+     *
+     * @param filters The filters to store.
+     */
+    void setFilter(List<List<String>> filters);
+
+    /**
+     * Get the number of filtered record requests answered from the filter
+     * cache.
+     *
+     * @return the hit count
+     */
+    long getFilterCacheHits();
+
+    /**
+     * Get the number of filtered record requests that had to filter, because
+     * the filters were new or the data changed since.
+     *
+     * @return the miss count
+     */
+    long getFilterCacheMisses();
+
     /**
      * adds new MBeans based on the filters.
      *
@@ -210,4 +278,14 @@ public interface IModel {
      * @return set of MBeans objects
      */
     Set<MBeans> fetchMBeans(String title, String year1, String year2);
+
+    /**
+     * Get the smallest and largest value of a numeric column in the source
+     * list.
+     *
+     * @param column the numeric column, such as RELEASED, IMDB or BOXOFFICE
+     * @return the {min, max} pair, null if the column is not numeric or the
+     *         source list is empty
+     */
+    double[] getRange(MovieData column);
 }
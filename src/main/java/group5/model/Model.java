@@ -1,7 +1,7 @@
 package group5.model;
 
 import java.io.File;
-import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
@@ -9,19 +9,24 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 import group5.model.beans.MBeans;
 import group5.model.filter.FilterHandler;
 import group5.model.filter.IFilterHandler;
+import group5.model.filter.MovieIndex;
+import group5.model.filter.OrdinalBitmap;
 import group5.model.formatters.Formats;
 import group5.model.formatters.MBeansFormatter;
 import group5.model.formatters.MBeansLoader;
@@ -34,9 +39,66 @@ import group5.model.net.MovieAPIHandler;
 public class Model implements IModel {
 
     /**
-     * List of MBeans representing the source databse list.
+     * Number of journaled edits that triggers folding the journal back into
+     * the source file.
      */
-    private Set<MBeans> sourceList;
+    private static final int JOURNAL_COMPACT_THRESHOLD = 256;
+
+    /**
+     * Window in milliseconds over which changes are coalesced into one write.
+     */
+    private static final long PERSIST_WINDOW_MS = 250;
+
+    /**
+     * Share of the maximum heap above which the source snapshot is memory
+     * mapped. Records read onto the heap take several times their size in
+     * the snapshot.
+     */
+    private static final double MAP_SNAPSHOT_HEAP_SHARE = 0.125;
+
+    /**
+     * Number of movies from which a source list read onto the heap is kept in
+     * columns. Smaller lists stay as plain records, mapped snapshots already
+     * decode their records on demand.
+     */
+    private static final int COLUMNAR_SOURCE_SIZE = 20_000;
+
+    /**
+     * Number of records read from an imported file before they are mapped to
+     * the source list.
+     */
+    private static final int IMPORT_BATCH_SIZE = 10_000;
+
+    /**
+     * Number of filter results kept in the cache. The hit and miss counts of
+     * the cache show whether it is large enough.
+     */
+    private static final int FILTER_CACHE_SIZE = 32;
+
+    /**
+     * List id the source list is cached under.
+     */
+    private static final int SOURCE_LIST_ID = -1;
+
+    /**
+     * MBeans representing the source database list, keyed by imdbID.
+     *
+     * Primary index of the source list so matching a media to its source
+     * reference is a hash lookup instead of a scan.
+     */
+    private Map<String, MBeans> sourceIndex;
+
+    /**
+     * Unmodifiable copy of the source list streamed by getAllRecords, null
+     * once the source list changed. Guarded by dataLock.
+     */
+    private List<MBeans> sourceSnapshot;
+
+    /**
+     * Columns holding the source list, null when the source list is kept as
+     * plain records. The sourceIndex then holds the views of the columns.
+     */
+    private ColumnarSource columns;
 
     /**
      * List of watchLists where each holds a list of reference to source list
@@ -49,65 +111,195 @@ public class Model implements IModel {
      */
     private IFilterHandler filterHandler;
 
+    /**
+     * Inverted indexes over the source list, in source order.
+     */
+    private MovieIndex movieIndex;
+
+    /**
+     * Bitmap of the source ordinals in each watch list, in watch list order.
+     */
+    private List<OrdinalBitmap> watchListMembers;
+
     /**
      * Holds last used filter parameters.
      */
     private List<List<String>> filter;
 
+    /**
+     * Cache of filter results, invalidated by every change to the source list
+     * or watch lists.
+     */
+    private final FilterCache filterCache = new FilterCache(FILTER_CACHE_SIZE);
+
+    /**
+     * Journal of watched and rating edits not yet written to the source file.
+     */
+    private SourceJournal journal;
+
+    /**
+     * Write-behind scheduler persisting the source list, journal and watch lists.
+     */
+    private PersistenceScheduler scheduler;
+
+    /**
+     * Lock held while the source list or watch lists are changed, and while
+     * the scheduler thread copies them to write.
+     */
+    private final Object dataLock = new Object();
+
+    /**
+     * Lock held while the source file is written.
+     */
+    private final Object sourceWriteLock = new Object();
+
+    /**
+     * Journal generation contained in the source file last written.
+     */
+    private long writtenGeneration;
+
+    /**
+     * Path to the source file.
+     */
+    private final String dataFile;
+
+    /**
+     * Path to the journal of edits not yet written to the source file.
+     */
+    private final String journalFile;
+
+    /**
+     * Path to the binary snapshot of the source file.
+     */
+    private final String snapshotFile;
+
+    /**
+     * Directory holding the watch list files.
+     */
+    private final String watchListDirectory;
+
+    /**
+     * Directory deleted watch lists are moved to.
+     */
+    private final String unusedDirectory;
+
     /**
      * Model class constructor.
      */
     public Model() {
-        // Initialize empty directory is not exist.
-        List<File> directories = List.of(new File("./data/source"),
-                new File(DEFAULT_WATCHLIST),
-                new File(DEFAULT_UNUSED));
-        for (File directory : directories) {
-            if (!directory.exists()) {
-                if (directory.mkdirs()) {
-                    System.out.println("Directory created successfully");
-                } else {
-                    System.out.println("Failed to create directory");
-                }
-            }
-        }
+        this.dataFile = DEFAULT_DATA;
+        this.journalFile = DEFAULT_JOURNAL;
+        this.snapshotFile = DEFAULT_SNAPSHOT;
+        this.watchListDirectory = DEFAULT_WATCHLIST;
+        this.unusedDirectory = DEFAULT_UNUSED;
+        createDirectories();
 
+        this.journal = new SourceJournal(this.journalFile);
+        this.scheduler = new PersistenceScheduler(PERSIST_WINDOW_MS);
         loadSourceData();
         this.watchLists = new ArrayList<>();
+        this.watchListMembers = new ArrayList<>();
+        this.filterHandler = new FilterHandler();
+    }
+
+    /**
+     * Model class constructor using an in-memory source list, optionally
+     * kept in columns.
+     *
+     * Skips loading the source file, used to test and benchmark the model
+     * against generated source lists. Every file the model writes, the source
+     * file, journal, snapshot and watch lists, goes under the given directory
+     * instead of the default locations.
+     *
+     * @param sourceList the records to use as the source list.
+     * @param columnar true to copy the records into columns.
+     * @param directory the directory to keep the model files in.
+     */
+    public Model(Collection<MBeans> sourceList, boolean columnar, Path directory) {
+        this.dataFile = directory.resolve("source.json").toString();
+        this.journalFile = directory.resolve("source.journal").toString();
+        this.snapshotFile = directory.resolve("source.bin").toString();
+        this.watchListDirectory = directory.resolve("watchlist").toString();
+        this.unusedDirectory = directory.resolve("unused").toString();
+        createDirectories();
+
+        this.journal = new SourceJournal(this.journalFile);
+        this.scheduler = new PersistenceScheduler(PERSIST_WINDOW_MS);
+        this.sourceIndex = new LinkedHashMap<>();
+        this.movieIndex = new MovieIndex();
+        this.columns = columnar ? new ColumnarSource(sourceList.size()) : null;
+        indexSource(sourceList);
+        this.watchLists = new ArrayList<>();
+        this.watchListMembers = new ArrayList<>();
         this.filterHandler = new FilterHandler();
     }
 
     /**
      * {@inheritDoc}
      *
-     * Stores the source list in the sourceList field.
+     * Stores the source list in the sourceIndex field, keyed by imdbID, then
+     * replays the journaled edits on top of it. The binary snapshot is read
+     * instead of the JSON file when it is at least as new. Large source lists
+     * read onto the heap are then copied into columns.
      */
     @Override
     public void loadSourceData() {
-        System.out.println("Load source database from" + DEFAULT_DATA);
-        if (!Files.exists(Paths.get(DEFAULT_DATA))) {
+        System.out.println("Load source database from" + this.dataFile);
+        if (!Files.exists(Paths.get(this.dataFile))) {
             System.out.println("Model: Source data not found, creating new source list from back up resources.");
             try {
-                Path sourcePath = new File(DEFAULT_DATA).toPath();
+                Path sourcePath = new File(this.dataFile).toPath();
                 InputStream backupData = (getClass().getClassLoader().getResourceAsStream("source_bak.json"));
                 Files.copy(backupData, sourcePath, StandardCopyOption.REPLACE_EXISTING);
             } catch (Exception e) {
                 System.out.println("Error loading backup data");
             }
         }
-        this.sourceList = MBeansLoader.loadMediasFromFile(DEFAULT_DATA, Formats.JSON);
-
+        Map<String, MBeans> loaded = null;
+        boolean mapped = false;
+        if (isSnapshotCurrent()) {
+            loaded = readSourceFile(this.snapshotFile, Formats.BINARY);
+            mapped = loaded != null && isMapped(this.snapshotFile);
+        }
+        if (loaded == null) {
+            loaded = readSourceFile(this.dataFile, Formats.JSON);
+        }
+        String backup = this.dataFile + AtomicFileWriter.BACKUP_SUFFIX;
+        if (loaded == null && Files.exists(Paths.get(backup))) {
+            System.out.println("Model: Source data unreadable, loading previous generation from " + backup);
+            loaded = readSourceFile(backup, Formats.JSON);
+        }
+        int replayed;
+        synchronized (this.dataLock) {
+            this.sourceIndex = (loaded == null) ? new LinkedHashMap<>() : loaded;
+            replayed = this.journal.replay(this.sourceIndex);
+            this.columns = null;
+            if (!mapped && this.sourceIndex.size() >= COLUMNAR_SOURCE_SIZE) {
+                this.sourceIndex = toColumns(this.sourceIndex.values());
+            }
+            this.movieIndex = new MovieIndex(this.sourceIndex.values());
+            this.sourceSnapshot = null;
+            if (this.watchLists != null) {
+                // Ordinals were handed out again, rebuild the watch list bitmaps
+                this.watchListMembers = this.watchLists.stream().map(this::membersOf)
+                        .collect(Collectors.toCollection(ArrayList::new));
+            }
+            this.filterCache.invalidate();
+        }
+        if (replayed > 0) {
+            System.out.println("Model: Replayed " + replayed + " journaled edits");
+        }
     }
 
     /**
      * {@inheritDoc}
      *
-     * Walk through a DEFAULT_WATCHLIST directory and find every.json file to
-     * load.
+     * Walk through the watchlist directory, DEFAULT_WATCHLIST unless the model
+     * was given another one, and find every.json file to load.
      */
     @Override
     public int loadWatchList() {
-        try (Stream<Path> paths = Files.walk(Paths.get(DEFAULT_WATCHLIST))) {
+        try (Stream<Path> paths = Files.walk(Paths.get(this.watchListDirectory))) {
             List<Path> pathList = paths.collect(Collectors.toList());
             for (Path path : pathList) {
                 if (path.toString().endsWith(".json")) {
@@ -127,7 +319,13 @@ public class Model implements IModel {
      * source list. Pass set to MovieList constructor to create a new watch
      * list. Add the new watch list to the watchLists list.
      *
-     * Create a new watch list file into default watchlist directory.
+     * The file is read in batches and each batch is mapped to the source list
+     * before the next is read, so loaded copies of movies already in the
+     * source are dropped as the file is read. Movies new to the source are
+     * added once the whole file was read. Invalid CSV rows are reported and
+     * skipped, files ending in .gz are decompressed.
+     *
+     * Schedule a new watch list file into default watchlist directory.
      *
      * @param filename The file to load the watch list from.
      */
@@ -135,10 +333,11 @@ public class Model implements IModel {
     public int loadWatchList(String filename) {
 
         // Create a substring of file name to use as list name
-        int lastSeparator = Math.max(filename.lastIndexOf("\\"), filename.lastIndexOf("/"));
-        int lastDot = filename.lastIndexOf('.');
-        Formats format = Formats.containsValues(filename.substring(lastDot + 1));
-        String name = filename.substring(lastSeparator + 1, lastDot);
+        String listFile = Formats.stripCompression(filename);
+        int lastSeparator = Math.max(listFile.lastIndexOf("\\"), listFile.lastIndexOf("/"));
+        int lastDot = listFile.lastIndexOf('.');
+        Formats format = Formats.fromFilename(filename);
+        String name = listFile.substring(lastSeparator + 1, lastDot);
         for (IMovieList watchList : this.watchLists) {
             if (watchList.getListName().equals(name)) {
                 // Return -1 if watchlist with exact name already exists.
@@ -146,40 +345,66 @@ public class Model implements IModel {
             }
         }
 
-        Set<MBeans> externalList = MBeansLoader.loadMediasFromFile(filename, format);
+        // Map each batch to sourceList references, keeping movies new to the source
+        Set<MBeans> mapped = new HashSet<>();
+        Map<String, MBeans> newMedias = new LinkedHashMap<>();
+        try {
+            int invalid = MBeansLoader.readMediasFromFile(filename, format, IMPORT_BATCH_SIZE, batch -> {
+                synchronized (this.dataLock) {
+                    for (MBeans externalBean : batch) {
+                        // Find if each loaded movie match any record in source.
+                        MBeans match = this.getMatchedObjectFromSource(externalBean);
+                        if (match == null) {
+                            newMedias.putIfAbsent(externalBean.getID(), externalBean);
+                        } else {
+                            mapped.add(match);
+                        }
+                    }
+                }
+            });
+            if (invalid > 0) {
+                System.out.println("Model: Skipped " + invalid + " invalid rows of " + filename);
+            }
+        } catch (Exception e) {
+            System.out.println("Error loading watchlist from " + filename);
+            e.printStackTrace();
+            return -2;
+        }
 
         // Return -2 if file failed to load or loaded an empty file
-        if (externalList == null || externalList.isEmpty()) {
+        if (mapped.isEmpty() && newMedias.isEmpty()) {
             return -2;
         }
 
-        // Create a list of sourcelist references by mapping externalList to sourceList
         boolean newItems = false;
-        Set<MBeans> mapped = new HashSet<>();
-        for (MBeans externalBean : externalList) {
-            // Find if each loaded movie match any record in source.
-            MBeans match = this.getMatchedObjectFromSource(externalBean);
-            if (match == null) {
-                // New item, add to source list
-                this.sourceList.add(externalBean);
-                newItems = true;  // Flag for update source file
-                mapped.add(externalBean);
-            } else {
-                mapped.add(match);
+        int index;
+        synchronized (this.dataLock) {
+            for (MBeans externalBean : newMedias.values()) {
+                // The source may have changed since the batch was mapped
+                MBeans match = this.getMatchedObjectFromSource(externalBean);
+                if (match == null) {
+                    // New item, add to source list
+                    mapped.add(addToSource(externalBean));
+                    newItems = true;  // Flag for update source file
+                } else {
+                    mapped.add(match);
+                }
             }
+
+            // Create new watchlist
+            IMovieList watchList = new MovieList(name, mapped);
+            this.watchLists.add(watchList);
+            this.watchListMembers.add(membersOf(watchList));
+            index = this.watchLists.size() - 1;
+            this.filterCache.invalidate();
         }
 
         // Update source file if new items were added
         if (newItems) {
-            saveSourceList();
+            this.scheduleSourceSave();
         }
-
-        // Create new watchlist
-        IMovieList watchList = new MovieList(name, mapped);
-        this.watchLists.add(watchList);
-        int index = this.watchLists.size() - 1;
         // Write to local directory.
-        this.saveWatchList(DEFAULT_WATCHLIST + "/" + this.getUserListName(index) + ".json", index);
+        this.scheduleWatchListSave(index);
         return index;
     }
 
@@ -192,10 +417,15 @@ public class Model implements IModel {
             }
         }
         IMovieList watchList = new MovieList(name);
-        this.watchLists.add(watchList);
-        int index = this.watchLists.size() - 1;
+        int index;
+        synchronized (this.dataLock) {
+            this.watchLists.add(watchList);
+            this.watchListMembers.add(new OrdinalBitmap());
+            index = this.watchLists.size() - 1;
+            this.filterCache.invalidate();
+        }
         // Write to local directory.
-        this.saveWatchList(DEFAULT_WATCHLIST + "/" + this.getUserListName(index) + ".json", index);
+        this.scheduleWatchListSave(index);
         return index;
     }
 
@@ -206,37 +436,104 @@ public class Model implements IModel {
             return -1;
         }
         String name = this.getUserListName(userListId);
-        this.saveWatchList(DEFAULT_UNUSED + "/" + name + ".json", userListId);
-        this.watchLists.remove(userListId);
-        File toDelete = new File(DEFAULT_WATCHLIST + "/" + name + ".json");
+        this.writeWatchList(this.unusedDirectory + "/" + name + ".json", this.watchLists.get(userListId), false, false);
+        String filename = this.getWatchListFile(userListId);
+        // Drop the pending write and wait for a running one before deleting.
+        this.scheduler.cancel(filename);
+        this.scheduler.flush();
+        synchronized (this.dataLock) {
+            this.watchLists.remove(userListId);
+            this.watchListMembers.remove(userListId);
+            this.filterCache.invalidate();
+        }
+        File toDelete = new File(filename);
         toDelete.delete();
+        File backup = new File(filename + AtomicFileWriter.BACKUP_SUFFIX);
+        backup.delete();
         return userListId;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * Streams a copy of the source list taken under the data lock, so the
+     * stream can be read on another thread while the source list changes. The
+     * copy is kept until the source list next changes.
+     */
     @Override
     public Stream<MBeans> getAllRecords() {
-        return this.sourceList.stream();
+        synchronized (this.dataLock) {
+            if (this.sourceSnapshot == null) {
+                this.sourceSnapshot = Collections.unmodifiableList(new ArrayList<>(this.sourceIndex.values()));
+            }
+            return this.sourceSnapshot.stream();
+        }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * Streams a copy of the watch list taken under the data lock.
+     */
     @Override
     public Stream<MBeans> getAllRecords(int userListId) {
-        return this.watchLists.get(userListId).getMovieList();
+        synchronized (this.dataLock) {
+            return this.watchLists.get(userListId).getMovieList().collect(Collectors.toList()).stream();
+        }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * Filtered results come from the filter cache when the same filters were
+     * applied since the data last changed. Filters narrowing a cached result
+     * only filter that result.
+     */
     @Override
     public Stream<MBeans> getRecords() {
-        if (this.filter == null) {
+        return filterRecords(this.filter);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Results come from and go to the filter cache like getRecords().
+     */
+    @Override
+    public Stream<MBeans> filterRecords(List<List<String>> filters) {
+        if (filters == null) {
             return this.getAllRecords();
         }
-        return filterHandler.filter(this.filter, this.sourceList.stream());
+        return this.filterCache.get(filters, SOURCE_LIST_ID,
+                previous -> filterHandler.filter(filters, this.movieIndex, previous).collect(Collectors.toList()))
+                .stream();
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * Filtered results come from the filter cache when the same filters were
+     * applied to the list since the data last changed. Filters narrowing a
+     * cached result only filter that result.
+     */
     @Override
     public Stream<MBeans> getRecords(int userListId) {
-        if (this.filter == null) {
+        return filterRecords(userListId, this.filter);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Results come from and go to the filter cache like getRecords(int).
+     */
+    @Override
+    public Stream<MBeans> filterRecords(int userListId, List<List<String>> filters) {
+        if (filters == null) {
             return this.getAllRecords(userListId);
         }
-        return filterHandler.filter(this.filter, this.watchLists.get(userListId).getMovieList());
+        return this.filterCache.get(filters, userListId, previous -> filterHandler.filter(filters,
+                previous == null ? this.getAllRecords(userListId) : previous.stream()).collect(Collectors.toList()))
+                .stream();
     }
 
     @Override
@@ -328,21 +625,7 @@ public class Model implements IModel {
 
     @Override
     public void saveWatchList(String filename, int userListId) {
-        // Get file extension
-        String formatStr = filename.substring(filename.lastIndexOf(".") + 1, filename.length());
-        Formats format = Formats.containsValues(formatStr);
-        System.out.println(format);
-        try {
-            OutputStream out = new FileOutputStream(filename);
-            MBeansFormatter.writeMediasToFile(this.watchLists.get(userListId)
-                    .getMovieList()
-                    .collect(Collectors.toSet()),
-                    out, format);
-            out.close();
-        } catch (Exception e) {
-            System.out.println("Error writing to file");
-            e.printStackTrace();
-        }
+        this.writeWatchList(filename, this.watchLists.get(userListId), false, false);
     }
 
     /**
@@ -353,81 +636,166 @@ public class Model implements IModel {
      */
     @Override
     public void addToWatchList(MBeans media, int userListId) {
-        MBeans sourceMedia = this.getMatchedObjectFromSource(media);
-        this.watchLists.get(userListId).addToList(sourceMedia);
-        this.saveWatchList(DEFAULT_WATCHLIST + "/" + this.getUserListName(userListId) + ".json", userListId);
+        synchronized (this.dataLock) {
+            MBeans sourceMedia = this.getMatchedObjectFromSource(media);
+            this.watchLists.get(userListId).addToList(sourceMedia);
+            int ordinal = this.movieIndex.ordinal(sourceMedia);
+            if (ordinal >= 0) {
+                this.watchListMembers.get(userListId).add(ordinal);
+            }
+            this.filterCache.invalidate();
+        }
+        this.scheduleWatchListSave(userListId);
     }
 
     @Override
     public void removeFromWatchList(MBeans media, int userListId) {
-        this.watchLists.get(userListId).removeFromList(media);
-        this.saveWatchList(DEFAULT_WATCHLIST + "/" + this.getUserListName(userListId) + ".json", userListId);
+        synchronized (this.dataLock) {
+            this.watchLists.get(userListId).removeFromList(media);
+            int ordinal = this.movieIndex.ordinal(media);
+            if (ordinal >= 0) {
+                this.watchListMembers.get(userListId).remove(ordinal);
+            }
+            this.filterCache.invalidate();
+        }
+        this.scheduleWatchListSave(userListId);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * Appends the change to the journal instead of rewriting the source file.
+     */
     @Override
     public void updateWatched(MBeans media, boolean watched) {
-        this.getMatchedObjectFromSource(media).setWatched(watched);
-        this.saveSourceList();
+        MBeans sourceMedia = this.getMatchedObjectFromSource(media);
+        sourceMedia.setWatched(watched);
+        this.movieIndex.updateWatched(sourceMedia);
+        this.filterCache.invalidate();
+        this.journal.appendWatched(sourceMedia.getID(), watched);
+        this.scheduler.markDirty(this.journalFile, this.journal::flush);
+        this.compactJournalIfNeeded();
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * Appends the change to the journal instead of rewriting the source file.
+     */
     @Override
     public void updateUserRating(MBeans media, double rating) {
-        this.getMatchedObjectFromSource(media).setMyRating(rating);
-        this.saveSourceList();
+        MBeans sourceMedia = this.getMatchedObjectFromSource(media);
+        double previous = sourceMedia.getMyRating();
+        sourceMedia.setMyRating(rating);
+        this.movieIndex.updateNumeric(MovieData.USER, sourceMedia, previous);
+        this.filterCache.invalidate();
+        this.journal.appendRating(sourceMedia.getID(), rating);
+        this.scheduler.markDirty(this.journalFile, this.journal::flush);
+        this.compactJournalIfNeeded();
     }
 
     @Override
     public void saveSourceList() {
-        try {
-            OutputStream out = new FileOutputStream(DEFAULT_DATA);
-            MBeansFormatter.writeMediasToFile(this.sourceList, out, Formats.JSON);
-            out.close();
-        } catch (Exception e) {
-            System.out.println("Error writing to file");
+        long generation;
+        List<MBeans> records;
+        synchronized (this.dataLock) {
+            generation = this.journal.rotate();
+            records = new ArrayList<>(this.sourceIndex.values());
         }
+        this.writeSourceList(generation, records);
+    }
+
+    @Override
+    public void flush() {
+        this.scheduler.flush();
+    }
+
+    @Override
+    public void setFilterParallelism(int threads) {
+        this.filterHandler.setParallelism(threads);
+    }
+
+    @Override
+    public void close() {
+        this.scheduler.close();
+        this.journal.close();
+        this.filterHandler.close();
     }
 
     @Override
     public void updateSourceList(Set<MBeans> moviesToAdd) {
         try {
-            // Collect current records into a LinkedHashSet to maintain order and avoid duplicates
-            Set<MBeans> currentList = new LinkedHashSet<>(this.sourceList);
-            System.out.println("Current list size before adding new movies: " + currentList.size());
+            System.out.println("Current list size before adding new movies: " + this.sourceIndex.size());
             System.out.println("New movies size: " + moviesToAdd.size());
 
             if (!moviesToAdd.isEmpty()) {
-                System.out.println("Current list size before adding new MBeans: " + currentList.size());
-                System.out.println("New MBeans size: " + moviesToAdd.size());
-
-                // Add new MBeans to the current list
-                currentList.addAll(moviesToAdd);
-                System.out.println("Current list size after adding new MBeans: " + currentList.size());
-                this.sourceList = currentList;
+                // Add new MBeans to the index, keeping existing references and insertion order
+                synchronized (this.dataLock) {
+                    indexSource(moviesToAdd);
+                    this.filterCache.invalidate();
+                }
+                System.out.println("Current list size after adding new MBeans: " + this.sourceIndex.size());
                 // Update source file
-                this.saveSourceList();
+                this.scheduleSourceSave();
             }
         } catch (Exception e) {
             System.out.println("Error updating source list: " + e.getMessage());
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * Answered from the sorted column indexes without reading the movies.
+     */
+    @Override
+    public double[] getRange(MovieData column) {
+        return this.movieIndex.range(column);
+    }
+
     @Override
     public String getUserListName(int userListId) {
-        return this.watchLists.get(userListId).getListName();
+        synchronized (this.dataLock) {
+            return this.watchLists.get(userListId).getListName();
+        }
     }
 
     @Override
     public int getUserListCount() {
-        return this.watchLists.size();
+        synchronized (this.dataLock) {
+            return this.watchLists.size();
+        }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * Source records are looked up by ordinal in the watch list bitmaps.
+     */
     @Override
     public int[] getUserListIndicesForRecord(MBeans record
     ) {
-        int[] indices = IntStream.range(0, this.watchLists.size())
-                .filter(i -> this.watchLists.get(i).containsMedia(record))
-                .toArray();
-        return indices;
+        synchronized (this.dataLock) {
+            int ordinal = this.movieIndex.ordinal(record);
+            if (ordinal < 0) {
+                return IntStream.range(0, this.watchLists.size())
+                        .filter(i -> this.watchLists.get(i).containsMedia(record))
+                        .toArray();
+            }
+            return IntStream.range(0, this.watchListMembers.size())
+                    .filter(i -> this.watchListMembers.get(i).contains(ordinal))
+                    .toArray();
+        }
+    }
+
+    @Override
+    public long getFilterCacheHits() {
+        return this.filterCache.getHits();
+    }
+
+    @Override
+    public long getFilterCacheMisses() {
+        return this.filterCache.getMisses();
     }
 
     @Override
@@ -440,10 +808,264 @@ public class Model implements IModel {
      *
      * @param filter filter parameters to store.
      */
-    private void setFilter(List<List<String>> filter) {
+    @Override
+    public void setFilter(List<List<String>> filter) {
         this.filter = filter;
     }
 
+    /**
+     * Fold the journal back into the source file on the background thread once
+     * it holds enough edits.
+     */
+    private void compactJournalIfNeeded() {
+        if (this.journal.size() >= JOURNAL_COMPACT_THRESHOLD) {
+            this.scheduleSourceSave();
+        }
+    }
+
+    /**
+     * Mark the source file dirty so the scheduler rewrites it.
+     */
+    private void scheduleSourceSave() {
+        this.scheduler.markDirty(this.dataFile, this::saveSourceList);
+    }
+
+    /**
+     * Mark the file of a watch list dirty so the scheduler rewrites it.
+     *
+     * @param userListId The identifier of the watch list to write.
+     */
+    private void scheduleWatchListSave(int userListId) {
+        IMovieList watchList = this.watchLists.get(userListId);
+        String filename = this.getWatchListFile(userListId);
+        this.scheduler.markDirty(filename, () -> this.writeWatchList(filename, watchList, true, true));
+    }
+
+    /**
+     * Get the file of a watch list inside the watchlist directory.
+     *
+     * @param userListId The identifier of the watch list.
+     * @return path to the watch list file.
+     */
+    private String getWatchListFile(int userListId) {
+        return this.watchListDirectory + "/" + this.getUserListName(userListId) + ".json";
+    }
+
+    /**
+     * Create the directories of the model files if they do not exist.
+     */
+    private void createDirectories() {
+        List<File> directories = List.of(new File(this.dataFile).getParentFile(),
+                new File(this.watchListDirectory),
+                new File(this.unusedDirectory));
+        for (File directory : directories) {
+            if (!directory.exists()) {
+                if (directory.mkdirs()) {
+                    System.out.println("Directory created successfully");
+                } else {
+                    System.out.println("Failed to create directory");
+                }
+            }
+        }
+    }
+
+    /**
+     * Atomically write a watch list to a file, using the format of the file
+     * extension.
+     *
+     * @param filename string of file path to save the watch list to.
+     * @param watchList the watch list to save.
+     * @param keepBackup whether to keep the previous file as a backup.
+     * @param compact true for files the application reads back, false for
+     *                user exports and archived copies, which are indented.
+     */
+    private void writeWatchList(String filename, IMovieList watchList, boolean keepBackup, boolean compact) {
+        // Get file extension
+        Formats format = Formats.fromFilename(filename);
+        System.out.println(format);
+        Set<MBeans> records;
+        synchronized (this.dataLock) {
+            records = watchList.getMovieList().collect(Collectors.toSet());
+        }
+        try {
+            AtomicFileWriter.write(filename, keepBackup, file -> {
+                // Files ending in .gz are compressed as they are written
+                try (OutputStream out = Formats.isCompressed(filename) ? new GZIPOutputStream(file) : file) {
+                    if (compact) {
+                        MBeansFormatter.writeMediasCompact(records, out, format);
+                    } else {
+                        MBeansFormatter.writeMedias(records, out, format);
+                    }
+                }
+            });
+        } catch (Exception e) {
+            System.out.println("Error writing to file");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Atomically write the source file, keeping the previous one as a backup,
+     * and drop the journal segments it now contains. The binary snapshot is
+     * written after the JSON file so it is read on the next start.
+     *
+     * Skips the write if a newer generation was already written.
+     *
+     * @param generation the newest journal generation contained in records.
+     * @param records the source list to write.
+     */
+    private void writeSourceList(long generation, List<MBeans> records) {
+        synchronized (this.sourceWriteLock) {
+            if (generation <= this.writtenGeneration) {
+                return;
+            }
+            try {
+                AtomicFileWriter.write(this.dataFile, true,
+                        out -> MBeansFormatter.writeMediasCompact(records, out, Formats.JSON));
+            } catch (Exception e) {
+                System.out.println("Error writing to file");
+                e.printStackTrace();
+                return;
+            }
+            try {
+                AtomicFileWriter.write(this.snapshotFile, false,
+                        out -> MBeansFormatter.writeMedias(records, out, Formats.BINARY));
+            } catch (Exception e) {
+                // The JSON file is newer, so the stale snapshot is not read
+                System.out.println("Error writing source snapshot");
+                e.printStackTrace();
+            }
+            this.writtenGeneration = generation;
+            this.journal.discard(generation);
+        }
+    }
+
+    /**
+     * Check if the binary snapshot holds the latest source list, so it was
+     * written after the JSON file was last changed.
+     *
+     * @return true if the snapshot exists and is at least as new as the JSON file.
+     */
+    private boolean isSnapshotCurrent() {
+        File snapshot = new File(this.snapshotFile);
+        return snapshot.exists() && snapshot.lastModified() >= new File(this.dataFile).lastModified();
+    }
+
+    /**
+     * Stream a source file straight into a new source index.
+     *
+     * @param filename path to the source file.
+     * @param format format of the source file, JSON or BINARY.
+     * @return the records keyed by imdbID, null if the file cannot be read.
+     */
+    private static Map<String, MBeans> readSourceFile(String filename, Formats format) {
+        Map<String, MBeans> index = new LinkedHashMap<>();
+        try (Stream<MBeans> records = openSourceFile(filename, format)) {
+            records.forEach(bean -> index.putIfAbsent(bean.getID(), bean));
+            return index;
+        } catch (Exception e) {
+            System.out.println("Model: Error reading source data from " + filename);
+            return null;
+        }
+    }
+
+    /**
+     * Open a source file as a stream of records.
+     *
+     * Binary snapshots too large to comfortably fit on the heap are memory
+     * mapped, so their records are decoded on demand.
+     *
+     * @param filename path to the source file.
+     * @param format format of the source file, JSON or BINARY.
+     * @return stream of the records in the file.
+     * @throws IOException if the file cannot be opened.
+     */
+    private static Stream<MBeans> openSourceFile(String filename, Formats format) throws IOException {
+        if (format != Formats.BINARY) {
+            return MBeansLoader.streamMediasFromJSON(filename);
+        }
+        if (isMapped(filename)) {
+            System.out.println("Model: Mapping source snapshot " + filename);
+            return MBeansLoader.mapMediasFromBinary(filename);
+        }
+        return MBeansLoader.streamMediasFromBinary(filename);
+    }
+
+    /**
+     * Check whether a binary snapshot is too large to read onto the heap, so
+     * it is memory mapped.
+     *
+     * @param filename path to the snapshot.
+     * @return true if the snapshot is mapped.
+     */
+    private static boolean isMapped(String filename) {
+        return new File(filename).length() > Runtime.getRuntime().maxMemory() * MAP_SNAPSHOT_HEAP_SHARE;
+    }
+
+    /**
+     * Copy the source list into new columns.
+     *
+     * @param records the records of the source list.
+     * @return the views of the columns keyed by imdbID, in the same order.
+     */
+    private Map<String, MBeans> toColumns(Collection<MBeans> records) {
+        this.columns = new ColumnarSource(records.size());
+        Map<String, MBeans> index = new LinkedHashMap<>();
+        for (MBeans bean : records) {
+            index.put(bean.getID(), this.columns.add(bean));
+        }
+        System.out.println("Model: Keeping " + index.size() + " source records in columns");
+        return index;
+    }
+
+    /**
+     * Add a new record to the source index and movie index.
+     *
+     * The record is copied into the columns when the source list is kept in
+     * columns.
+     *
+     * @param bean the record, not yet in the source list.
+     * @return the reference kept in the source list.
+     */
+    private MBeans addToSource(MBeans bean) {
+        MBeans stored = this.columns == null ? bean : this.columns.add(bean);
+        this.sourceIndex.put(stored.getID(), stored);
+        this.movieIndex.add(stored);
+        this.sourceSnapshot = null;
+        return stored;
+    }
+
+    /**
+     * Add records to the source index.
+     *
+     * Records already in the source keep their existing reference, records
+     * without an imdbID are skipped. New records are added to the movie index.
+     *
+     * @param records the records to add.
+     */
+    private void indexSource(Collection<MBeans> records) {
+        for (MBeans bean : records) {
+            if (bean != null && bean.getID() != null) {
+                if (!this.sourceIndex.containsKey(bean.getID())) {
+                    addToSource(bean);
+                }
+            }
+        }
+    }
+
+    /**
+     * Build the bitmap of the source ordinals in a watch list.
+     *
+     * @param watchList the watch list.
+     * @return the bitmap.
+     */
+    private OrdinalBitmap membersOf(IMovieList watchList) {
+        OrdinalBitmap members = new OrdinalBitmap();
+        watchList.getMovieList().mapToInt(this.movieIndex::ordinal).filter(ordinal -> ordinal >= 0)
+                .forEach(members::add);
+        return members;
+    }
+
     /**
      * Get the object reference of the MBeans that matched given media inside
      * the source list.
@@ -452,9 +1074,9 @@ public class Model implements IModel {
      * @return MBeans object reference of the media with the same imdbID
      */
     private MBeans getMatchedObjectFromSource(MBeans media) {
-        return this.sourceList.stream()
-                .filter(bean -> bean.equals(media))
-                .findFirst()
-                .orElse(null);
+        if (media == null || media.getID() == null) {
+            return null;
+        }
+        return this.sourceIndex.get(media.getID());
     }
 }
@@ -1,7 +1,9 @@
 package group5.model;
 
+import java.io.BufferedOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.stream.Stream;
@@ -76,8 +78,7 @@ public class MovieList implements IMovieList {
 
     @Override
     public void saveMovie(String filename, Formats format) {
-        try {
-            FileOutputStream saves = new FileOutputStream(filename);
+        try (OutputStream saves = new BufferedOutputStream(new FileOutputStream(filename))) {
             MBeansFormatter.writeMediasToFile(this.movieList, saves, format);
         } catch (IOException e) {
             System.out.println("Error writing to file");
@@ -0,0 +1,127 @@
+package group5.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind scheduler for model files.
+ *
+ * Files are marked dirty together with the task that writes them. Marking a
+ * file again before it is written replaces its task, so all changes made
+ * within one window are written once, on a background thread. Pending writes
+ * are flushed when the JVM shuts down, or when the scheduler is closed.
+ */
+public class PersistenceScheduler {
+
+    /** Delay between the first change and the write of pending files. */
+    private final long windowMillis;
+
+    /** Thread running the writes. */
+    private final ScheduledExecutorService executor;
+
+    /** Pending write tasks keyed by file, in the order they were first marked. */
+    private final Map<String, Runnable> pending = new LinkedHashMap<>();
+
+    /** Hook flushing pending writes when the JVM shuts down. */
+    private final Thread shutdownHook;
+
+    /** Whether a write of the pending files is already scheduled. */
+    private boolean scheduled;
+
+    /**
+     * Scheduler constructor.
+     *
+     * @param windowMillis delay in milliseconds used to coalesce writes.
+     */
+    public PersistenceScheduler(long windowMillis) {
+        this.windowMillis = windowMillis;
+        this.executor = new ScheduledThreadPoolExecutor(1, task -> {
+            Thread thread = new Thread(task, "model-persistence");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.shutdownHook = new Thread(this::flush, "model-persistence-shutdown");
+        Runtime.getRuntime().addShutdownHook(this.shutdownHook);
+    }
+
+    /**
+     * Mark a file as changed.
+     *
+     * @param key the file to write.
+     * @param write task writing the current state of the file.
+     */
+    public synchronized void markDirty(String key, Runnable write) {
+        this.pending.remove(key);
+        this.pending.put(key, write);
+        if (!this.scheduled) {
+            this.scheduled = true;
+            this.executor.schedule(this::writePending, this.windowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Drop the pending write of a file, used when the file is deleted.
+     *
+     * @param key the file not to write.
+     */
+    public synchronized void cancel(String key) {
+        this.pending.remove(key);
+    }
+
+    /**
+     * Write every pending file now and wait until all writes completed.
+     */
+    public void flush() {
+        try {
+            this.executor.submit(this::writePending).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.out.println("Error writing pending changes");
+        }
+    }
+
+    /**
+     * Write every pending file, then stop the scheduler thread and remove
+     * the shutdown hook, so the scheduler and the tasks it holds can be
+     * garbage collected. The scheduler cannot be used once closed.
+     */
+    public void close() {
+        if (this.executor.isShutdown()) {
+            return;
+        }
+        flush();
+        try {
+            Runtime.getRuntime().removeShutdownHook(this.shutdownHook);
+        } catch (IllegalStateException e) {
+            // The JVM is already shutting down and runs the hook
+        }
+        this.executor.shutdown();
+    }
+
+    /**
+     * Run the pending write tasks on the scheduler thread.
+     */
+    private void writePending() {
+        List<Runnable> writes;
+        synchronized (this) {
+            writes = new ArrayList<>(this.pending.values());
+            this.pending.clear();
+            this.scheduled = false;
+        }
+        for (Runnable write : writes) {
+            try {
+                write.run();
+            } catch (RuntimeException e) {
+                System.out.println("Error writing pending changes");
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package group5.model;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import group5.model.beans.MBeans;
+
+/**
+ * Append-only journal of user edits made to the source list.
+ *
+ * Each line is a JSON object holding the imdbID of the edited media and the
+ * new value of the edited field, so replaying a line more than once gives the
+ * same result. Before the source file is rewritten the journal is rotated into
+ * a numbered segment, which is deleted once the rewrite completes. Appended
+ * entries are buffered until flushed.
+ */
+public class SourceJournal {
+
+    /** Journal entry key of the media id. */
+    private static final String ID = "imdbID";
+
+    /** Journal entry key of the watched status. */
+    private static final String WATCHED = "Watched";
+
+    /** Journal entry key of the user rating. */
+    private static final String RATING = "My_Rating";
+
+    /** Mapper used to read and write journal entries. */
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /** The live journal file. */
+    private final File file;
+
+    /** Writer appending to the live journal, opened on first append. */
+    private Writer out;
+
+    /** Number of entries appended since the last rotation. */
+    private int entries;
+
+    /** Generation of the next rotated segment. */
+    private long generation;
+
+    /**
+     * Journal constructor.
+     *
+     * @param filename path to the live journal file.
+     */
+    public SourceJournal(String filename) {
+        this.file = new File(filename);
+        for (File segment : segments()) {
+            this.generation = Math.max(this.generation, segmentGeneration(segment));
+        }
+    }
+
+    /**
+     * Append a watched status change.
+     *
+     * @param id imdbID of the edited media.
+     * @param watched the new watched status.
+     */
+    public synchronized void appendWatched(String id, boolean watched) {
+        append(MAPPER.createObjectNode().put(ID, id).put(WATCHED, watched));
+    }
+
+    /**
+     * Append a user rating change.
+     *
+     * @param id imdbID of the edited media.
+     * @param rating the new user rating.
+     */
+    public synchronized void appendRating(String id, double rating) {
+        append(MAPPER.createObjectNode().put(ID, id).put(RATING, rating));
+    }
+
+    /**
+     * Get the number of entries appended since the last rotation.
+     *
+     * @return number of entries in the live journal.
+     */
+    public synchronized int size() {
+        return this.entries;
+    }
+
+    /**
+     * Move the live journal into a new segment so later appends start a fresh
+     * journal.
+     *
+     * @return the generation of the rotated segment.
+     */
+    public synchronized long rotate() {
+        close();
+        this.generation++;
+        if (this.file.exists()) {
+            File segment = new File(this.file.getPath() + "." + this.generation);
+            if (!this.file.renameTo(segment)) {
+                System.out.println("Error rotating journal");
+            }
+        }
+        this.entries = 0;
+        return this.generation;
+    }
+
+    /**
+     * Delete rotated segments up to and including the given generation, once
+     * their changes are part of the source file.
+     *
+     * @param upTo the newest generation to delete.
+     */
+    public synchronized void discard(long upTo) {
+        for (File segment : segments()) {
+            if (segmentGeneration(segment) <= upTo) {
+                segment.delete();
+            }
+        }
+    }
+
+    /**
+     * Apply every journaled change to the matching media, oldest first.
+     *
+     * Lines that cannot be parsed, such as a partly written last line, are
+     * skipped.
+     *
+     * @param source the source list keyed by imdbID.
+     * @return the number of entries applied.
+     */
+    public synchronized int replay(Map<String, MBeans> source) {
+        List<File> files = segments();
+        files.sort((a, b) -> Long.compare(segmentGeneration(a), segmentGeneration(b)));
+        files.add(this.file);
+        int applied = 0;
+        for (File journal : files) {
+            if (!journal.exists()) {
+                continue;
+            }
+            try (BufferedReader in = Files.newBufferedReader(journal.toPath(), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (apply(line, source)) {
+                        applied++;
+                    }
+                }
+            } catch (IOException e) {
+                System.out.println("Error reading journal " + journal);
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Write buffered entries to the live journal file.
+     */
+    public synchronized void flush() {
+        if (this.out != null) {
+            try {
+                this.out.flush();
+            } catch (IOException e) {
+                System.out.println("Error writing to journal");
+            }
+        }
+    }
+
+    /**
+     * Close the live journal writer.
+     */
+    public synchronized void close() {
+        if (this.out != null) {
+            try {
+                this.out.close();
+            } catch (IOException e) {
+                System.out.println("Error closing journal");
+            }
+            this.out = null;
+        }
+    }
+
+    /**
+     * Write one entry to the live journal.
+     *
+     * @param entry the entry to write.
+     */
+    private void append(ObjectNode entry) {
+        try {
+            if (this.out == null) {
+                this.out = new BufferedWriter(new OutputStreamWriter(
+                        new FileOutputStream(this.file, true), StandardCharsets.UTF_8));
+            }
+            this.out.write(MAPPER.writeValueAsString(entry));
+            this.out.write('\n');
+            this.entries++;
+        } catch (IOException e) {
+            System.out.println("Error writing to journal");
+        }
+    }
+
+    /**
+     * Apply a single journal line.
+     *
+     * @param line the journal line.
+     * @param source the source list keyed by imdbID.
+     * @return true if the line was applied to a media.
+     */
+    private static boolean apply(String line, Map<String, MBeans> source) {
+        try {
+            JsonNode entry = MAPPER.readTree(line);
+            MBeans media = source.get(entry.path(ID).asText());
+            if (media == null) {
+                return false;
+            }
+            if (entry.has(WATCHED)) {
+                media.setWatched(entry.get(WATCHED).asBoolean());
+            }
+            if (entry.has(RATING)) {
+                media.setMyRating(entry.get(RATING).asDouble());
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * List the rotated segments of this journal.
+     *
+     * @return the rotated segment files.
+     */
+    private List<File> segments() {
+        List<File> segments = new ArrayList<>();
+        File[] files = this.file.getAbsoluteFile().getParentFile().listFiles();
+        if (files == null) {
+            return segments;
+        }
+        for (File candidate : files) {
+            if (segmentGeneration(candidate) > 0) {
+                segments.add(candidate);
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * Get the generation of a rotated segment.
+     *
+     * @param segment the segment file.
+     * @return the generation, or -1 if the file is not a segment of this journal.
+     */
+    private long segmentGeneration(File segment) {
+        String prefix = this.file.getName() + ".";
+        String name = segment.getName();
+        if (!name.startsWith(prefix)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
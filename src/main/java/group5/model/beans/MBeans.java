@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.Locale;
 import java.text.NumberFormat;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -39,10 +40,12 @@ public class MBeans implements java.io.Serializable {
 
     /** Holds type of media(movies, series). */
     @JsonProperty("Type")
+    @JsonDeserialize(using = MBeansDeserializer.StringDeserializer.class)
     private String type;
 
     /** Holds content rating of the media. */
     @JsonProperty("Rated")
+    @JsonDeserialize(using = MBeansDeserializer.StringDeserializer.class)
     private String rated;
 
     /** Holds release date of the media. */
@@ -135,6 +138,26 @@ public class MBeans implements java.io.Serializable {
     @JsonProperty("My_Rating")
     private double myRating = -1.0;
 
+    /** Search key of the title, built on first use. */
+    private transient String titleKey;
+
+    /** Search key of the content rating, built on first use. */
+    private transient String ratedKey;
+
+    /** Search keys of the genres, built on first use. */
+    private transient List<String> genreKeys;
+
+    /** Search keys of the director(s), built on first use. */
+    private transient List<String> directorKeys;
+
+    /** Search keys of the writer(s), built on first use. */
+    private transient List<String> writerKeys;
+
+    /** Search keys of the actor(s), built on first use. */
+    private transient List<String> actorsKeys;
+
+    /** Search keys of the language(s), built on first use. */
+    private transient List<String> languageKeys;
 
     /** Default/empty constructor. */
     public MBeans() { }
@@ -381,6 +404,97 @@ public class MBeans implements java.io.Serializable {
         return myRating;
     }
 
+    /**
+     * get the search key of the title, see SearchKeys.
+     *
+     * @return the title key, null if there is no title
+     */
+    @JsonIgnore
+    public String getTitleKey() {
+        if (titleKey == null) {
+            titleKey = SearchKeys.normalize(getTitle());
+        }
+        return titleKey;
+    }
+
+    /**
+     * get the search key of the content rating, see SearchKeys.
+     *
+     * @return the content rating key, null if there is no content rating
+     */
+    @JsonIgnore
+    public String getRatedKey() {
+        if (ratedKey == null) {
+            ratedKey = SearchKeys.normalize(getRated());
+        }
+        return ratedKey;
+    }
+
+    /**
+     * get the search keys of the genres, see SearchKeys.
+     *
+     * @return the genre keys, null if there are no genres
+     */
+    @JsonIgnore
+    public List<String> getGenreKeys() {
+        if (genreKeys == null) {
+            genreKeys = SearchKeys.normalize(getGenre());
+        }
+        return genreKeys;
+    }
+
+    /**
+     * get the search keys of the director(s), see SearchKeys.
+     *
+     * @return the director keys, null if there are no directors
+     */
+    @JsonIgnore
+    public List<String> getDirectorKeys() {
+        if (directorKeys == null) {
+            directorKeys = SearchKeys.normalize(getDirector());
+        }
+        return directorKeys;
+    }
+
+    /**
+     * get the search keys of the writer(s), see SearchKeys.
+     *
+     * @return the writer keys, null if there are no writers
+     */
+    @JsonIgnore
+    public List<String> getWriterKeys() {
+        if (writerKeys == null) {
+            writerKeys = SearchKeys.normalize(getWriter());
+        }
+        return writerKeys;
+    }
+
+    /**
+     * get the search keys of the actor(s), see SearchKeys.
+     *
+     * @return the actor keys, null if there are no actors
+     */
+    @JsonIgnore
+    public List<String> getActorsKeys() {
+        if (actorsKeys == null) {
+            actorsKeys = SearchKeys.normalize(getActors());
+        }
+        return actorsKeys;
+    }
+
+    /**
+     * get the search keys of the language(s), see SearchKeys.
+     *
+     * @return the language keys, null if there are no languages
+     */
+    @JsonIgnore
+    public List<String> getLanguageKeys() {
+        if (languageKeys == null) {
+            languageKeys = SearchKeys.normalize(getLanguage());
+        }
+        return languageKeys;
+    }
+
     /**
      * Set the title.
      *
@@ -388,6 +502,7 @@ public class MBeans implements java.io.Serializable {
      */
     public void setTitle(String title) {
         this.title = title;
+        this.titleKey = null;
     }
 
     /**
@@ -415,6 +530,7 @@ public class MBeans implements java.io.Serializable {
      */
     public void setRated(String rated) {
         this.rated = rated;
+        this.ratedKey = null;
     }
 
     /**
@@ -442,6 +558,7 @@ public class MBeans implements java.io.Serializable {
      */
     public void setGenre(List<String> genre) {
         this.genre = genre;
+        this.genreKeys = null;
     }
 
     /**
@@ -451,6 +568,7 @@ public class MBeans implements java.io.Serializable {
      */
     public void setDirector(List<String> director) {
         this.director = director;
+        this.directorKeys = null;
     }
 
     /**
@@ -460,6 +578,7 @@ public class MBeans implements java.io.Serializable {
      */
     public void setWriter(List<String> writer) {
         this.writer = writer;
+        this.writerKeys = null;
     }
 
     /**
@@ -469,6 +588,7 @@ public class MBeans implements java.io.Serializable {
      */
     public void setActors(List<String> actors) {
         this.actors = actors;
+        this.actorsKeys = null;
     }
 
     /**
@@ -487,6 +607,7 @@ public class MBeans implements java.io.Serializable {
      */
     public void setLanguage(List<String> language) {
         this.language = language;
+        this.languageKeys = null;
     }
 
     /**
@@ -578,25 +699,25 @@ public class MBeans implements java.io.Serializable {
     @Override
     public String toString() {
         String result = "";
-        result += "Title: " + title + "\n";
-        result += "Year: " + year + "\n";
-        result += "MPA Rating: " + rated + "\n";
+        result += "Title: " + getTitle() + "\n";
+        result += "Year: " + getYear() + "\n";
+        result += "MPA Rating: " + getRated() + "\n";
         result += "Released: " + this.formattedDate() + "\n";
-        result += "Runtime: " + runtime + "\n";
-        result += "Genre: " + genre + "\n";
-        result += "Director: " + director + "\n";
-        result += "Writer: " + writer + "\n";
-        result += "Actors: " + actors + "\n";
-        result += "Plot: " + plot + "\n";
-        result += "Language: " + language + "\n";
-        result += "Country: " + country + "\n";
-        result += "Awards: " + awards + "\n";
-        result += "Poster: " + poster + "\n";
-        result += "Metascore: " + metascore + "\n";
-        result += "imdbRating: " + imdbRating + "\n";
+        result += "Runtime: " + getRuntime() + "\n";
+        result += "Genre: " + getGenre() + "\n";
+        result += "Director: " + getDirector() + "\n";
+        result += "Writer: " + getWriter() + "\n";
+        result += "Actors: " + getActors() + "\n";
+        result += "Plot: " + getPlot() + "\n";
+        result += "Language: " + getLanguage() + "\n";
+        result += "Country: " + getCountry() + "\n";
+        result += "Awards: " + getAwards() + "\n";
+        result += "Poster: " + getPoster() + "\n";
+        result += "Metascore: " + getMetascore() + "\n";
+        result += "imdbRating: " + getImdbRating() + "\n";
         result += "BoxOffice: " + formatBoxOfficeCurrency() + "\n";
-        result += "Watched: " + watched + "\n";
-        result += "My Rating: " + myRating;
+        result += "Watched: " + getWatched() + "\n";
+        result += "My Rating: " + getMyRating();
         return result;
     }
 
@@ -608,11 +729,12 @@ public class MBeans implements java.io.Serializable {
      * @return a string currency representation of the BoxOffice
      */
     public String formatBoxOfficeCurrency() {
-        if (this.boxOffice == -1) {
+        int boxOffice = getBoxOffice();
+        if (boxOffice == -1) {
             return "N/A";
         }
         NumberFormat usdFormatter = NumberFormat.getNumberInstance(Locale.US);
-        String boxOfficeStr = usdFormatter.format(this.boxOffice);
+        String boxOfficeStr = usdFormatter.format(boxOffice);
         return "$" + boxOfficeStr;
     }
 
@@ -651,6 +773,7 @@ public class MBeans implements java.io.Serializable {
      */
     public String formattedDate() {
         DateTimeFormatter dateFormat = DateTimeFormatter.ofPattern("dd MMM yyyy");
+        LocalDate released = getReleased();
         if (released == null) {
             return "N/A";
         } else {
@@ -0,0 +1,92 @@
+package group5.model.beans;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Builds the search keys text filters compare against.
+ *
+ * A key is the text case folded the way equalsIgnoreCase compares it, with
+ * accents dropped and each run of whitespace collapsed to a single space, so
+ * "Am&eacute;lie" and "  amelie " share the key "amelie". Filter values are keyed
+ * the same way, after which comparisons are plain equals and contains calls.
+ */
+public final class SearchKeys {
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private SearchKeys() {
+        // empty
+    }
+
+    /**
+     * Get the search key of a string.
+     *
+     * @param text the string, may be null
+     * @return the key, the string itself if it already is one, null if the
+     *         string is null
+     */
+    public static String normalize(String text) {
+        if (text == null || isKey(text)) {
+            return text;
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder key = new StringBuilder(decomposed.length());
+        boolean space = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.isWhitespace(c) || Character.isSpaceChar(c)) {
+                space = key.length() > 0;
+            } else if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                if (space) {
+                    key.append(' ');
+                    space = false;
+                }
+                key.append(Character.toLowerCase(Character.toUpperCase(c)));
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * Get the search keys of the strings of a list.
+     *
+     * @param texts the strings, may be null
+     * @return an unmodifiable list of the keys in the same order, null if the
+     *         list is null
+     */
+    public static List<String> normalize(List<String> texts) {
+        if (texts == null) {
+            return null;
+        }
+        String[] keys = new String[texts.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = normalize(texts.get(i));
+        }
+        return Collections.unmodifiableList(Arrays.asList(keys));
+    }
+
+    /**
+     * Check whether a string already is a search key, without allocating.
+     *
+     * Only plain ASCII strings are checked, anything else takes the full
+     * normalization.
+     *
+     * @param text the string
+     * @return true if the string is lowercase ASCII with single inner spaces
+     */
+    private static boolean isKey(String text) {
+        char previous = ' ';
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80 || c < ' ' || (c >= 'A' && c <= 'Z') || (c == ' ' && previous == ' ')) {
+                return false;
+            }
+            previous = c;
+        }
+        return text.isEmpty() || previous != ' ';
+    }
+}
@@ -0,0 +1,192 @@
+package group5.model.filter;
+
+import group5.model.MovieData;
+
+/**
+ * Statistics of an indexed column, used by the QueryPlanner to estimate how
+ * many movies a filter matches.
+ *
+ * Every column records how many values it holds and how many of them are
+ * distinct. Numeric columns also keep an equi-depth histogram: bucket bounds
+ * chosen so each bucket holds the same share of the values, which follows
+ * skewed columns such as box office far better than even ranges would.
+ * Statistics are a snapshot, the index builds new ones after it changes.
+ */
+public final class ColumnStatistics {
+
+    /** Number of histogram buckets of a numeric column. */
+    static final int BUCKETS = 32;
+
+    /** The column described. */
+    private final MovieData column;
+
+    /** Number of movies in the index. */
+    private final int rows;
+
+    /** Number of values in the column, counting each entry of a list. */
+    private final int values;
+
+    /** Number of distinct values in the column. */
+    private final int distinct;
+
+    /** Histogram bucket bounds in increasing order, null for text columns. */
+    private final double[] bounds;
+
+    /**
+     * ColumnStatistics constructor.
+     *
+     * @param column the column described
+     * @param rows number of movies in the index
+     * @param values number of values in the column
+     * @param distinct number of distinct values in the column
+     * @param bounds histogram bucket bounds, null if the column is not numeric
+     */
+    ColumnStatistics(MovieData column, int rows, int values, int distinct, double[] bounds) {
+        this.column = column;
+        this.rows = rows;
+        this.values = values;
+        this.distinct = distinct;
+        this.bounds = bounds;
+    }
+
+    /**
+     * Get the column described.
+     *
+     * @return the column
+     */
+    public MovieData getColumn() {
+        return this.column;
+    }
+
+    /**
+     * Get the number of movies in the index.
+     *
+     * @return the row count
+     */
+    public int getRows() {
+        return this.rows;
+    }
+
+    /**
+     * Get the number of values in the column, counting each entry of a list.
+     *
+     * @return the value count
+     */
+    public int getValues() {
+        return this.values;
+    }
+
+    /**
+     * Get the number of distinct values in the column.
+     *
+     * @return the cardinality
+     */
+    public int getDistinct() {
+        return this.distinct;
+    }
+
+    /**
+     * Check whether the column has a histogram.
+     *
+     * @return true for numeric columns
+     */
+    public boolean hasHistogram() {
+        return this.bounds != null;
+    }
+
+    /**
+     * Estimate the share of the movies holding a given value, assuming every
+     * distinct value is equally common.
+     *
+     * @return the share, between 0 and 1
+     */
+    public double equalsSelectivity() {
+        if (this.rows == 0 || this.distinct == 0) {
+            return 0;
+        }
+        return Math.min(1, (double) this.values / this.distinct / this.rows);
+    }
+
+    /**
+     * Estimate the share of the movies passing a comparison, from the
+     * histogram.
+     *
+     * @param op the operator
+     * @param bound the value compared against
+     * @return the share, between 0 and 1, -1 if the column has no histogram
+     *         or the operator is not a comparison
+     */
+    public double selectivity(Operations op, double bound) {
+        if (this.bounds == null) {
+            return -1;
+        }
+        double share;
+        switch (op) {
+            case EQUALS:
+                if (bound < this.bounds[0] || bound > this.bounds[this.bounds.length - 1]) {
+                    return 0;
+                }
+                share = Math.max(below(bound, true) - below(bound, false), 1.0 / this.distinct);
+                break;
+            case GREATERTHAN:
+                share = 1 - below(bound, true);
+                break;
+            case GREATEROREQUAL:
+                share = 1 - below(bound, false);
+                break;
+            case LESSTHAN:
+                share = below(bound, false);
+                break;
+            case LESSOREQUAL:
+                share = below(bound, true);
+                break;
+            default:
+                return -1;
+        }
+        return Math.min(1, share * this.values / this.rows);
+    }
+
+    /**
+     * Estimate the share of the values below a bound.
+     *
+     * Whole buckets below the bound count in full, the bucket it falls in
+     * counts in proportion to where the bound lies between its ends.
+     *
+     * @param bound the bound
+     * @param inclusive whether values equal to the bound count
+     * @return the share of the values, between 0 and 1
+     */
+    private double below(double bound, boolean inclusive) {
+        int buckets = this.bounds.length - 1;
+        double share = 0;
+        for (int i = 0; i < buckets; i++) {
+            double low = this.bounds[i];
+            double high = this.bounds[i + 1];
+            if (inclusive ? high <= bound : high < bound) {
+                share++;
+            } else {
+                if (low < bound) {
+                    share += (bound - low) / (high - low);
+                }
+                break;
+            }
+        }
+        return share / buckets;
+    }
+
+    /**
+     * Describe the statistics.
+     *
+     * @return the column, its counts and the histogram range
+     */
+    @Override
+    public String toString() {
+        String summary = this.column.name().toLowerCase() + ": " + this.values + " values, " + this.distinct
+                + " distinct over " + this.rows + " movies";
+        if (this.bounds != null) {
+            summary += ", " + (this.bounds.length - 1) + " buckets from " + this.bounds[0] + " to "
+                    + this.bounds[this.bounds.length - 1];
+        }
+        return summary;
+    }
+}
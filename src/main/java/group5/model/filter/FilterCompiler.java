@@ -0,0 +1,557 @@
+package group5.model.filter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+
+import group5.model.MovieData;
+import group5.model.beans.MBeans;
+import group5.model.beans.SearchKeys;
+
+/**
+ * Compiles filter specs into a single predicate.
+ *
+ * Columns and operators are parsed once, numeric values are parsed once and
+ * text values are turned into search keys once, instead of for every movie.
+ * Text is compared through the search keys each movie caches, so no string
+ * is built per movie. The compiled terms match the same movies as
+ * FilterOperation.getFilter, and run cheapest and most selective first so
+ * most movies are rejected early.
+ */
+public final class FilterCompiler {
+
+    /** Cost of a term that matches nothing. */
+    static final int COST_NEVER = 0;
+
+    /** Cost reported for a filter that matches every movie. */
+    static final int COST_ALWAYS = -1;
+
+    /** Cost of comparing a number or boolean for equality. */
+    private static final int COST_NUMBER_EQUALS = 1;
+
+    /** Cost of comparing a number against a bound. */
+    private static final int COST_NUMBER_RANGE = 2;
+
+    /** Cost of comparing a string ignoring case. */
+    private static final int COST_TEXT_EQUALS = 3;
+
+    /** Cost of comparing each string of a list ignoring case. */
+    private static final int COST_LIST_EQUALS = 4;
+
+    /** Cost of searching a string for a substring. */
+    private static final int COST_TEXT_CONTAINS = 5;
+
+    /** Cost of searching each string of a list for a substring. */
+    private static final int COST_LIST_CONTAINS = 6;
+
+    /** Predicate of a term that matches nothing. */
+    private static final Predicate<MBeans> NEVER = movie -> false;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private FilterCompiler() {
+        // empty
+    }
+
+    /**
+     * Compile a filter spec into a predicate matching movies that pass every
+     * filter.
+     *
+     * @param filters list of [column, operator, value] filters, may be null
+     * @return the compiled predicate
+     * @throws IllegalArgumentException if a filter is incomplete or names an
+     *                                  unknown column or operator
+     */
+    public static Predicate<MBeans> compile(List<List<String>> filters) {
+        List<Term> terms = new ArrayList<>();
+        if (filters != null) {
+            for (List<String> filter : filters) {
+                Term term = compileOne(filter);
+                if (term != null) {
+                    terms.add(term);
+                }
+            }
+        }
+        terms.sort(Comparator.comparingInt(term -> term.cost));
+        return combine(terms);
+    }
+
+    /**
+     * Compile a filter spec into a predicate that tests the filters in the
+     * order given, such as the order chosen by the QueryPlanner.
+     *
+     * @param filters list of [column, operator, value] filters
+     * @return the compiled predicate
+     * @throws IllegalArgumentException if a filter is incomplete or names an
+     *                                  unknown column or operator
+     */
+    static Predicate<MBeans> compileInOrder(List<List<String>> filters) {
+        List<Term> terms = new ArrayList<>();
+        for (List<String> filter : filters) {
+            Term term = compileOne(filter);
+            if (term != null) {
+                terms.add(term);
+            }
+        }
+        return combine(terms);
+    }
+
+    /**
+     * Get the estimated cost of testing a filter on one movie.
+     *
+     * @param filter the [column, operator, value] filter
+     * @return the cost, COST_NEVER if the filter matches nothing and
+     *         COST_ALWAYS if it matches every movie
+     * @throws IllegalArgumentException if the filter is incomplete or names an
+     *                                  unknown column or operator
+     */
+    static int cost(List<String> filter) {
+        Term term = compileOne(filter);
+        return term == null ? COST_ALWAYS : term.cost;
+    }
+
+    /**
+     * Rewrite a filter spec into a canonical form matching the same movies.
+     *
+     * Columns and operators take their enum names, text values become search
+     * keys, numbers are printed as parsed and the watched status as true or
+     * false. Filters matching every movie are dropped, the rest are sorted and
+     * deduplicated since their order does not change the result, and a spec
+     * with a filter matching nothing becomes that filter alone. Specs that
+     * differ only in these ways normalize to equal lists.
+     *
+     * @param filters list of [column, operator, value] filters, may be null
+     * @return the canonical spec
+     * @throws IllegalArgumentException if a filter is incomplete or names an
+     *                                  unknown column or operator
+     */
+    public static List<List<String>> normalize(List<List<String>> filters) {
+        if (filters == null) {
+            return new ArrayList<>();
+        }
+        Map<String, List<String>> canonical = new TreeMap<>();
+        for (List<String> filter : filters) {
+            Term term = compileOne(filter);
+            if (term == null) {
+                continue;
+            }
+            MovieData column = MovieData.fromString(filter.get(0));
+            Operations op = Operations.getOperatorFromStr(filter.get(1));
+            List<String> normalized = Arrays.asList(column.name(), op.name(), canonicalValue(column, op,
+                    filter.get(2)));
+            if (term.cost == COST_NEVER) {
+                return List.of(normalized);
+            }
+            canonical.put(String.join("\u0000", normalized), normalized);
+        }
+        return new ArrayList<>(canonical.values());
+    }
+
+    /**
+     * Check whether a normalized spec narrows another, so every movie it
+     * matches also matches the other.
+     *
+     * Holds when each filter of the previous spec is implied by a filter of
+     * the spec: the same filter, a CONTAINS needle extended to a longer one
+     * holding it, or a numeric range moved inward. A previous spec matching
+     * nothing is never narrowed, its empty result is no base for another
+     * spec.
+     *
+     * @param spec the normalized spec
+     * @param previous the normalized spec it may narrow
+     * @return true if the spec matches a subset of the previous matches
+     */
+    public static boolean refines(List<List<String>> spec, List<List<String>> previous) {
+        if (matchesNothing(previous)) {
+            return false;
+        }
+        for (List<String> wider : previous) {
+            if (spec.stream().noneMatch(narrower -> implies(narrower, wider))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check whether a normalized filter implies another.
+     *
+     * @param narrower the filter that may imply the other
+     * @param wider the filter that may be implied
+     * @return true if every movie matching the first matches the second
+     */
+    private static boolean implies(List<String> narrower, List<String> wider) {
+        if (narrower.equals(wider)) {
+            return true;
+        }
+        String narrowValue = narrower.get(2);
+        String wideValue = wider.get(2);
+        if (!narrower.get(0).equals(wider.get(0)) || narrowValue == null || wideValue == null) {
+            return false;
+        }
+        MovieData column = MovieData.valueOf(narrower.get(0));
+        Operations narrowOp = Operations.valueOf(narrower.get(1));
+        Operations wideOp = Operations.valueOf(wider.get(1));
+        if (narrowOp == Operations.CONTAINS && wideOp == Operations.CONTAINS) {
+            return narrowValue.contains(wideValue);
+        }
+        if (!isRange(narrowOp) || !isRange(wideOp)) {
+            // Other operators match nothing on numbers, they bound no range
+            return false;
+        }
+        switch (column) {
+            case RELEASED:
+            case RUNTIME:
+            case BOXOFFICE:
+            case IMDB:
+            case USER:
+                double narrow = Double.parseDouble(narrowValue);
+                double wide = Double.parseDouble(wideValue);
+                double narrowLow = lower(narrowOp, narrow);
+                double wideLow = lower(wideOp, wide);
+                double narrowHigh = upper(narrowOp, narrow);
+                double wideHigh = upper(wideOp, wide);
+                // At an equal bound only an open wider end can exclude what a closed narrower one keeps
+                boolean lowWithin = narrowLow > wideLow || (narrowLow == wideLow
+                        && (wideOp != Operations.GREATERTHAN || narrowOp == Operations.GREATERTHAN));
+                boolean highWithin = narrowHigh < wideHigh || (narrowHigh == wideHigh
+                        && (wideOp != Operations.LESSTHAN || narrowOp == Operations.LESSTHAN));
+                return lowWithin && highWithin;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Check whether an operator compares a number against a bound.
+     *
+     * @param op the operator
+     * @return true for EQUALS and the comparisons
+     */
+    private static boolean isRange(Operations op) {
+        return op == Operations.EQUALS || op == Operations.GREATERTHAN || op == Operations.GREATEROREQUAL
+                || op == Operations.LESSTHAN || op == Operations.LESSOREQUAL;
+    }
+
+    /**
+     * Check whether a normalized spec holds a filter matching nothing.
+     *
+     * @param spec the normalized spec
+     * @return true if the spec matches no movie
+     */
+    private static boolean matchesNothing(List<List<String>> spec) {
+        for (List<String> filter : spec) {
+            Term term = compileTerm(MovieData.valueOf(filter.get(0)), Operations.valueOf(filter.get(1)),
+                    filter.get(2));
+            if (term != null && term.cost == COST_NEVER) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the lower bound of a numeric comparison.
+     *
+     * @param op the operator
+     * @param value the value compared against
+     * @return the bound, negative infinity if there is none
+     */
+    private static double lower(Operations op, double value) {
+        return (op == Operations.GREATERTHAN || op == Operations.GREATEROREQUAL || op == Operations.EQUALS)
+                ? value : Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * Get the upper bound of a numeric comparison.
+     *
+     * @param op the operator
+     * @param value the value compared against
+     * @return the bound, positive infinity if there is none
+     */
+    private static double upper(Operations op, double value) {
+        return (op == Operations.LESSTHAN || op == Operations.LESSOREQUAL || op == Operations.EQUALS)
+                ? value : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Write a filter value the way it is compared.
+     *
+     * @param column the column
+     * @param op the operator
+     * @param value the filter value, already known to compile
+     * @return the canonical value
+     */
+    private static String canonicalValue(MovieData column, Operations op, String value) {
+        switch (column) {
+            case RELEASED:
+            case RUNTIME:
+            case BOXOFFICE:
+                return Integer.toString(Integer.parseInt(value));
+            case IMDB:
+            case USER:
+                return Double.toString(Double.parseDouble(value));
+            case HASWATCHED:
+                return Boolean.toString(Boolean.parseBoolean(value));
+            default:
+                return SearchKeys.normalize(value);
+        }
+    }
+
+    /**
+     * Combine compiled terms into one predicate testing them in order.
+     *
+     * @param terms the terms
+     * @return the combined predicate
+     */
+    private static Predicate<MBeans> combine(List<Term> terms) {
+        if (terms.isEmpty()) {
+            return movie -> true;
+        }
+        if (terms.stream().anyMatch(term -> term.cost == COST_NEVER)) {
+            return NEVER;
+        }
+        if (terms.size() == 1) {
+            return terms.get(0).test;
+        }
+        @SuppressWarnings("unchecked")
+        Predicate<MBeans>[] tests = terms.stream().map(term -> term.test).toArray(Predicate[]::new);
+        return movie -> {
+            for (Predicate<MBeans> test : tests) {
+                if (!test.test(movie)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    /**
+     * Compile a single filter.
+     *
+     * @param filter the [column, operator, value] filter
+     * @return the compiled term, null if the filter matches every movie
+     */
+    private static Term compileOne(List<String> filter) {
+        if (filter == null || filter.size() < 3) {
+            throw new IllegalArgumentException("compile - filter is null or incomplete");
+        }
+        return compileTerm(MovieData.fromString(filter.get(0)), Operations.getOperatorFromStr(filter.get(1)),
+                filter.get(2));
+    }
+
+    /**
+     * Compile a single filter from its parsed column and operator.
+     *
+     * @param column the column
+     * @param op the operator
+     * @param value the filter value
+     * @return the compiled term, null if the filter matches every movie
+     */
+    private static Term compileTerm(MovieData column, Operations op, String value) {
+        switch (column) {
+            case TITLE:
+                return text(MBeans::getTitleKey, op, value);
+            case MPA:
+                return text(MBeans::getRatedKey, op, value);
+            case GENRE:
+                return list(MBeans::getGenreKeys, op, value);
+            case DIRECTOR:
+                return list(MBeans::getDirectorKeys, op, value);
+            case ACTOR:
+                return list(MBeans::getActorsKeys, op, value);
+            case LANGUAGE:
+                return list(MBeans::getLanguageKeys, op, value);
+            case WRITER:
+                return list(MBeans::getWriterKeys, op, value);
+            case RELEASED:
+                return integer(MBeans::getYear, op, value);
+            case RUNTIME:
+                return integer(MBeans::getRuntime, op, value);
+            case BOXOFFICE:
+                return integer(MBeans::getBoxOffice, op, value);
+            case IMDB:
+                return decimal(MBeans::getImdbRating, op, value);
+            case USER:
+                return decimal(MBeans::getMyRating, op, value);
+            case HASWATCHED:
+                return bool(op, value);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Compile a filter on a string column.
+     *
+     * @param field the search key of the column
+     * @param op the operator
+     * @param value the filter value
+     * @return the compiled term
+     */
+    private static Term text(Function<MBeans, String> field, Operations op, String value) {
+        String key = SearchKeys.normalize(value);
+        switch (op) {
+            case EQUALS:
+                return new Term(movie -> {
+                    String text = field.apply(movie);
+                    return text != null && text.equals(key);
+                }, COST_TEXT_EQUALS);
+            case CONTAINS:
+                return new Term(movie -> {
+                    String text = field.apply(movie);
+                    return text != null && text.contains(key);
+                }, COST_TEXT_CONTAINS);
+            default:
+                return new Term(NEVER, COST_NEVER);
+        }
+    }
+
+    /**
+     * Compile a filter on a list column, matching if any entry matches.
+     *
+     * @param field the search keys of the column
+     * @param op the operator
+     * @param value the filter value
+     * @return the compiled term
+     */
+    private static Term list(Function<MBeans, List<String>> field, Operations op, String value) {
+        String key = SearchKeys.normalize(value);
+        switch (op) {
+            case EQUALS:
+                return new Term(movie -> {
+                    List<String> entries = field.apply(movie);
+                    if (entries != null) {
+                        for (String entry : entries) {
+                            if (entry.equals(key)) {
+                                return true;
+                            }
+                        }
+                    }
+                    return false;
+                }, COST_LIST_EQUALS);
+            case CONTAINS:
+                return new Term(movie -> {
+                    List<String> entries = field.apply(movie);
+                    if (entries != null) {
+                        for (String entry : entries) {
+                            if (entry.contains(key)) {
+                                return true;
+                            }
+                        }
+                    }
+                    return false;
+                }, COST_LIST_CONTAINS);
+            default:
+                return new Term(NEVER, COST_NEVER);
+        }
+    }
+
+    /**
+     * Compile a filter on an int column.
+     *
+     * @param field the column
+     * @param op the operator
+     * @param value the filter value
+     * @return the compiled term, null if the value is not a number
+     */
+    private static Term integer(ToIntFunction<MBeans> field, Operations op, String value) {
+        int bound;
+        try {
+            bound = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        switch (op) {
+            case EQUALS:
+                return new Term(movie -> field.applyAsInt(movie) == bound, COST_NUMBER_EQUALS);
+            case GREATERTHAN:
+                return new Term(movie -> field.applyAsInt(movie) > bound, COST_NUMBER_RANGE);
+            case GREATEROREQUAL:
+                return new Term(movie -> field.applyAsInt(movie) >= bound, COST_NUMBER_RANGE);
+            case LESSTHAN:
+                return new Term(movie -> field.applyAsInt(movie) < bound, COST_NUMBER_RANGE);
+            case LESSOREQUAL:
+                return new Term(movie -> field.applyAsInt(movie) <= bound, COST_NUMBER_RANGE);
+            default:
+                return new Term(NEVER, COST_NEVER);
+        }
+    }
+
+    /**
+     * Compile a filter on a double column.
+     *
+     * @param field the column
+     * @param op the operator
+     * @param value the filter value
+     * @return the compiled term, null if the value is not a number
+     */
+    private static Term decimal(ToDoubleFunction<MBeans> field, Operations op, String value) {
+        double bound;
+        try {
+            bound = Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        switch (op) {
+            case EQUALS:
+                return new Term(movie -> field.applyAsDouble(movie) == bound, COST_NUMBER_EQUALS);
+            case GREATERTHAN:
+                return new Term(movie -> field.applyAsDouble(movie) > bound, COST_NUMBER_RANGE);
+            case GREATEROREQUAL:
+                return new Term(movie -> field.applyAsDouble(movie) >= bound, COST_NUMBER_RANGE);
+            case LESSTHAN:
+                return new Term(movie -> field.applyAsDouble(movie) < bound, COST_NUMBER_RANGE);
+            case LESSOREQUAL:
+                return new Term(movie -> field.applyAsDouble(movie) <= bound, COST_NUMBER_RANGE);
+            default:
+                return new Term(NEVER, COST_NEVER);
+        }
+    }
+
+    /**
+     * Compile a filter on the watched status.
+     *
+     * @param op the operator
+     * @param value the filter value
+     * @return the compiled term
+     */
+    private static Term bool(Operations op, String value) {
+        boolean watched = Boolean.parseBoolean(value);
+        if (op != Operations.EQUALS) {
+            return new Term(NEVER, COST_NEVER);
+        }
+        return new Term(movie -> movie.getWatched() == watched, COST_NUMBER_EQUALS);
+    }
+
+    /**
+     * A compiled filter and its estimated cost per movie.
+     */
+    private static final class Term {
+
+        /** The compiled filter. */
+        private final Predicate<MBeans> test;
+
+        /** Estimated cost per movie, lower runs first. */
+        private final int cost;
+
+        /**
+         * Term constructor.
+         *
+         * @param test the compiled filter
+         * @param cost estimated cost per movie
+         */
+        private Term(Predicate<MBeans> test, int cost) {
+            this.test = test;
+            this.cost = cost;
+        }
+    }
+}
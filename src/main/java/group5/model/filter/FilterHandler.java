@@ -1,10 +1,15 @@
 package group5.model.filter;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-import group5.model.MovieData;
 import group5.model.beans.MBeans;
 
 /**
@@ -12,16 +17,71 @@ import group5.model.beans.MBeans;
  */
 public class FilterHandler implements IFilterHandler {
 
+    /**
+     * Default smallest number of movies filtered in parallel, below it
+     * splitting the work costs more than it saves.
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 100_000;
+
+    /** Smallest number of movies handed to a worker thread at once. */
+    private static final int MIN_CHUNK_SIZE = 4096;
+
+    /** Chunks per worker thread, so chunks that finish early even out. */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /** Smallest number of movies filtered in parallel. */
+    private final int parallelThreshold;
+
+    /** Worker threads used in parallel mode, null when filtering sequentially. */
+    private volatile ForkJoinPool pool;
+
     /**
      * constructor for planner.
      */
     public FilterHandler() {
+        this(DEFAULT_PARALLEL_THRESHOLD);
+    }
 
+    /**
+     * constructor for planner with a custom parallel threshold.
+     *
+     * @param parallelThreshold smallest number of movies filtered in parallel
+     */
+    public FilterHandler(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Replaces the worker pool, a running filter finishes on the old pool.
+     */
+    @Override
+    public synchronized void setParallelism(int threads) {
+        if (this.pool != null) {
+            this.pool.shutdown();
+        }
+        this.pool = threads > 1 ? new ForkJoinPool(threads) : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * A running filter finishes on the pool before its threads stop.
+     */
+    @Override
+    public void close() {
+        setParallelism(1);
     }
 
     /**
      * a filter on movies sorted by an input.
      *
+     * The filters are compiled into one predicate applied in a single pass.
+     * In parallel mode, sources of known size above the threshold are split
+     * into chunks filtered on the worker pool, and the matches are returned in
+     * source order.
+     *
      * @return a sorted stream of the movies.
      */
     @Override
@@ -29,13 +89,79 @@ public class FilterHandler implements IFilterHandler {
         if (filters == null || filters.isEmpty()) {
             return beanStream;
         }
+        return filter(FilterCompiler.compile(filters), beanStream);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The QueryPlanner decides which filters are looked up in the index. Their
+     * bitmaps are intersected first, then the other filters are tested on the
+     * movies left as above. Index lookups are exact and are not tested again.
+     */
+    @Override
+    public Stream<MBeans> filter(List<List<String>> filters, MovieIndex index) {
+        if (filters == null || filters.isEmpty()) {
+            return index.movies(null).stream();
+        }
+        QueryPlan plan = QueryPlanner.plan(filters, index);
+        if (plan.isEmpty()) {
+            return Stream.empty();
+        }
+        Stream<MBeans> candidates = index.movies(plan.candidates()).stream();
+        return plan.getScanned().isEmpty() ? candidates : filter(plan.predicate(), candidates);
+    }
 
-        List<MBeans> filteredBeans = beanStream.collect(Collectors.toList());
-        for (List<String> oneFilter : filters) {
-            filteredBeans = makeAndApplySingleFilter(filteredBeans, oneFilter).collect(Collectors.toList());
+    /**
+     * {@inheritDoc}
+     *
+     * The previous result is narrowed when testing every filter on its movies
+     * is estimated to cost less than running the plan, otherwise the plan
+     * runs as above.
+     */
+    @Override
+    public Stream<MBeans> filter(List<List<String>> filters, MovieIndex index, List<MBeans> previous) {
+        if (previous == null) {
+            return filter(filters, index);
+        }
+        QueryPlan plan = QueryPlanner.plan(filters, index);
+        if (plan.getCost() < previous.size() * plan.getScanCost()) {
+            return filter(filters, index);
         }
+        return filter(filters, previous.stream());
+    }
 
-        return filteredBeans.stream();
+    /**
+     * Get the candidates of a filter spec from the index, without reading any
+     * movie.
+     *
+     * @param filters list of [column, operator, value] filters
+     * @param index the indexed movies
+     * @return bitmap of the ordinals that may match every filter, null if the
+     *         plan reads no index
+     */
+    public static OrdinalBitmap match(List<List<String>> filters, MovieIndex index) {
+        return QueryPlanner.plan(filters, index).candidates();
+    }
+
+    /**
+     * Apply a compiled filter, in parallel for large sources when a worker
+     * pool is set.
+     *
+     * @param predicate the compiled filter
+     * @param beanStream the movies to filter
+     * @return stream of the matches in source order
+     */
+    private Stream<MBeans> filter(Predicate<MBeans> predicate, Stream<MBeans> beanStream) {
+        ForkJoinPool workers = this.pool;
+        if (workers == null) {
+            return beanStream.filter(predicate);
+        }
+        Spliterator<MBeans> source = beanStream.spliterator();
+        if (source.getExactSizeIfKnown() < this.parallelThreshold) {
+            return StreamSupport.stream(source, false).filter(predicate).onClose(beanStream::close);
+        }
+        return filterInChunks(source, predicate, workers).onClose(beanStream::close);
     }
 
     /**
@@ -46,14 +172,46 @@ public class FilterHandler implements IFilterHandler {
      * @return a sorted stream
      */
     public static Stream<MBeans> makeAndApplySingleFilter(List<MBeans> beans, List<String> filter) {
+        return makeAndApplySingleFilter(beans.stream(), filter);
+    }
+
+    /**
+     * used to filter a single instance of the filters above.
+     *
+     * The returned stream is lazy, nothing is buffered.
+     *
+     * @param beans stream of moviebeans
+     * @param filter the list of filter
+     * @return a sorted stream
+     */
+    public static Stream<MBeans> makeAndApplySingleFilter(Stream<MBeans> beans, List<String> filter) {
         if (filter == null || filter.size() < 3) {
             throw new IllegalArgumentException("makeAndApplySingleFilter - filter is null or incomplete");
         }
 
-        MovieData filterOn = MovieData.fromString(filter.get(0));
-        Operations op = Operations.getOperatorFromStr(filter.get(1));
-        String valueOfFilter = filter.get(2);
+        return beans.filter(FilterCompiler.compile(List.of(filter)));
+    }
+
+    /**
+     * Filter a source in chunks on the worker pool.
+     *
+     * @param source the movies to filter, of known size
+     * @param predicate the compiled filter
+     * @param workers the worker pool
+     * @return stream of the matches in source order
+     */
+    private static Stream<MBeans> filterInChunks(Spliterator<MBeans> source, Predicate<MBeans> predicate,
+                                                 ForkJoinPool workers) {
+        List<MBeans> movies = new ArrayList<>((int) source.getExactSizeIfKnown());
+        source.forEachRemaining(movies::add);
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, movies.size() / (workers.getParallelism() * CHUNKS_PER_THREAD) + 1);
 
-        return beans.stream().filter(bean -> FilterOperation.getFilter(bean, filterOn, op, valueOfFilter));
+        List<ForkJoinTask<List<MBeans>>> chunks = new ArrayList<>();
+        for (int from = 0; from < movies.size(); from += chunkSize) {
+            List<MBeans> chunk = movies.subList(from, Math.min(from + chunkSize, movies.size()));
+            chunks.add(workers.submit(() -> chunk.stream().filter(predicate).collect(Collectors.toList())));
+        }
+        // Join the chunks in order so the matches keep the source order
+        return chunks.stream().flatMap(task -> task.join().stream());
     }
 }
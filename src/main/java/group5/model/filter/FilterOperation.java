@@ -1,9 +1,11 @@
 package group5.model.filter;
 
 import java.util.List;
+import java.util.function.Predicate;
 
 import group5.model.MovieData;
 import group5.model.beans.MBeans;
+import group5.model.beans.SearchKeys;
 
 /**
  * the filter operations for the program.
@@ -26,58 +28,73 @@ public final class FilterOperation {
      * @return bool
      */
     public static boolean getFilter(MBeans movie, MovieData filterOn, Operations op, String val) {
+        return getFilter(filterOn, op, val).test(movie);
+    }
+
+    /**
+     * a filter on a catagory, to test many movies against.
+     *
+     * The search key of the value is computed once, not for every movie.
+     *
+     * @param filterOn
+     * @param op
+     * @param val
+     * @return the filter
+     */
+    public static Predicate<MBeans> getFilter(MovieData filterOn, Operations op, String val) {
+        String key = SearchKeys.normalize(val);
         switch (filterOn) {
             case TITLE:
-                return filterString(movie.getTitle(), op, val);
+                return movie -> filterString(movie.getTitleKey(), op, key);
             case RELEASED:
-                return filterInt(movie.getYear(), op, val);
+                return movie -> filterInt(movie.getYear(), op, val);
             case MPA:
-                return filterString(movie.getRated(), op, val);
+                return movie -> filterString(movie.getRatedKey(), op, key);
             case GENRE:
-                return filterList(movie.getGenre(), op, val);
+                return movie -> filterList(movie.getGenreKeys(), op, key);
             case RUNTIME:
-                return filterInt(movie.getRuntime(), op, val);
+                return movie -> filterInt(movie.getRuntime(), op, val);
             case DIRECTOR:
-                return filterList(movie.getDirector(), op, val);
+                return movie -> filterList(movie.getDirectorKeys(), op, key);
             case ACTOR:
-                return filterList(movie.getActors(), op, val);
+                return movie -> filterList(movie.getActorsKeys(), op, key);
             case LANGUAGE:
-                return filterList(movie.getLanguage(), op, val);
+                return movie -> filterList(movie.getLanguageKeys(), op, key);
             case IMDB:
-                return filterDouble(movie.getImdbRating(), op, val);
+                return movie -> filterDouble(movie.getImdbRating(), op, val);
             case USER:
-                return filterDouble(movie.getMyRating(), op, val);
+                return movie -> filterDouble(movie.getMyRating(), op, val);
             case HASWATCHED:
-                return filterBoolean(movie.getWatched(), op, val);
+                return movie -> filterBoolean(movie.getWatched(), op, val);
             case WRITER:
-                return filterList(movie.getWriter(), op, val);
+                return movie -> filterList(movie.getWriterKeys(), op, key);
             case BOXOFFICE:
-                return filterInt(movie.getBoxOffice(), op, val);
+                return movie -> filterInt(movie.getBoxOffice(), op, val);
 
             default:
-                return true;
+                return movie -> true;
         }
     }
 
     /**
-     * the filter operation for any cat with a a list.
+     * the filter operation for any cat with a a list, comparing search keys.
      *
-     * @param strList
+     * @param strList the search keys of the list
      * @param op
-     * @param val
+     * @param key the search key of the value
      * @return bool
      */
-    private static boolean filterList(List<String> strList, Operations op, String val) {
+    private static boolean filterList(List<String> strList, Operations op, String key) {
         boolean returnBool = false;
         for (int index = 0; index < strList.size(); index++) {
             switch (op) {
                 case CONTAINS:
-                    if (strList.get(index).toLowerCase().contains(val.toLowerCase())) {
+                    if (strList.get(index).contains(key)) {
                         returnBool = true;
                     }
                     break;
                 case EQUALS:
-                    if (strList.get(index).equalsIgnoreCase(val)) {
+                    if (strList.get(index).equals(key)) {
                         returnBool = true;
                     }
                     break;
@@ -90,19 +107,19 @@ public final class FilterOperation {
     }
 
     /**
-     * the filter operation for any cat with type string.
+     * the filter operation for any cat with type string, comparing search keys.
      *
-     * @param field
+     * @param field the search key of the field
      * @param op
-     * @param val
+     * @param key the search key of the value
      * @return bool
      */
-    private static boolean filterString(String field, Operations op, String val) {
+    private static boolean filterString(String field, Operations op, String key) {
         switch (op) {
             case EQUALS:
-                return field.equalsIgnoreCase(val);
+                return field.equals(key);
             case CONTAINS:
-                return field.toLowerCase().contains(val.toLowerCase());
+                return field.contains(key);
             default:
                 return false;
         }
@@ -18,4 +18,42 @@ public interface IFilterHandler {
      * @return A stream of board movies that match the filter.
      */
     Stream<MBeans> filter(List<List<String>> filter, Stream<MBeans> beanStream);
+
+    /**
+     * Filters the movies of an index, using its posting lists to narrow the
+     * movies scanned.
+     *
+     * @param filter the filter to apply.
+     * @param index the indexed movies to filter.
+     * @return the filtered stream, in index order.
+     */
+    Stream<MBeans> filter(List<List<String>> filter, MovieIndex index);
+
+    /**
+     * Filters the movies of an index, given an earlier result the filter is
+     * known to narrow, such as the result before more of a title was typed.
+     *
+     * @param filter the filter to apply.
+     * @param index the indexed movies to filter.
+     * @param previous an earlier result holding every match in index order,
+     *                 null if there is none.
+     * @return the filtered stream, in index order.
+     */
+    Stream<MBeans> filter(List<List<String>> filter, MovieIndex index, List<MBeans> previous);
+
+    /**
+     * Sets the number of threads used to filter large movie lists.
+     *
+     * Filtering is sequential by default. With more than one thread, large
+     * lists are filtered in parallel and the result keeps the list order.
+     *
+     * @param threads the number of worker threads, 1 to filter sequentially.
+     */
+    void setParallelism(int threads);
+
+    /**
+     * Stops the worker threads used to filter in parallel. Later filters run
+     * sequentially.
+     */
+    void close();
 }
@@ -0,0 +1,484 @@
+package group5.model.filter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+import group5.model.MovieData;
+import group5.model.beans.MBeans;
+import group5.model.beans.SearchKeys;
+
+/**
+ * Inverted indexes over the source list.
+ *
+ * Every movie gets a dense ordinal in the order it was added, and each index
+ * answers a filter with a bitmap of the ordinals that may match it. The
+ * GENRE, ACTOR, DIRECTOR, WRITER, LANGUAGE and MPA columns map the search
+ * key of each entry to the bitmap of movies holding it. The TITLE, ACTOR and
+ * DIRECTOR columns also have trigram indexes answering CONTAINS filters.
+ * RELEASED keeps a bitmap per year and per decade, the watched status a
+ * single bitmap, and the numeric columns have sorted indexes answering range
+ * filters and min/max queries. Column statistics for the QueryPlanner are
+ * built on demand and kept until the column changes. Movies are added
+ * incrementally and never removed.
+ */
+public class MovieIndex {
+
+    /** Columns indexed for EQUALS filters, and how to read their search keys. */
+    private static final Map<MovieData, Function<MBeans, List<String>>> COLUMNS = new EnumMap<>(MovieData.class);
+
+    static {
+        COLUMNS.put(MovieData.GENRE, MBeans::getGenreKeys);
+        COLUMNS.put(MovieData.ACTOR, MBeans::getActorsKeys);
+        COLUMNS.put(MovieData.DIRECTOR, MBeans::getDirectorKeys);
+        COLUMNS.put(MovieData.WRITER, MBeans::getWriterKeys);
+        COLUMNS.put(MovieData.LANGUAGE, MBeans::getLanguageKeys);
+        COLUMNS.put(MovieData.MPA, movie -> movie.getRatedKey() == null ? null : List.of(movie.getRatedKey()));
+    }
+
+    /** Columns with a trigram index, and how to read their search keys. */
+    private static final Map<MovieData, Function<MBeans, List<String>>> SUBSTRING_COLUMNS =
+            new EnumMap<>(MovieData.class);
+
+    static {
+        SUBSTRING_COLUMNS.put(MovieData.TITLE,
+                movie -> movie.getTitleKey() == null ? null : List.of(movie.getTitleKey()));
+        SUBSTRING_COLUMNS.put(MovieData.ACTOR, MBeans::getActorsKeys);
+        SUBSTRING_COLUMNS.put(MovieData.DIRECTOR, MBeans::getDirectorKeys);
+    }
+
+    /** Numeric columns with a sorted index, and how to read them. */
+    private static final Map<MovieData, ToDoubleFunction<MBeans>> NUMERIC_COLUMNS = new EnumMap<>(MovieData.class);
+
+    static {
+        NUMERIC_COLUMNS.put(MovieData.RELEASED, MBeans::getYear);
+        NUMERIC_COLUMNS.put(MovieData.RUNTIME, MBeans::getRuntime);
+        NUMERIC_COLUMNS.put(MovieData.BOXOFFICE, MBeans::getBoxOffice);
+        NUMERIC_COLUMNS.put(MovieData.IMDB, MBeans::getImdbRating);
+        NUMERIC_COLUMNS.put(MovieData.USER, MBeans::getMyRating);
+    }
+
+    /** Numeric columns holding ints, whose filter values are parsed as ints. */
+    private static final Set<MovieData> INT_COLUMNS = Set.of(MovieData.RELEASED, MovieData.RUNTIME,
+            MovieData.BOXOFFICE);
+
+    /** Number of years in a decade bucket. */
+    private static final int YEARS_PER_DECADE = 10;
+
+    /** Movies by ordinal. */
+    private final List<MBeans> movies = new ArrayList<>();
+
+    /** Ordinal of each movie, keyed by imdbID. */
+    private final Map<String, Integer> ordinals = new HashMap<>();
+
+    /** Bitmaps per EQUALS column, keyed by the search key of each entry. */
+    private final Map<MovieData, Map<String, OrdinalBitmap>> postings = new EnumMap<>(MovieData.class);
+
+    /** Bitmap of the movies released each year. */
+    private final NavigableMap<Integer, OrdinalBitmap> years = new TreeMap<>();
+
+    /** Bitmap of the movies released each decade, keyed by its first year. */
+    private final NavigableMap<Integer, OrdinalBitmap> decades = new TreeMap<>();
+
+    /** Bitmap of the watched movies. */
+    private final OrdinalBitmap watched = new OrdinalBitmap();
+
+    /** Trigram indexes per column. */
+    private final Map<MovieData, SubstringIndex> substrings = new EnumMap<>(MovieData.class);
+
+    /** Sorted indexes per numeric column. */
+    private final Map<MovieData, NumericIndex> numerics = new EnumMap<>(MovieData.class);
+
+    /** Statistics built since each column last changed. */
+    private final Map<MovieData, ColumnStatistics> statistics = new EnumMap<>(MovieData.class);
+
+    /**
+     * Create an empty index.
+     */
+    public MovieIndex() {
+        for (MovieData column : COLUMNS.keySet()) {
+            this.postings.put(column, new HashMap<>());
+        }
+        for (MovieData column : SUBSTRING_COLUMNS.keySet()) {
+            this.substrings.put(column, new SubstringIndex());
+        }
+        for (MovieData column : NUMERIC_COLUMNS.keySet()) {
+            this.numerics.put(column, new NumericIndex());
+        }
+    }
+
+    /**
+     * Create an index of movies, in order.
+     *
+     * @param movies the movies to index
+     */
+    public MovieIndex(Collection<MBeans> movies) {
+        this();
+        addAll(movies);
+    }
+
+    /**
+     * Add a movie to the end of the index.
+     *
+     * The caller makes sure the same movie is not added twice.
+     *
+     * @param movie the movie to add
+     */
+    public synchronized void add(MBeans movie) {
+        int ordinal = this.movies.size();
+        this.movies.add(movie);
+        if (movie.getID() != null) {
+            this.ordinals.put(movie.getID(), ordinal);
+        }
+        for (Map.Entry<MovieData, Function<MBeans, List<String>>> column : COLUMNS.entrySet()) {
+            List<String> entries = column.getValue().apply(movie);
+            if (entries == null) {
+                continue;
+            }
+            Map<String, OrdinalBitmap> bitmaps = this.postings.get(column.getKey());
+            for (String entry : entries) {
+                if (entry != null) {
+                    bitmaps.computeIfAbsent(entry, key -> new OrdinalBitmap()).add(ordinal);
+                }
+            }
+        }
+        this.years.computeIfAbsent(movie.getYear(), year -> new OrdinalBitmap()).add(ordinal);
+        this.decades.computeIfAbsent(decade(movie.getYear()), year -> new OrdinalBitmap()).add(ordinal);
+        if (movie.getWatched()) {
+            this.watched.add(ordinal);
+        }
+        for (Map.Entry<MovieData, Function<MBeans, List<String>>> column : SUBSTRING_COLUMNS.entrySet()) {
+            List<String> entries = column.getValue().apply(movie);
+            if (entries == null) {
+                continue;
+            }
+            SubstringIndex index = this.substrings.get(column.getKey());
+            for (String entry : entries) {
+                if (entry != null) {
+                    index.add(entry, ordinal);
+                }
+            }
+        }
+        for (Map.Entry<MovieData, ToDoubleFunction<MBeans>> column : NUMERIC_COLUMNS.entrySet()) {
+            this.numerics.get(column.getKey()).add(column.getValue().applyAsDouble(movie), ordinal);
+        }
+        this.statistics.clear();
+    }
+
+    /**
+     * Add movies to the end of the index, in order.
+     *
+     * @param movies the movies to add
+     */
+    public synchronized void addAll(Collection<MBeans> movies) {
+        for (MBeans movie : movies) {
+            add(movie);
+        }
+    }
+
+    /**
+     * Get the number of movies in the index.
+     *
+     * @return the size
+     */
+    public synchronized int size() {
+        return this.movies.size();
+    }
+
+    /**
+     * Get the ordinal of a movie.
+     *
+     * @param movie the movie, matched by imdbID
+     * @return the ordinal, -1 if the movie is not indexed
+     */
+    public synchronized int ordinal(MBeans movie) {
+        Integer ordinal = (movie == null || movie.getID() == null) ? null : this.ordinals.get(movie.getID());
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    /**
+     * Update the watched bitmap after the watched status of a movie changed.
+     *
+     * @param movie the movie, matched by imdbID
+     */
+    public synchronized void updateWatched(MBeans movie) {
+        int ordinal = ordinal(movie);
+        if (ordinal < 0) {
+            return;
+        }
+        if (movie.getWatched()) {
+            this.watched.add(ordinal);
+        } else {
+            this.watched.remove(ordinal);
+        }
+        this.statistics.remove(MovieData.HASWATCHED);
+    }
+
+    /**
+     * Update a numeric column after the value of one movie changed in place,
+     * such as a user rating.
+     *
+     * @param column the numeric column
+     * @param movie the movie, matched by imdbID
+     * @param previous the value of the movie before the change
+     */
+    public synchronized void updateNumeric(MovieData column, MBeans movie, double previous) {
+        ToDoubleFunction<MBeans> field = NUMERIC_COLUMNS.get(column);
+        int ordinal = ordinal(movie);
+        if (field == null || ordinal < 0) {
+            return;
+        }
+        this.numerics.get(column).update(ordinal, previous, field.applyAsDouble(movie));
+        this.statistics.remove(column);
+    }
+
+    /**
+     * Get the smallest and largest value of a numeric column.
+     *
+     * @param column the numeric column
+     * @return the {min, max} pair, null if the column is not indexed or the
+     *         index is empty
+     */
+    public synchronized double[] range(MovieData column) {
+        NumericIndex index = this.numerics.get(column);
+        return index == null ? null : index.range();
+    }
+
+    /**
+     * Get the statistics of a column.
+     *
+     * @param column the column
+     * @return the statistics, null if the column is not indexed
+     */
+    public synchronized ColumnStatistics statistics(MovieData column) {
+        ColumnStatistics columnStatistics = this.statistics.get(column);
+        if (columnStatistics == null) {
+            columnStatistics = buildStatistics(column);
+            if (columnStatistics != null) {
+                this.statistics.put(column, columnStatistics);
+            }
+        }
+        return columnStatistics;
+    }
+
+    /**
+     * Count the movies holding a value, from the EQUALS index of a column.
+     *
+     * @param column the column
+     * @param value the value, any case
+     * @return the exact count, -1 if the column has no EQUALS index
+     */
+    synchronized int frequency(MovieData column, String value) {
+        Map<String, OrdinalBitmap> bitmaps = this.postings.get(column);
+        if (bitmaps == null) {
+            return -1;
+        }
+        OrdinalBitmap bitmap = bitmaps.get(SearchKeys.normalize(value));
+        return bitmap == null ? 0 : bitmap.cardinality();
+    }
+
+    /**
+     * Estimate the movies a CONTAINS filter finds, from the trigram index of
+     * a column.
+     *
+     * @param column the column
+     * @param needle the string searched for, any case
+     * @return the estimated count, -1 if the trigram index does not apply
+     */
+    synchronized int containsEstimate(MovieData column, String needle) {
+        SubstringIndex index = this.substrings.get(column);
+        return index == null ? -1 : index.estimate(SearchKeys.normalize(needle));
+    }
+
+    /**
+     * Count the watched movies.
+     *
+     * @return the count
+     */
+    synchronized int watchedCount() {
+        return this.watched.cardinality();
+    }
+
+    /**
+     * Get the movies of a bitmap, in index order.
+     *
+     * @param ordinals the ordinals, null for every movie
+     * @return a snapshot of the movies
+     */
+    public synchronized List<MBeans> movies(OrdinalBitmap ordinals) {
+        if (ordinals == null) {
+            return Arrays.asList(this.movies.toArray(new MBeans[0]));
+        }
+        int[] selected = ordinals.toArray();
+        MBeans[] matches = new MBeans[selected.length];
+        for (int i = 0; i < selected.length; i++) {
+            matches[i] = this.movies.get(selected[i]);
+        }
+        return Arrays.asList(matches);
+    }
+
+    /**
+     * Look a filter up in the indexes.
+     *
+     * EQUALS filters on the list columns and MPA, CONTAINS filters of at least
+     * three chars on the trigram columns, comparisons on the numeric columns
+     * and the watched status are answered exactly. Whether a lookup is worth
+     * it is left to the QueryPlanner.
+     *
+     * @param filter the [column, operator, value] filter
+     * @return a new bitmap of the ordinals that may match, null if no index
+     *         applies
+     */
+    public synchronized OrdinalBitmap lookup(List<String> filter) {
+        if (filter == null || filter.size() < 3 || filter.get(2) == null) {
+            return null;
+        }
+        MovieData column = MovieData.fromString(filter.get(0));
+        Operations op = Operations.getOperatorFromStr(filter.get(1));
+        String value = filter.get(2);
+        if (op == Operations.EQUALS && this.postings.containsKey(column)) {
+            OrdinalBitmap bitmap = this.postings.get(column).get(SearchKeys.normalize(value));
+            return bitmap == null ? new OrdinalBitmap() : bitmap.copy();
+        }
+        if (op == Operations.CONTAINS && this.substrings.containsKey(column)) {
+            return this.substrings.get(column).search(SearchKeys.normalize(value));
+        }
+        if (column == MovieData.HASWATCHED) {
+            if (op != Operations.EQUALS) {
+                return null;
+            }
+            return Boolean.parseBoolean(value) ? this.watched.copy()
+                    : OrdinalBitmap.range(this.movies.size()).andNot(this.watched);
+        }
+        if (column == MovieData.RELEASED) {
+            return lookupYears(op, value);
+        }
+        if (this.numerics.containsKey(column)) {
+            return lookupRange(column, op, value);
+        }
+        return null;
+    }
+
+    /**
+     * Look a comparison on the year released up in the year bitmaps.
+     *
+     * @param op the operator
+     * @param value the filter value
+     * @return the ordinals that match, null if the index does not apply
+     */
+    private OrdinalBitmap lookupYears(Operations op, String value) {
+        int year;
+        try {
+            year = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        NavigableMap<Integer, OrdinalBitmap> matching;
+        switch (op) {
+            case EQUALS:
+                matching = this.years.subMap(year, true, year, true);
+                break;
+            case GREATERTHAN:
+                matching = this.years.tailMap(year, false);
+                break;
+            case GREATEROREQUAL:
+                matching = this.years.tailMap(year, true);
+                break;
+            case LESSTHAN:
+                matching = this.years.headMap(year, false);
+                break;
+            case LESSOREQUAL:
+                matching = this.years.headMap(year, true);
+                break;
+            default:
+                return null;
+        }
+        if (matching.isEmpty()) {
+            return new OrdinalBitmap();
+        }
+
+        // Whole decades come from their bucket, the years at either end one by one
+        int first = matching.firstKey();
+        int last = matching.lastKey();
+        List<OrdinalBitmap> parts = new ArrayList<>();
+        for (Map.Entry<Integer, OrdinalBitmap> decade
+                : this.decades.subMap(decade(first), true, decade(last), true).entrySet()) {
+            int from = decade.getKey();
+            int to = from + YEARS_PER_DECADE - 1;
+            if (from >= first && to <= last) {
+                parts.add(decade.getValue());
+            } else {
+                parts.addAll(matching.subMap(Math.max(from, first), true, Math.min(to, last), true).values());
+            }
+        }
+        return OrdinalBitmap.union(parts);
+    }
+
+    /**
+     * Get the first year of the decade of a year.
+     *
+     * @param year the year
+     * @return the first year of its decade
+     */
+    private static int decade(int year) {
+        return Math.floorDiv(year, YEARS_PER_DECADE) * YEARS_PER_DECADE;
+    }
+
+    /**
+     * Look a comparison on a numeric column up in its sorted index.
+     *
+     * @param column the numeric column
+     * @param op the operator
+     * @param value the filter value
+     * @return the ordinals that match, null if the index does not apply
+     */
+    private OrdinalBitmap lookupRange(MovieData column, Operations op, String value) {
+        double bound;
+        try {
+            bound = INT_COLUMNS.contains(column) ? Integer.parseInt(value) : Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return this.numerics.get(column).search(op, bound);
+    }
+
+    /**
+     * Build the statistics of a column from its index.
+     *
+     * @param column the column
+     * @return the statistics, null if the column is not indexed
+     */
+    private ColumnStatistics buildStatistics(MovieData column) {
+        int rows = this.movies.size();
+        if (this.numerics.containsKey(column)) {
+            return this.numerics.get(column).statistics(column, rows);
+        }
+        if (this.postings.containsKey(column)) {
+            Map<String, OrdinalBitmap> bitmaps = this.postings.get(column);
+            int values = 0;
+            for (OrdinalBitmap bitmap : bitmaps.values()) {
+                values += bitmap.cardinality();
+            }
+            return new ColumnStatistics(column, rows, values, bitmaps.size(), null);
+        }
+        if (this.substrings.containsKey(column)) {
+            SubstringIndex index = this.substrings.get(column);
+            return new ColumnStatistics(column, rows, index.entryCount(), index.keyCount(), null);
+        }
+        if (column == MovieData.HASWATCHED) {
+            int watchedMovies = this.watched.cardinality();
+            int distinct = (watchedMovies > 0 ? 1 : 0) + (watchedMovies < rows ? 1 : 0);
+            return new ColumnStatistics(column, rows, rows, distinct, null);
+        }
+        return null;
+    }
+}
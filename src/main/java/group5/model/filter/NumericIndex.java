@@ -0,0 +1,339 @@
+package group5.model.filter;
+
+import java.util.Arrays;
+
+import group5.model.MovieData;
+
+/**
+ * Sorted index of the values of a numeric column.
+ *
+ * Values are kept in a sorted primitive array next to the ordinals of the
+ * movies holding them, so a range filter is two binary searches giving a
+ * contiguous slice, and the minimum and maximum are the ends of the array.
+ * Added values wait in an unsorted buffer and are merged in on the next
+ * query. Equal values are kept in ordinal order, so the entry of one movie is
+ * found by binary search when its value changes. NaN never passes a
+ * comparison and is not indexed.
+ */
+final class NumericIndex {
+
+    /** Initial capacity of the arrays. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** Sorted values, only the first size are used. */
+    private double[] values = new double[INITIAL_CAPACITY];
+
+    /** Ordinal of the movie holding each sorted value. */
+    private int[] ordinals = new int[INITIAL_CAPACITY];
+
+    /** Number of sorted values. */
+    private int size;
+
+    /** Values added since the last merge. */
+    private double[] pendingValues = new double[INITIAL_CAPACITY];
+
+    /** Ordinals of the values added since the last merge. */
+    private int[] pendingOrdinals = new int[INITIAL_CAPACITY];
+
+    /** Number of values added since the last merge. */
+    private int pending;
+
+    /**
+     * Index the value of a movie.
+     *
+     * @param value the value
+     * @param ordinal ordinal of the movie
+     */
+    void add(double value, int ordinal) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (this.pending == this.pendingValues.length) {
+            this.pendingValues = Arrays.copyOf(this.pendingValues, this.pending * 2);
+            this.pendingOrdinals = Arrays.copyOf(this.pendingOrdinals, this.pending * 2);
+        }
+        this.pendingValues[this.pending] = value;
+        this.pendingOrdinals[this.pending++] = ordinal;
+    }
+
+    /**
+     * Move the value of a movie after it changed in place.
+     *
+     * The old entry is removed and the new one inserted at its sorted
+     * position, shifting only the entries in between instead of sorting the
+     * column again.
+     *
+     * @param ordinal ordinal of the movie
+     * @param previous the value the movie was indexed with
+     * @param value the new value
+     */
+    void update(int ordinal, double previous, double value) {
+        merge();
+        int from = Double.isNaN(previous) ? -1 : indexOf(previous, ordinal);
+        if (from >= 0) {
+            System.arraycopy(this.values, from + 1, this.values, from, this.size - from - 1);
+            System.arraycopy(this.ordinals, from + 1, this.ordinals, from, this.size - from - 1);
+            this.size--;
+        }
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (this.size == this.values.length) {
+            this.values = Arrays.copyOf(this.values, this.size * 2);
+            this.ordinals = Arrays.copyOf(this.ordinals, this.size * 2);
+        }
+        int to = position(value, ordinal);
+        System.arraycopy(this.values, to, this.values, to + 1, this.size - to);
+        System.arraycopy(this.ordinals, to, this.ordinals, to + 1, this.size - to);
+        this.values[to] = value;
+        this.ordinals[to] = ordinal;
+        this.size++;
+    }
+
+    /**
+     * Get the smallest and largest value.
+     *
+     * @return the {min, max} pair, null if nothing is indexed
+     */
+    double[] range() {
+        merge();
+        return this.size == 0 ? null : new double[] {this.values[0], this.values[this.size - 1]};
+    }
+
+    /**
+     * Summarise the values for the query planner.
+     *
+     * The histogram is equi-depth: bucket bounds are read from the sorted
+     * values at even steps, so every bucket holds the same number of values
+     * and common values fill whole buckets.
+     *
+     * @param column the column indexed
+     * @param rows number of movies in the index
+     * @return the statistics of the column
+     */
+    ColumnStatistics statistics(MovieData column, int rows) {
+        merge();
+        int distinct = 0;
+        for (int i = 0; i < this.size; i++) {
+            if (i == 0 || this.values[i] != this.values[i - 1]) {
+                distinct++;
+            }
+        }
+        double[] bounds = null;
+        if (this.size > 0) {
+            int buckets = Math.min(ColumnStatistics.BUCKETS, this.size);
+            bounds = new double[buckets + 1];
+            for (int i = 0; i < buckets; i++) {
+                bounds[i] = this.values[(int) ((long) i * this.size / buckets)];
+            }
+            bounds[buckets] = this.values[this.size - 1];
+        }
+        return new ColumnStatistics(column, rows, this.size, distinct, bounds);
+    }
+
+    /**
+     * Find the movies whose value passes a comparison.
+     *
+     * @param op the operator
+     * @param bound the value compared against
+     * @return the sorted movie ordinals, null if the operator is not a
+     *         comparison
+     */
+    OrdinalBitmap search(Operations op, double bound) {
+        merge();
+        int[] slice = slice(op, bound);
+        if (slice == null) {
+            return null;
+        }
+        int[] matches = Arrays.copyOfRange(this.ordinals, slice[0], slice[1]);
+        Arrays.sort(matches);
+        return OrdinalBitmap.of(matches);
+    }
+
+    /**
+     * Find the slice of the sorted values passing a comparison.
+     *
+     * @param op the operator
+     * @param bound the value compared against
+     * @return the {from, to} slice, to exclusive, null if the operator is not
+     *         a comparison
+     */
+    private int[] slice(Operations op, double bound) {
+        switch (op) {
+            case EQUALS:
+                return new int[] {firstNotBelow(bound), firstAbove(bound)};
+            case GREATERTHAN:
+                return new int[] {firstAbove(bound), this.size};
+            case GREATEROREQUAL:
+                return new int[] {firstNotBelow(bound), this.size};
+            case LESSTHAN:
+                return new int[] {0, firstNotBelow(bound)};
+            case LESSOREQUAL:
+                return new int[] {0, firstAbove(bound)};
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Find the first sorted value not below a bound.
+     *
+     * Compares with the primitive operators rather than Double.compare, so
+     * -0.0 and 0.0 are equal as they are to the filters.
+     *
+     * @param bound the bound
+     * @return index of the value, size if there is none
+     */
+    private int firstNotBelow(double bound) {
+        int low = 0;
+        int high = this.size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (this.values[mid] < bound) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Find the first sorted value above a bound.
+     *
+     * @param bound the bound
+     * @return index of the value, size if there is none
+     */
+    private int firstAbove(double bound) {
+        int low = 0;
+        int high = this.size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (this.values[mid] <= bound) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Find the sorted position of a value of a movie, after the equal values
+     * of movies with a lower ordinal.
+     *
+     * @param value the value
+     * @param ordinal ordinal of the movie
+     * @return index of the first entry after the position, size if there is
+     *         none
+     */
+    private int position(double value, int ordinal) {
+        int low = 0;
+        int high = this.size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (this.values[mid] < value || (this.values[mid] == value && this.ordinals[mid] < ordinal)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Find the entry of a movie.
+     *
+     * Falls back to scanning the equal values when they are not in ordinal
+     * order, as -0.0 and 0.0 are sorted apart but compare equal.
+     *
+     * @param value the value the movie is indexed with
+     * @param ordinal ordinal of the movie
+     * @return index of the entry, -1 if the movie is not indexed with the
+     *         value
+     */
+    private int indexOf(double value, int ordinal) {
+        int index = position(value, ordinal);
+        if (index < this.size && this.ordinals[index] == ordinal && this.values[index] == value) {
+            return index;
+        }
+        for (int i = firstNotBelow(value); i < this.size && this.values[i] <= value; i++) {
+            if (this.ordinals[i] == ordinal) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Sort the values added since the last merge into the sorted arrays.
+     */
+    private void merge() {
+        if (this.pending == 0) {
+            return;
+        }
+        sortPending();
+        double[] addedValues = this.pendingValues;
+        int[] addedOrdinals = this.pendingOrdinals;
+
+        double[] mergedValues = new double[Math.max(INITIAL_CAPACITY, this.size + this.pending)];
+        int[] mergedOrdinals = new int[mergedValues.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < this.size || j < this.pending) {
+            // Ties keep the older movies first, the sort is stable for the new ones
+            if (j == this.pending || (i < this.size && this.values[i] <= addedValues[j])) {
+                mergedValues[k] = this.values[i];
+                mergedOrdinals[k++] = this.ordinals[i++];
+            } else {
+                mergedValues[k] = addedValues[j];
+                mergedOrdinals[k++] = addedOrdinals[j++];
+            }
+        }
+        this.values = mergedValues;
+        this.ordinals = mergedOrdinals;
+        this.size = k;
+        this.pending = 0;
+        this.pendingValues = new double[INITIAL_CAPACITY];
+        this.pendingOrdinals = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Sort the values added since the last merge, with their ordinals.
+     *
+     * A bottom-up merge sort on the primitive arrays, stable so equal values
+     * stay in the order they were added, without boxing an index per value.
+     */
+    private void sortPending() {
+        double[] values = this.pendingValues;
+        int[] ordinals = this.pendingOrdinals;
+        double[] sortedValues = new double[values.length];
+        int[] sortedOrdinals = new int[ordinals.length];
+        for (int width = 1; width < this.pending; width *= 2) {
+            for (int from = 0; from < this.pending; from += 2 * width) {
+                int middle = Math.min(from + width, this.pending);
+                int to = Math.min(from + 2 * width, this.pending);
+                int i = from;
+                int j = middle;
+                for (int k = from; k < to; k++) {
+                    if (j == to || (i < middle && Double.compare(values[i], values[j]) <= 0)) {
+                        sortedValues[k] = values[i];
+                        sortedOrdinals[k] = ordinals[i++];
+                    } else {
+                        sortedValues[k] = values[j];
+                        sortedOrdinals[k] = ordinals[j++];
+                    }
+                }
+            }
+            double[] swapValues = values;
+            values = sortedValues;
+            sortedValues = swapValues;
+            int[] swapOrdinals = ordinals;
+            ordinals = sortedOrdinals;
+            sortedOrdinals = swapOrdinals;
+        }
+        this.pendingValues = values;
+        this.pendingOrdinals = ordinals;
+    }
+}
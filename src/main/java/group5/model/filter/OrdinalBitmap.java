@@ -0,0 +1,583 @@
+package group5.model.filter;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Compressed bitmap of movie ordinals.
+ *
+ * Ordinals are split on their high 16 bits into chunks of 65536. A chunk
+ * holding few ordinals stores their low 16 bits as a sorted char array, a
+ * fuller chunk stores a 65536 bit word array, and empty chunks are not
+ * stored, the layout of a roaring bitmap. AND, OR and AND NOT work chunk by
+ * chunk on words or merged arrays without looking at any movie. Not safe for
+ * concurrent use, copy a bitmap before handing it to another thread.
+ */
+public final class OrdinalBitmap {
+
+    /** Most ordinals a chunk holds as an array before switching to words. */
+    private static final int ARRAY_MAX = 4096;
+
+    /** Number of 64 bit words in a chunk of words. */
+    private static final int WORDS = 1024;
+
+    /** High 16 bits of each stored chunk, sorted. */
+    private char[] keys;
+
+    /** The chunks, each a char[] or a long[], in key order. */
+    private Object[] chunks;
+
+    /** Number of ordinals in each chunk. */
+    private int[] cardinalities;
+
+    /** Number of stored chunks. */
+    private int size;
+
+    /**
+     * Create an empty bitmap.
+     */
+    public OrdinalBitmap() {
+        this(new char[4], new Object[4], new int[4], 0);
+    }
+
+    /**
+     * OrdinalBitmap constructor.
+     *
+     * @param keys high bits of the chunks
+     * @param chunks the chunks
+     * @param cardinalities ordinals in each chunk
+     * @param size number of chunks used
+     */
+    private OrdinalBitmap(char[] keys, Object[] chunks, int[] cardinalities, int size) {
+        this.keys = keys;
+        this.chunks = chunks;
+        this.cardinalities = cardinalities;
+        this.size = size;
+    }
+
+    /**
+     * Create a bitmap of sorted ordinals.
+     *
+     * @param ordinals the sorted ordinals, duplicates allowed
+     * @return the bitmap
+     */
+    public static OrdinalBitmap of(int... ordinals) {
+        OrdinalBitmap bitmap = new OrdinalBitmap();
+        for (int ordinal : ordinals) {
+            bitmap.add(ordinal);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Create a bitmap of every ordinal below a bound.
+     *
+     * @param count the bound, exclusive
+     * @return the bitmap
+     */
+    public static OrdinalBitmap range(int count) {
+        OrdinalBitmap bitmap = new OrdinalBitmap();
+        for (int from = 0; from < count; from += 1 << 16) {
+            int length = Math.min(1 << 16, count - from);
+            if (length <= ARRAY_MAX) {
+                char[] values = new char[length];
+                for (int i = 0; i < length; i++) {
+                    values[i] = (char) i;
+                }
+                bitmap.append((char) (from >>> 16), values, length);
+            } else {
+                long[] words = new long[WORDS];
+                Arrays.fill(words, 0, length >>> 6, -1L);
+                if ((length & 63) != 0) {
+                    words[length >>> 6] = (1L << (length & 63)) - 1;
+                }
+                bitmap.append((char) (from >>> 16), words, length);
+            }
+        }
+        return bitmap;
+    }
+
+    /**
+     * Add an ordinal.
+     *
+     * Adding ordinals in increasing order only ever appends.
+     *
+     * @param ordinal the ordinal, not negative
+     */
+    public void add(int ordinal) {
+        char key = (char) (ordinal >>> 16);
+        char low = (char) ordinal;
+        int at = (this.size > 0 && this.keys[this.size - 1] == key) ? this.size - 1 : find(key);
+        if (at < 0) {
+            at = -at - 1;
+            insert(at, key, new char[4], 0);
+        }
+        Object chunk = this.chunks[at];
+        int cardinality = this.cardinalities[at];
+        if (chunk instanceof long[]) {
+            long[] words = (long[]) chunk;
+            long bit = 1L << low;
+            if ((words[low >>> 6] & bit) == 0) {
+                words[low >>> 6] |= bit;
+                this.cardinalities[at]++;
+            }
+            return;
+        }
+        char[] values = (char[]) chunk;
+        int position = (cardinality > 0 && values[cardinality - 1] < low)
+                ? -cardinality - 1 : Arrays.binarySearch(values, 0, cardinality, low);
+        if (position >= 0) {
+            return;
+        }
+        position = -position - 1;
+        if (cardinality == ARRAY_MAX) {
+            long[] words = toWords(values, cardinality);
+            words[low >>> 6] |= 1L << low;
+            this.chunks[at] = words;
+            this.cardinalities[at]++;
+            return;
+        }
+        if (cardinality == values.length) {
+            values = Arrays.copyOf(values, Math.min(ARRAY_MAX, cardinality * 2));
+            this.chunks[at] = values;
+        }
+        System.arraycopy(values, position, values, position + 1, cardinality - position);
+        values[position] = low;
+        this.cardinalities[at]++;
+    }
+
+    /**
+     * Remove an ordinal.
+     *
+     * @param ordinal the ordinal
+     */
+    public void remove(int ordinal) {
+        int at = find((char) (ordinal >>> 16));
+        if (at < 0) {
+            return;
+        }
+        char low = (char) ordinal;
+        Object chunk = this.chunks[at];
+        int cardinality = this.cardinalities[at];
+        if (chunk instanceof long[]) {
+            long[] words = (long[]) chunk;
+            long bit = 1L << low;
+            if ((words[low >>> 6] & bit) == 0) {
+                return;
+            }
+            words[low >>> 6] &= ~bit;
+            cardinality--;
+            if (cardinality <= ARRAY_MAX) {
+                this.chunks[at] = toValues(words, cardinality);
+            }
+        } else {
+            char[] values = (char[]) chunk;
+            int position = Arrays.binarySearch(values, 0, cardinality, low);
+            if (position < 0) {
+                return;
+            }
+            System.arraycopy(values, position + 1, values, position, cardinality - position - 1);
+            cardinality--;
+        }
+        this.cardinalities[at] = cardinality;
+        if (cardinality == 0) {
+            System.arraycopy(this.keys, at + 1, this.keys, at, this.size - at - 1);
+            System.arraycopy(this.chunks, at + 1, this.chunks, at, this.size - at - 1);
+            System.arraycopy(this.cardinalities, at + 1, this.cardinalities, at, this.size - at - 1);
+            this.chunks[--this.size] = null;
+        }
+    }
+
+    /**
+     * Check if an ordinal is in the bitmap.
+     *
+     * @param ordinal the ordinal
+     * @return true if it is
+     */
+    public boolean contains(int ordinal) {
+        int at = find((char) (ordinal >>> 16));
+        if (at < 0) {
+            return false;
+        }
+        char low = (char) ordinal;
+        Object chunk = this.chunks[at];
+        if (chunk instanceof long[]) {
+            return (((long[]) chunk)[low >>> 6] & (1L << low)) != 0;
+        }
+        return Arrays.binarySearch((char[]) chunk, 0, this.cardinalities[at], low) >= 0;
+    }
+
+    /**
+     * Count the ordinals in the bitmap.
+     *
+     * @return the count
+     */
+    public int cardinality() {
+        int count = 0;
+        for (int i = 0; i < this.size; i++) {
+            count += this.cardinalities[i];
+        }
+        return count;
+    }
+
+    /**
+     * Check if the bitmap holds no ordinal.
+     *
+     * @return true if it is empty
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Intersect with another bitmap.
+     *
+     * @param other the other bitmap
+     * @return a new bitmap of the ordinals in both
+     */
+    public OrdinalBitmap and(OrdinalBitmap other) {
+        OrdinalBitmap result = new OrdinalBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < this.size && j < other.size) {
+            if (this.keys[i] < other.keys[j]) {
+                i++;
+            } else if (this.keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                result.appendAnd(this.keys[i], this.chunks[i], this.cardinalities[i], other.chunks[j],
+                        other.cardinalities[j]);
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Unite with another bitmap.
+     *
+     * @param other the other bitmap
+     * @return a new bitmap of the ordinals in either
+     */
+    public OrdinalBitmap or(OrdinalBitmap other) {
+        OrdinalBitmap result = new OrdinalBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < this.size || j < other.size) {
+            if (j == other.size || (i < this.size && this.keys[i] < other.keys[j])) {
+                result.append(this.keys[i], copy(this.chunks[i], this.cardinalities[i]), this.cardinalities[i]);
+                i++;
+            } else if (i == this.size || this.keys[i] > other.keys[j]) {
+                result.append(other.keys[j], copy(other.chunks[j], other.cardinalities[j]), other.cardinalities[j]);
+                j++;
+            } else {
+                long[] words = words(this.chunks[i], this.cardinalities[i]);
+                orInto(words, other.chunks[j], other.cardinalities[j]);
+                result.appendWords(this.keys[i], words);
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Unite many bitmaps at once.
+     *
+     * Each chunk is gathered into a single array of words, which is cheaper
+     * than uniting the bitmaps two at a time.
+     *
+     * @param bitmaps the bitmaps
+     * @return a new bitmap of the ordinals in any of them
+     */
+    public static OrdinalBitmap union(Collection<OrdinalBitmap> bitmaps) {
+        int maxKey = -1;
+        for (OrdinalBitmap bitmap : bitmaps) {
+            if (bitmap.size > 0) {
+                maxKey = Math.max(maxKey, bitmap.keys[bitmap.size - 1]);
+            }
+        }
+        long[][] gathered = new long[maxKey + 1][];
+        for (OrdinalBitmap bitmap : bitmaps) {
+            for (int i = 0; i < bitmap.size; i++) {
+                char key = bitmap.keys[i];
+                if (gathered[key] == null) {
+                    gathered[key] = new long[WORDS];
+                }
+                orInto(gathered[key], bitmap.chunks[i], bitmap.cardinalities[i]);
+            }
+        }
+        OrdinalBitmap result = new OrdinalBitmap();
+        for (int key = 0; key <= maxKey; key++) {
+            if (gathered[key] != null) {
+                result.appendWords((char) key, gathered[key]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Remove the ordinals of another bitmap.
+     *
+     * @param other the other bitmap
+     * @return a new bitmap of the ordinals in this one only
+     */
+    public OrdinalBitmap andNot(OrdinalBitmap other) {
+        OrdinalBitmap result = new OrdinalBitmap();
+        int j = 0;
+        for (int i = 0; i < this.size; i++) {
+            while (j < other.size && other.keys[j] < this.keys[i]) {
+                j++;
+            }
+            if (j == other.size || other.keys[j] != this.keys[i]) {
+                result.append(this.keys[i], copy(this.chunks[i], this.cardinalities[i]), this.cardinalities[i]);
+                continue;
+            }
+            long[] words = words(this.chunks[i], this.cardinalities[i]);
+            long[] removed = words(other.chunks[j], other.cardinalities[j]);
+            for (int w = 0; w < WORDS; w++) {
+                words[w] &= ~removed[w];
+            }
+            result.appendWords(this.keys[i], words);
+        }
+        return result;
+    }
+
+    /**
+     * Copy the bitmap.
+     *
+     * @return an independent copy
+     */
+    public OrdinalBitmap copy() {
+        OrdinalBitmap result = new OrdinalBitmap(Arrays.copyOf(this.keys, Math.max(1, this.size)),
+                new Object[Math.max(1, this.size)], Arrays.copyOf(this.cardinalities, Math.max(1, this.size)),
+                this.size);
+        for (int i = 0; i < this.size; i++) {
+            result.chunks[i] = copy(this.chunks[i], this.cardinalities[i]);
+        }
+        return result;
+    }
+
+    /**
+     * List the ordinals in the bitmap.
+     *
+     * @return the sorted ordinals
+     */
+    public int[] toArray() {
+        int[] ordinals = new int[cardinality()];
+        int count = 0;
+        for (int i = 0; i < this.size; i++) {
+            int high = this.keys[i] << 16;
+            Object chunk = this.chunks[i];
+            if (chunk instanceof long[]) {
+                long[] words = (long[]) chunk;
+                for (int w = 0; w < WORDS; w++) {
+                    long word = words[w];
+                    while (word != 0) {
+                        ordinals[count++] = high | (w << 6) | Long.numberOfTrailingZeros(word);
+                        word &= word - 1;
+                    }
+                }
+            } else {
+                char[] values = (char[]) chunk;
+                for (int v = 0; v < this.cardinalities[i]; v++) {
+                    ordinals[count++] = high | values[v];
+                }
+            }
+        }
+        return ordinals;
+    }
+
+    /**
+     * Find the chunk of a key.
+     *
+     * @param key the high bits
+     * @return index of the chunk, or -(insertion point) - 1 if there is none
+     */
+    private int find(char key) {
+        return Arrays.binarySearch(this.keys, 0, this.size, key);
+    }
+
+    /**
+     * Insert a chunk.
+     *
+     * @param at index to insert at
+     * @param key high bits of the chunk
+     * @param chunk the chunk
+     * @param cardinality ordinals in the chunk
+     */
+    private void insert(int at, char key, Object chunk, int cardinality) {
+        if (this.size == this.keys.length) {
+            int capacity = Math.max(4, this.size * 2);
+            this.keys = Arrays.copyOf(this.keys, capacity);
+            this.chunks = Arrays.copyOf(this.chunks, capacity);
+            this.cardinalities = Arrays.copyOf(this.cardinalities, capacity);
+        }
+        System.arraycopy(this.keys, at, this.keys, at + 1, this.size - at);
+        System.arraycopy(this.chunks, at, this.chunks, at + 1, this.size - at);
+        System.arraycopy(this.cardinalities, at, this.cardinalities, at + 1, this.size - at);
+        this.keys[at] = key;
+        this.chunks[at] = chunk;
+        this.cardinalities[at] = cardinality;
+        this.size++;
+    }
+
+    /**
+     * Append a chunk after the last one, unless it is empty.
+     *
+     * @param key high bits of the chunk, above the last key
+     * @param chunk the chunk
+     * @param cardinality ordinals in the chunk
+     */
+    private void append(char key, Object chunk, int cardinality) {
+        if (cardinality > 0) {
+            insert(this.size, key, chunk, cardinality);
+        }
+    }
+
+    /**
+     * Append a chunk of words, stored as an array if it holds few ordinals.
+     *
+     * @param key high bits of the chunk, above the last key
+     * @param words the words
+     */
+    private void appendWords(char key, long[] words) {
+        int cardinality = 0;
+        for (long word : words) {
+            cardinality += Long.bitCount(word);
+        }
+        append(key, cardinality <= ARRAY_MAX ? toValues(words, cardinality) : words, cardinality);
+    }
+
+    /**
+     * Append the intersection of two chunks.
+     *
+     * @param key high bits of the chunks, above the last key
+     * @param left the first chunk
+     * @param leftCardinality ordinals in the first chunk
+     * @param right the second chunk
+     * @param rightCardinality ordinals in the second chunk
+     */
+    private void appendAnd(char key, Object left, int leftCardinality, Object right, int rightCardinality) {
+        if (left instanceof long[] && right instanceof long[]) {
+            long[] words = new long[WORDS];
+            for (int w = 0; w < WORDS; w++) {
+                words[w] = ((long[]) left)[w] & ((long[]) right)[w];
+            }
+            appendWords(key, words);
+            return;
+        }
+        if (left instanceof long[]) {
+            appendAnd(key, right, rightCardinality, left, leftCardinality);
+            return;
+        }
+        char[] values = (char[]) left;
+        char[] kept = new char[leftCardinality];
+        int count = 0;
+        if (right instanceof long[]) {
+            long[] words = (long[]) right;
+            for (int v = 0; v < leftCardinality; v++) {
+                if ((words[values[v] >>> 6] & (1L << values[v])) != 0) {
+                    kept[count++] = values[v];
+                }
+            }
+        } else {
+            char[] others = (char[]) right;
+            int o = 0;
+            for (int v = 0; v < leftCardinality && o < rightCardinality; v++) {
+                while (o < rightCardinality && others[o] < values[v]) {
+                    o++;
+                }
+                if (o < rightCardinality && others[o] == values[v]) {
+                    kept[count++] = values[v];
+                }
+            }
+        }
+        append(key, kept, count);
+    }
+
+    /**
+     * Copy a chunk.
+     *
+     * @param chunk the chunk
+     * @param cardinality ordinals in the chunk
+     * @return the copy
+     */
+    private static Object copy(Object chunk, int cardinality) {
+        if (chunk instanceof long[]) {
+            return ((long[]) chunk).clone();
+        }
+        return Arrays.copyOf((char[]) chunk, Math.max(1, cardinality));
+    }
+
+    /**
+     * Get a chunk as a fresh array of words.
+     *
+     * @param chunk the chunk
+     * @param cardinality ordinals in the chunk
+     * @return the words
+     */
+    private static long[] words(Object chunk, int cardinality) {
+        if (chunk instanceof long[]) {
+            return ((long[]) chunk).clone();
+        }
+        return toWords((char[]) chunk, cardinality);
+    }
+
+    /**
+     * Set the ordinals of a chunk in an array of words.
+     *
+     * @param words the words to update
+     * @param chunk the chunk
+     * @param cardinality ordinals in the chunk
+     */
+    private static void orInto(long[] words, Object chunk, int cardinality) {
+        if (chunk instanceof long[]) {
+            long[] others = (long[]) chunk;
+            for (int w = 0; w < WORDS; w++) {
+                words[w] |= others[w];
+            }
+        } else {
+            char[] values = (char[]) chunk;
+            for (int v = 0; v < cardinality; v++) {
+                words[values[v] >>> 6] |= 1L << values[v];
+            }
+        }
+    }
+
+    /**
+     * Convert an array chunk to words.
+     *
+     * @param values the sorted low bits
+     * @param cardinality number of values used
+     * @return the words
+     */
+    private static long[] toWords(char[] values, int cardinality) {
+        long[] words = new long[WORDS];
+        for (int v = 0; v < cardinality; v++) {
+            words[values[v] >>> 6] |= 1L << values[v];
+        }
+        return words;
+    }
+
+    /**
+     * Convert a chunk of words to an array.
+     *
+     * @param words the words
+     * @param cardinality number of bits set
+     * @return the sorted low bits
+     */
+    private static char[] toValues(long[] words, int cardinality) {
+        char[] values = new char[Math.max(1, cardinality)];
+        int count = 0;
+        for (int w = 0; w < WORDS; w++) {
+            long word = words[w];
+            while (word != 0) {
+                values[count++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,97 @@
+package group5.model.filter;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Sorted list of movie ordinals or key ids sharing an index key.
+ *
+ * Compact for the many short lists of the trigram indexes. Ordinals are
+ * handed out in increasing order, so appending keeps the list sorted without
+ * any extra work.
+ */
+final class PostingList {
+
+    /** Initial capacity of a new list. */
+    private static final int INITIAL_CAPACITY = 4;
+
+    /** The ordinals, sorted, only the first size are used. */
+    private int[] ordinals;
+
+    /** Number of ordinals in the list. */
+    private int size;
+
+    /**
+     * Create an empty list.
+     */
+    PostingList() {
+        this.ordinals = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Append an ordinal, ignoring it if it is already the last one.
+     *
+     * @param ordinal the ordinal, not smaller than the last one added
+     */
+    void add(int ordinal) {
+        if (this.size > 0 && this.ordinals[this.size - 1] == ordinal) {
+            return;
+        }
+        if (this.size == this.ordinals.length) {
+            this.ordinals = Arrays.copyOf(this.ordinals, Math.max(INITIAL_CAPACITY, this.size * 2));
+        }
+        this.ordinals[this.size++] = ordinal;
+    }
+
+    /**
+     * Get the number of ordinals in the list.
+     *
+     * @return the size
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Copy the ordinals out of the list.
+     *
+     * @return the sorted ordinals
+     */
+    int[] toArray() {
+        return Arrays.copyOf(this.ordinals, this.size);
+    }
+
+    /**
+     * Intersect posting lists.
+     *
+     * Starts from the shortest list and looks each remaining ordinal up in the
+     * longer lists with a binary search that only moves forward, so the cost
+     * follows the shortest list rather than the longest.
+     *
+     * @param lists the lists to intersect, at least one
+     * @return the sorted ordinals found in every list
+     */
+    static int[] intersect(List<PostingList> lists) {
+        PostingList[] sorted = lists.toArray(new PostingList[0]);
+        Arrays.sort(sorted, Comparator.comparingInt(PostingList::size));
+        int[] result = sorted[0].toArray();
+        int count = result.length;
+        for (int i = 1; i < sorted.length && count > 0; i++) {
+            PostingList other = sorted[i];
+            int kept = 0;
+            int from = 0;
+            for (int j = 0; j < count && from < other.size; j++) {
+                int found = Arrays.binarySearch(other.ordinals, from, other.size, result[j]);
+                if (found >= 0) {
+                    result[kept++] = result[j];
+                    from = found + 1;
+                } else {
+                    from = -found - 1;
+                }
+            }
+            count = kept;
+        }
+        return Arrays.copyOf(result, count);
+    }
+}
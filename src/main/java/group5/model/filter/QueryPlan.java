@@ -0,0 +1,266 @@
+package group5.model.filter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+
+import group5.model.beans.MBeans;
+
+/**
+ * Plan chosen by the QueryPlanner for a filter spec.
+ *
+ * Each filter becomes a step. INDEX steps are looked up in the index and
+ * intersected in plan order to give the candidates, then SCAN steps are
+ * tested on each candidate in plan order. explain() prints the plan with its
+ * estimates, for debugging slow queries.
+ */
+public final class QueryPlan {
+
+    /**
+     * How a filter is applied.
+     */
+    public enum Access {
+        /** Looked up in the index. */
+        INDEX,
+        /** Tested on each candidate movie. */
+        SCAN,
+        /** Matches every movie, so it is skipped. */
+        SKIP,
+        /** Matches no movie, so the whole plan is empty. */
+        EMPTY
+    }
+
+    /** The index the plan reads. */
+    private final MovieIndex index;
+
+    /** Number of movies in the index when the plan was made. */
+    private final int rows;
+
+    /** The steps, in the order they run. */
+    private final List<Step> steps;
+
+    /** Estimated cost of testing every filter on one movie. */
+    private final double scanCost;
+
+    /**
+     * QueryPlan constructor.
+     *
+     * @param index the index the plan reads
+     * @param rows number of movies in the index
+     * @param steps the steps, in the order they run
+     * @param scanCost estimated cost of testing every filter on one movie
+     */
+    QueryPlan(MovieIndex index, int rows, List<Step> steps, double scanCost) {
+        this.index = index;
+        this.rows = rows;
+        this.steps = Collections.unmodifiableList(new ArrayList<>(steps));
+        this.scanCost = scanCost;
+    }
+
+    /**
+     * Get the steps of the plan.
+     *
+     * @return the steps, in the order they run
+     */
+    public List<Step> getSteps() {
+        return this.steps;
+    }
+
+    /**
+     * Check whether a filter of the plan can never match.
+     *
+     * @return true if the plan matches no movie
+     */
+    public boolean isEmpty() {
+        return this.steps.stream().anyMatch(step -> step.access == Access.EMPTY);
+    }
+
+    /**
+     * Get the filters tested on each candidate.
+     *
+     * @return the SCAN filters, in the order they are tested
+     */
+    public List<List<String>> getScanned() {
+        List<List<String>> scanned = new ArrayList<>();
+        for (Step step : this.steps) {
+            if (step.access == Access.SCAN) {
+                scanned.add(step.filter);
+            }
+        }
+        return scanned;
+    }
+
+    /**
+     * Estimate the number of movies the plan matches.
+     *
+     * @return the estimate, assuming the filters are independent
+     */
+    public double getEstimatedRows() {
+        if (isEmpty()) {
+            return 0;
+        }
+        double estimate = this.rows;
+        for (Step step : this.steps) {
+            estimate *= step.selectivity;
+        }
+        return estimate;
+    }
+
+    /**
+     * Estimate the cost of running the plan.
+     *
+     * @return the cost, in per-movie filter tests
+     */
+    public double getCost() {
+        return this.steps.stream().mapToDouble(step -> step.cost).sum();
+    }
+
+    /**
+     * Estimate the cost of testing every filter on one movie instead, such as
+     * a movie of an earlier result being narrowed.
+     *
+     * @return the cost, in per-movie filter tests
+     */
+    public double getScanCost() {
+        return this.scanCost;
+    }
+
+    /**
+     * Run the INDEX steps.
+     *
+     * @return bitmap of the candidate ordinals, null if no step reads the
+     *         index
+     */
+    public OrdinalBitmap candidates() {
+        if (isEmpty()) {
+            return new OrdinalBitmap();
+        }
+        OrdinalBitmap result = null;
+        for (Step step : this.steps) {
+            if (step.access != Access.INDEX) {
+                continue;
+            }
+            OrdinalBitmap bitmap = this.index.lookup(step.filter);
+            if (bitmap == null) {
+                throw new IllegalStateException("candidates - no index answers " + step.filter);
+            }
+            result = result == null ? bitmap : result.and(bitmap);
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Compile the SCAN steps.
+     *
+     * @return predicate testing the SCAN filters in plan order
+     */
+    public Predicate<MBeans> predicate() {
+        return isEmpty() ? movie -> false : FilterCompiler.compileInOrder(getScanned());
+    }
+
+    /**
+     * Describe the plan, one line per step with its estimated matches and
+     * cost.
+     *
+     * @return the plan as text
+     */
+    public String explain() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format(Locale.ROOT, "plan over %d movies, about %.0f matches", this.rows,
+                getEstimatedRows())).append(System.lineSeparator());
+        for (Step step : this.steps) {
+            text.append(String.format(Locale.ROOT, "  %-5s %-32s", step.access, String.join(" ", step.filter)));
+            if (step.access == Access.INDEX || step.access == Access.SCAN) {
+                text.append(String.format(Locale.ROOT, " ~%.0f rows (%.2f%%), cost %.0f",
+                        step.selectivity * this.rows, step.selectivity * 100, step.cost));
+            }
+            text.append(System.lineSeparator());
+        }
+        return text.toString();
+    }
+
+    /**
+     * Describe the plan.
+     *
+     * @return the same text as explain()
+     */
+    @Override
+    public String toString() {
+        return explain();
+    }
+
+    /**
+     * A filter of the plan and how it is applied.
+     */
+    public static final class Step {
+
+        /** The [column, operator, value] filter. */
+        private final List<String> filter;
+
+        /** How the filter is applied. */
+        private final Access access;
+
+        /** Estimated share of all movies matching the filter on its own. */
+        private final double selectivity;
+
+        /** Estimated cost of the step, in per-movie filter tests. */
+        private final double cost;
+
+        /**
+         * Step constructor.
+         *
+         * @param filter the filter
+         * @param access how the filter is applied
+         * @param selectivity estimated share of the movies matching it
+         * @param cost estimated cost of the step
+         */
+        Step(List<String> filter, Access access, double selectivity, double cost) {
+            this.filter = filter;
+            this.access = access;
+            this.selectivity = selectivity;
+            this.cost = cost;
+        }
+
+        /**
+         * Get the filter of the step.
+         *
+         * @return the [column, operator, value] filter
+         */
+        public List<String> getFilter() {
+            return this.filter;
+        }
+
+        /**
+         * Get how the filter is applied.
+         *
+         * @return the access
+         */
+        public Access getAccess() {
+            return this.access;
+        }
+
+        /**
+         * Get the estimated share of all movies matching the filter on its
+         * own.
+         *
+         * @return the selectivity, between 0 and 1
+         */
+        public double getSelectivity() {
+            return this.selectivity;
+        }
+
+        /**
+         * Get the estimated cost of the step.
+         *
+         * @return the cost, in per-movie filter tests
+         */
+        public double getCost() {
+            return this.cost;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package group5.model.filter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import group5.model.MovieData;
+
+/**
+ * Chooses how to run a filter spec against a MovieIndex.
+ *
+ * The share of the movies each filter matches is estimated from exact index
+ * counts where the index keeps them for free, and from the column statistics
+ * otherwise. Filters are then taken most selective first. A filter is looked
+ * up in the index when reading its matches costs less than testing it on the
+ * candidates left by the lookups before it, otherwise it is tested on each
+ * candidate. Tested filters run in order of cost per movie rejected, so a
+ * rare director prunes the candidates before a broad year range is read.
+ */
+public final class QueryPlanner {
+
+    /** Share of the movies assumed to match a filter with no statistics. */
+    private static final double DEFAULT_SELECTIVITY = 0.1;
+
+    /** Cost per match of reading a bitmap index, which works on whole words. */
+    private static final double BITMAP_COST = 0.05;
+
+    /** Cost per match of a trigram search, which gathers and sorts ordinals. */
+    private static final double SUBSTRING_COST = 4;
+
+    /**
+     * Cost per match of a numeric range, which copies and sorts ordinals. On
+     * its own a range is read from its index up to a quarter of the movies.
+     */
+    private static final double NUMERIC_COST = 8;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private QueryPlanner() {
+        // empty
+    }
+
+    /**
+     * Plan a filter spec.
+     *
+     * @param filters list of [column, operator, value] filters, may be null
+     * @param index the indexed movies
+     * @return the plan
+     * @throws IllegalArgumentException if a filter is incomplete or names an
+     *                                  unknown column or operator
+     */
+    public static QueryPlan plan(List<List<String>> filters, MovieIndex index) {
+        int rows = index.size();
+        List<Estimate> estimates = new ArrayList<>();
+        List<QueryPlan.Step> skipped = new ArrayList<>();
+        if (filters != null) {
+            for (List<String> filter : filters) {
+                int scanCost = FilterCompiler.cost(filter);
+                if (scanCost == FilterCompiler.COST_ALWAYS) {
+                    skipped.add(new QueryPlan.Step(filter, QueryPlan.Access.SKIP, 1, 0));
+                } else if (scanCost == FilterCompiler.COST_NEVER) {
+                    skipped.add(new QueryPlan.Step(filter, QueryPlan.Access.EMPTY, 0, 0));
+                } else {
+                    estimates.add(estimate(filter, scanCost, index, rows));
+                }
+            }
+        }
+        // Cost per movie of testing every filter, cheapest per movie rejected first
+        estimates.sort(Comparator.comparingDouble(QueryPlanner::rank));
+        double scanCost = 0;
+        double reached = 1;
+        for (Estimate estimate : estimates) {
+            scanCost += reached * estimate.scanCost;
+            reached *= estimate.selectivity;
+        }
+        estimates.sort(Comparator.comparingDouble(estimate -> estimate.selectivity));
+
+        List<QueryPlan.Step> steps = new ArrayList<>();
+        List<Estimate> scanned = new ArrayList<>();
+        double candidates = rows;
+        for (Estimate estimate : estimates) {
+            double lookup = estimate.indexCost * estimate.selectivity * rows;
+            if (!Double.isNaN(estimate.indexCost) && lookup < candidates * estimate.scanCost) {
+                steps.add(new QueryPlan.Step(estimate.filter, QueryPlan.Access.INDEX, estimate.selectivity, lookup));
+                candidates *= estimate.selectivity;
+            } else {
+                scanned.add(estimate);
+            }
+        }
+        scanned.sort(Comparator.comparingDouble(QueryPlanner::rank));
+        for (Estimate estimate : scanned) {
+            steps.add(new QueryPlan.Step(estimate.filter, QueryPlan.Access.SCAN, estimate.selectivity,
+                    candidates * estimate.scanCost));
+            candidates *= estimate.selectivity;
+        }
+        steps.addAll(skipped);
+        return new QueryPlan(index, rows, steps, scanCost);
+    }
+
+    /**
+     * Estimate the share of the movies a filter matches, and whether the
+     * index can answer it.
+     *
+     * @param filter the [column, operator, value] filter
+     * @param scanCost cost of testing the filter on one movie
+     * @param index the indexed movies
+     * @param rows number of movies in the index
+     * @return the estimate
+     */
+    private static Estimate estimate(List<String> filter, int scanCost, MovieIndex index, int rows) {
+        MovieData column = MovieData.fromString(filter.get(0));
+        Operations op = Operations.getOperatorFromStr(filter.get(1));
+        String value = filter.get(2);
+        if (value == null || rows == 0) {
+            return new Estimate(filter, scanCost, 0, Double.NaN);
+        }
+
+        int count = op == Operations.EQUALS ? index.frequency(column, value) : -1;
+        if (count >= 0) {
+            return new Estimate(filter, scanCost, share(count, rows), BITMAP_COST);
+        }
+        count = op == Operations.CONTAINS ? index.containsEstimate(column, value) : -1;
+        if (count >= 0) {
+            return new Estimate(filter, scanCost, share(count, rows), SUBSTRING_COST);
+        }
+        if (column == MovieData.HASWATCHED) {
+            int watched = index.watchedCount();
+            count = Boolean.parseBoolean(value) ? watched : rows - watched;
+            return new Estimate(filter, scanCost, share(count, rows), BITMAP_COST);
+        }
+
+        ColumnStatistics statistics = index.statistics(column);
+        double selectivity = -1;
+        if (statistics != null && statistics.hasHistogram()) {
+            selectivity = statistics.selectivity(op, Double.parseDouble(value));
+        }
+        if (selectivity >= 0) {
+            // Year ranges are read from the year and decade bitmaps
+            return new Estimate(filter, scanCost, selectivity,
+                    column == MovieData.RELEASED ? BITMAP_COST : NUMERIC_COST);
+        }
+        if (statistics != null && op == Operations.EQUALS) {
+            return new Estimate(filter, scanCost, statistics.equalsSelectivity(), Double.NaN);
+        }
+        return new Estimate(filter, scanCost, DEFAULT_SELECTIVITY, Double.NaN);
+    }
+
+    /**
+     * Get the share of the movies a count is.
+     *
+     * @param count the count
+     * @param rows number of movies in the index
+     * @return the share, at most 1
+     */
+    private static double share(int count, int rows) {
+        return Math.min(1, (double) count / rows);
+    }
+
+    /**
+     * Rank a tested filter by its cost per movie rejected, lower runs first.
+     *
+     * @param estimate the estimate of the filter
+     * @return the rank
+     */
+    private static double rank(Estimate estimate) {
+        if (estimate.selectivity >= 1) {
+            return Double.MAX_VALUE;
+        }
+        return estimate.scanCost / (1 - estimate.selectivity);
+    }
+
+    /**
+     * Estimated selectivity and costs of a filter.
+     */
+    private static final class Estimate {
+
+        /** The [column, operator, value] filter. */
+        private final List<String> filter;
+
+        /** Cost of testing the filter on one movie. */
+        private final int scanCost;
+
+        /** Estimated share of the movies matching the filter. */
+        private final double selectivity;
+
+        /** Cost per match of an index lookup, NaN if no index applies. */
+        private final double indexCost;
+
+        /**
+         * Estimate constructor.
+         *
+         * @param filter the filter
+         * @param scanCost cost of testing the filter on one movie
+         * @param selectivity estimated share of the movies matching it
+         * @param indexCost cost per match of an index lookup, NaN if none
+         */
+        private Estimate(List<String> filter, int scanCost, double selectivity, double indexCost) {
+            this.filter = filter;
+            this.scanCost = scanCost;
+            this.selectivity = selectivity;
+            this.indexCost = indexCost;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package group5.model.filter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trigram index answering substring searches over the strings of a column.
+ *
+ * Each distinct search key of the column is stored once, with the posting
+ * list of movie ordinals holding it. Every trigram of a key maps to the keys
+ * containing it. A search intersects the keys of the trigrams of the needle,
+ * checks the surviving keys really contain it, and merges their movies.
+ * Callers pass search keys built by SearchKeys, the same ones the CONTAINS
+ * filter compares, so no match is missed.
+ */
+final class SubstringIndex {
+
+    /** Length of the grams indexed. */
+    private static final int GRAM = 3;
+
+    /** Distinct search keys, by key id. */
+    private final List<String> keys = new ArrayList<>();
+
+    /** Key id of each distinct search key. */
+    private final Map<String, Integer> keyIds = new HashMap<>();
+
+    /** Movie ordinals holding each key, by key id. */
+    private final List<PostingList> movies = new ArrayList<>();
+
+    /** Key ids containing each trigram, keyed by the packed trigram. */
+    private final Map<Long, PostingList> grams = new HashMap<>();
+
+    /** Number of distinct key and movie pairs indexed. */
+    private int entries;
+
+    /**
+     * Index a search key of a movie.
+     *
+     * @param key the search key
+     * @param ordinal ordinal of the movie, not smaller than the last one added
+     */
+    void add(String key, int ordinal) {
+        Integer id = this.keyIds.get(key);
+        if (id == null) {
+            id = this.keys.size();
+            this.keys.add(key);
+            this.keyIds.put(key, id);
+            this.movies.add(new PostingList());
+            for (int i = 0; i + GRAM <= key.length(); i++) {
+                this.grams.computeIfAbsent(gram(key, i), gram -> new PostingList()).add(id);
+            }
+        }
+        PostingList list = this.movies.get(id);
+        int before = list.size();
+        list.add(ordinal);
+        this.entries += list.size() - before;
+    }
+
+    /**
+     * Get the number of distinct strings indexed.
+     *
+     * @return the key count
+     */
+    int keyCount() {
+        return this.keys.size();
+    }
+
+    /**
+     * Get the number of distinct string and movie pairs indexed.
+     *
+     * @return the entry count
+     */
+    int entryCount() {
+        return this.entries;
+    }
+
+    /**
+     * Estimate how many movies a search would find, without running it.
+     *
+     * Takes the rarest trigram of the needle and assumes its keys hold an
+     * average number of movies each.
+     *
+     * @param needle the search key searched for
+     * @return the estimated number of movies, -1 if the needle is too short
+     *         to use the index
+     */
+    int estimate(String needle) {
+        if (needle.length() < GRAM) {
+            return -1;
+        }
+        int keys = this.keys.size();
+        for (int i = 0; i + GRAM <= needle.length(); i++) {
+            PostingList list = this.grams.get(gram(needle, i));
+            if (list == null) {
+                return 0;
+            }
+            keys = Math.min(keys, list.size());
+        }
+        return keys == 0 ? 0 : (int) ((long) keys * this.entries / this.keys.size());
+    }
+
+    /**
+     * Find the movies holding a string that contains a needle.
+     *
+     * @param needle the search key searched for
+     * @return the movie ordinals, null if the needle is too short to use the
+     *         index
+     */
+    OrdinalBitmap search(String needle) {
+        if (needle.length() < GRAM) {
+            return null;
+        }
+        List<PostingList> lists = new ArrayList<>();
+        for (int i = 0; i + GRAM <= needle.length(); i++) {
+            PostingList list = this.grams.get(gram(needle, i));
+            if (list == null) {
+                return new OrdinalBitmap();
+            }
+            lists.add(list);
+        }
+
+        // Trigrams can match out of order, keep only keys holding the whole needle
+        int[] ordinals = new int[0];
+        int count = 0;
+        for (int id : PostingList.intersect(lists)) {
+            if (!this.keys.get(id).contains(needle)) {
+                continue;
+            }
+            int[] matches = this.movies.get(id).toArray();
+            if (count + matches.length > ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, Math.max(2 * ordinals.length, count + matches.length));
+            }
+            System.arraycopy(matches, 0, ordinals, count, matches.length);
+            count += matches.length;
+        }
+        return OrdinalBitmap.of(sortedDistinct(ordinals, count));
+    }
+
+    /**
+     * Sort ordinals and drop duplicates.
+     *
+     * @param ordinals the ordinals, only the first count are used
+     * @param count number of ordinals
+     * @return the sorted distinct ordinals
+     */
+    private static int[] sortedDistinct(int[] ordinals, int count) {
+        Arrays.sort(ordinals, 0, count);
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            if (kept == 0 || ordinals[kept - 1] != ordinals[i]) {
+                ordinals[kept++] = ordinals[i];
+            }
+        }
+        return Arrays.copyOf(ordinals, kept);
+    }
+
+    /**
+     * Pack the trigram starting at an index into a long.
+     *
+     * @param text the string
+     * @param start index of the first char
+     * @return the packed trigram
+     */
+    private static long gram(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+}
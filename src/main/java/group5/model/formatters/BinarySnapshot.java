@@ -0,0 +1,606 @@
+package group5.model.formatters;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import group5.model.beans.MBeans;
+
+/**
+ * Compact binary snapshot of MBeans records.
+ *
+ * A snapshot holds a header, a string table and the records. Strings shared
+ * between records (type, MPA rating, genres, people, languages and countries)
+ * are stored once in the table and referenced by index, other strings are
+ * length-prefixed UTF-8. Numbers are stored as primitives and release dates as
+ * epoch days, so reading a record needs no text parsing.
+ *
+ * Each record starts with a fixed size block of its numeric fields followed by
+ * its strings in the order of the field constants below. The records are
+ * followed by the offset of each record and a trailer holding the offset of
+ * that index, so a record can be read in place without reading the others.
+ */
+final class BinarySnapshot {
+
+    /** First bytes of every snapshot, "MBSN", and last bytes of its trailer. */
+    static final int MAGIC = 0x4D42534E;
+
+    /** Version of the snapshot layout. */
+    static final int VERSION = 2;
+
+    /** Size of the trailer, the index offset and the magic number. */
+    static final int TRAILER_SIZE = Long.BYTES + Integer.BYTES;
+
+    /** Offset of the year in the fixed block. */
+    static final int YEAR = 0;
+
+    /** Offset of the release date epoch day in the fixed block. */
+    static final int RELEASED = 4;
+
+    /** Offset of the runtime in the fixed block. */
+    static final int RUNTIME = 8;
+
+    /** Offset of the metascore in the fixed block. */
+    static final int METASCORE = 12;
+
+    /** Offset of the imdb rating in the fixed block. */
+    static final int IMDB_RATING = 16;
+
+    /** Offset of the box office in the fixed block. */
+    static final int BOX_OFFICE = 24;
+
+    /** Offset of the watched flag in the fixed block. */
+    static final int WATCHED = 28;
+
+    /** Offset of the user rating in the fixed block. */
+    static final int MY_RATING = 29;
+
+    /** Size of the fixed block. */
+    static final int FIXED_SIZE = 37;
+
+    /** Position of the imdbID among the variable fields, a string. */
+    static final int ID = 0;
+
+    /** Position of the title among the variable fields, a string. */
+    static final int TITLE = 1;
+
+    /** Position of the type among the variable fields, a table reference. */
+    static final int TYPE = 2;
+
+    /** Position of the MPA rating among the variable fields, a table reference. */
+    static final int RATED = 3;
+
+    /** Position of the genres among the variable fields, a reference list. */
+    static final int GENRE = 4;
+
+    /** Position of the directors among the variable fields, a reference list. */
+    static final int DIRECTOR = 5;
+
+    /** Position of the writers among the variable fields, a reference list. */
+    static final int WRITER = 6;
+
+    /** Position of the actors among the variable fields, a reference list. */
+    static final int ACTORS = 7;
+
+    /** Position of the plot among the variable fields, a string. */
+    static final int PLOT = 8;
+
+    /** Position of the languages among the variable fields, a reference list. */
+    static final int LANGUAGE = 9;
+
+    /** Position of the countries among the variable fields, a reference list. */
+    static final int COUNTRY = 10;
+
+    /** Position of the awards among the variable fields, a string. */
+    static final int AWARDS = 11;
+
+    /** Position of the poster among the variable fields, a string. */
+    static final int POSTER = 12;
+
+    /** Stored in place of the epoch day of a missing release date. */
+    static final int NO_DATE = Integer.MIN_VALUE;
+
+    /** Size of the read and write buffers. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private BinarySnapshot() {
+        // empty
+    }
+
+    /**
+     * Write records as a snapshot.
+     *
+     * @param records the records to write
+     * @param out the output stream to write to
+     * @throws IOException if writing to the stream fails
+     */
+    static void write(Collection<MBeans> records, OutputStream out) throws IOException {
+        Map<String, Integer> table = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        for (MBeans record : records) {
+            intern(record.getType(), table, strings);
+            intern(record.getRated(), table, strings);
+            intern(record.getGenre(), table, strings);
+            intern(record.getDirector(), table, strings);
+            intern(record.getWriter(), table, strings);
+            intern(record.getActors(), table, strings);
+            intern(record.getLanguage(), table, strings);
+            intern(record.getCountry(), table, strings);
+        }
+
+        CountingOutputStream counter = new CountingOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+        DataOutputStream data = new DataOutputStream(counter);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        writeVarInt(data, strings.size());
+        for (String string : strings) {
+            writeString(data, string);
+        }
+        writeVarInt(data, records.size());
+        long[] offsets = new long[records.size()];
+        int i = 0;
+        for (MBeans record : records) {
+            offsets[i++] = counter.count;
+            data.writeInt(record.getYear());
+            data.writeInt(record.getReleased() == null ? NO_DATE : (int) record.getReleased().toEpochDay());
+            data.writeInt(record.getRuntime());
+            data.writeInt(record.getMetascore());
+            data.writeDouble(record.getImdbRating());
+            data.writeInt(record.getBoxOffice());
+            data.writeBoolean(record.getWatched());
+            data.writeDouble(record.getMyRating());
+            writeString(data, record.getID());
+            writeString(data, record.getTitle());
+            writeRef(data, record.getType(), table);
+            writeRef(data, record.getRated(), table);
+            writeRefs(data, record.getGenre(), table);
+            writeRefs(data, record.getDirector(), table);
+            writeRefs(data, record.getWriter(), table);
+            writeRefs(data, record.getActors(), table);
+            writeString(data, record.getPlot());
+            writeRefs(data, record.getLanguage(), table);
+            writeRefs(data, record.getCountry(), table);
+            writeString(data, record.getAwards());
+            writeString(data, record.getPoster());
+        }
+        long indexOffset = counter.count;
+        for (long offset : offsets) {
+            data.writeLong(offset);
+        }
+        data.writeLong(indexOffset);
+        data.writeInt(MAGIC);
+        data.flush();
+    }
+
+    /**
+     * Convert a stored epoch day back to a release date.
+     *
+     * @param epochDay the stored epoch day
+     * @return the release date, null if none was stored
+     */
+    static LocalDate toDate(int epochDay) {
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    /**
+     * Open a snapshot for reading.
+     *
+     * The header and string table are read immediately, records are read as
+     * the returned iterator advances. The stream is closed if the header is
+     * invalid.
+     *
+     * @param in the stream to read from
+     * @return iterator over the records of the snapshot
+     * @throws IOException if the stream is not a snapshot or cannot be read
+     */
+    static Records read(InputStream in) throws IOException {
+        try {
+            return new Records(in);
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Add a string to the string table.
+     *
+     * @param value the string, may be null
+     * @param table index of each string in the table
+     * @param strings the table in index order
+     */
+    private static void intern(String value, Map<String, Integer> table, List<String> strings) {
+        if (value != null && !table.containsKey(value)) {
+            table.put(value, strings.size());
+            strings.add(value);
+        }
+    }
+
+    /**
+     * Add the strings of a list to the string table.
+     *
+     * @param values the strings, may be null
+     * @param table index of each string in the table
+     * @param strings the table in index order
+     */
+    private static void intern(List<String> values, Map<String, Integer> table, List<String> strings) {
+        if (values != null) {
+            for (String value : values) {
+                intern(value, table, strings);
+            }
+        }
+    }
+
+    /**
+     * Write an unsigned variable length int, seven bits per byte.
+     *
+     * @param out the stream to write to
+     * @param value the value, not negative
+     * @throws IOException if writing fails
+     */
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    /**
+     * Write a length-prefixed UTF-8 string, the length is stored plus one so
+     * zero stands for null.
+     *
+     * @param out the stream to write to
+     * @param value the string, may be null
+     * @throws IOException if writing fails
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    /**
+     * Write the string table index of a string, plus one so zero stands for
+     * null.
+     *
+     * @param out the stream to write to
+     * @param value the string, may be null
+     * @param table index of each string in the table
+     * @throws IOException if writing fails
+     */
+    private static void writeRef(DataOutputStream out, String value, Map<String, Integer> table) throws IOException {
+        writeVarInt(out, value == null ? 0 : table.get(value) + 1);
+    }
+
+    /**
+     * Write a list of strings as its size plus one followed by the string
+     * table index of each string.
+     *
+     * @param out the stream to write to
+     * @param values the strings, may be null
+     * @param table index of each string in the table
+     * @throws IOException if writing fails
+     */
+    private static void writeRefs(DataOutputStream out, List<String> values, Map<String, Integer> table)
+            throws IOException {
+        if (values == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        writeVarInt(out, values.size() + 1);
+        for (String value : values) {
+            writeRef(out, value, table);
+        }
+    }
+
+    /**
+     * Output stream counting the bytes written through it.
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        /** Number of bytes written so far. */
+        private long count;
+
+        /**
+         * Counting stream constructor.
+         *
+         * @param out the stream to write to
+         */
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            this.out.write(b);
+            this.count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            this.out.write(b, off, len);
+            this.count += len;
+        }
+    }
+
+    /**
+     * Records of an open snapshot, read one at a time.
+     *
+     * Strings from the table are shared between the records read. Errors while
+     * reading a record are thrown as UncheckedIOException.
+     */
+    static final class Records implements Iterator<MBeans>, Closeable {
+
+        /** The stream being read. */
+        private final InputStream in;
+
+        /** Read buffer. */
+        private byte[] buffer = new byte[BUFFER_SIZE];
+
+        /** Position of the next unread byte in the buffer. */
+        private int position;
+
+        /** End of the valid bytes in the buffer. */
+        private int limit;
+
+        /** The string table. */
+        private final String[] table;
+
+        /** Number of records in the snapshot. */
+        private final int count;
+
+        /** Number of records read so far. */
+        private int read;
+
+        /**
+         * Read the header and the string table.
+         *
+         * @param in the stream to read from
+         * @throws IOException if the stream is not a snapshot or cannot be read
+         */
+        private Records(InputStream in) throws IOException {
+            this.in = in;
+            if (readInt() != MAGIC) {
+                throw new IOException("Not a binary snapshot");
+            }
+            int version = readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+            this.table = new String[readVarInt()];
+            for (int i = 0; i < this.table.length; i++) {
+                this.table[i] = readString();
+            }
+            this.count = readVarInt();
+        }
+
+        /**
+         * Get the number of records in the snapshot.
+         *
+         * @return the record count
+         */
+        int count() {
+            return this.count;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.read < this.count;
+        }
+
+        @Override
+        public MBeans next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            try {
+                MBeans record = readRecord();
+                this.read++;
+                return record;
+            } catch (IOException e) {
+                throw new UncheckedIOException(new IOException("Error reading snapshot record "
+                        + (this.read + 1), e));
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.in.close();
+        }
+
+        /**
+         * Read the next record.
+         *
+         * @return the record
+         * @throws IOException if the record is truncated or invalid
+         */
+        private MBeans readRecord() throws IOException {
+            int year = readInt();
+            LocalDate released = toDate(readInt());
+            int runtime = readInt();
+            int metascore = readInt();
+            double imdbRating = Double.longBitsToDouble(readLong());
+            int boxOffice = readInt();
+            boolean watched = readByte() != 0;
+            double myRating = Double.longBitsToDouble(readLong());
+            String id = readString();
+            String title = readString();
+            String type = readRef();
+            String rated = readRef();
+            List<String> genre = readRefs();
+            List<String> director = readRefs();
+            List<String> writer = readRefs();
+            List<String> actors = readRefs();
+            String plot = readString();
+            List<String> language = readRefs();
+            List<String> country = readRefs();
+            String awards = readString();
+            String poster = readString();
+            if (id == null) {
+                throw new IOException("Record has no imdbID");
+            }
+            return new MBeans(title, year, type, rated, released, runtime, genre, director, writer, actors, plot,
+                    language, country, awards, poster, metascore, imdbRating, boxOffice, id, watched, myRating);
+        }
+
+        /**
+         * Make sure the buffer holds at least the given number of bytes.
+         *
+         * @param bytes number of bytes needed
+         * @throws IOException if the stream ends first
+         */
+        private void require(int bytes) throws IOException {
+            if (this.limit - this.position >= bytes) {
+                return;
+            }
+            int remaining = this.limit - this.position;
+            if (bytes > this.buffer.length) {
+                this.buffer = Arrays.copyOfRange(this.buffer, this.position, this.position + Math.max(bytes,
+                        this.buffer.length * 2));
+            } else {
+                System.arraycopy(this.buffer, this.position, this.buffer, 0, remaining);
+            }
+            this.position = 0;
+            this.limit = remaining;
+            while (this.limit < bytes) {
+                int n = this.in.read(this.buffer, this.limit, this.buffer.length - this.limit);
+                if (n < 0) {
+                    throw new EOFException("Snapshot is truncated");
+                }
+                this.limit += n;
+            }
+        }
+
+        /**
+         * Read a single byte.
+         *
+         * @return the byte
+         * @throws IOException if the stream ends
+         */
+        private int readByte() throws IOException {
+            require(1);
+            return this.buffer[this.position++];
+        }
+
+        /**
+         * Read a big-endian int.
+         *
+         * @return the int
+         * @throws IOException if the stream ends
+         */
+        private int readInt() throws IOException {
+            require(Integer.BYTES);
+            byte[] b = this.buffer;
+            int p = this.position;
+            this.position += Integer.BYTES;
+            return (b[p] & 0xFF) << 24 | (b[p + 1] & 0xFF) << 16 | (b[p + 2] & 0xFF) << 8 | (b[p + 3] & 0xFF);
+        }
+
+        /**
+         * Read a big-endian long.
+         *
+         * @return the long
+         * @throws IOException if the stream ends
+         */
+        private long readLong() throws IOException {
+            require(Long.BYTES);
+            long high = readInt();
+            long low = readInt() & 0xFFFFFFFFL;
+            return high << 32 | low;
+        }
+
+        /**
+         * Read an unsigned variable length int.
+         *
+         * @return the int
+         * @throws IOException if the stream ends or the value is too long
+         */
+        private int readVarInt() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = readByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Invalid variable length int");
+        }
+
+        /**
+         * Read a length-prefixed UTF-8 string.
+         *
+         * @return the string, null if none was stored
+         * @throws IOException if the stream ends
+         */
+        private String readString() throws IOException {
+            int length = readVarInt() - 1;
+            if (length < 0) {
+                return null;
+            }
+            require(length);
+            String value = new String(this.buffer, this.position, length, StandardCharsets.UTF_8);
+            this.position += length;
+            return value;
+        }
+
+        /**
+         * Read a string from the string table.
+         *
+         * @return the string, null if none was stored
+         * @throws IOException if the stream ends or the index is invalid
+         */
+        private String readRef() throws IOException {
+            int index = readVarInt() - 1;
+            if (index < 0) {
+                return null;
+            }
+            if (index >= this.table.length) {
+                throw new IOException("Invalid string table index " + index);
+            }
+            return this.table[index];
+        }
+
+        /**
+         * Read a list of strings from the string table.
+         *
+         * @return the list, null if none was stored
+         * @throws IOException if the stream ends or an index is invalid
+         */
+        private List<String> readRefs() throws IOException {
+            int size = readVarInt() - 1;
+            if (size < 0) {
+                return null;
+            }
+            String[] values = new String[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = readRef();
+            }
+            return Arrays.asList(values);
+        }
+    }
+}
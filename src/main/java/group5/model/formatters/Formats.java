@@ -3,7 +3,10 @@ package group5.model.formatters;
 /** A list of format types allowed for export and import. */
 public enum Formats {
     /** Different formatting options. */
-    JSON, XML, CSV, PRETTY;
+    JSON, XML, CSV, PRETTY, BINARY;
+
+    /** Extension added to the name of a gzip compressed file. */
+    public static final String GZIP_EXTENSION = ".gz";
 
     /**
      * Helper function to check if a value is in the list of formats.
@@ -15,6 +18,9 @@ public enum Formats {
         if (value.equalsIgnoreCase("txt")) {
             return Formats.PRETTY;
         }
+        if (value.equalsIgnoreCase("bin")) {
+            return Formats.BINARY;
+        }
         for (Formats format : Formats.values()) {
             if (format.toString().equalsIgnoreCase(value)) {
                 return format;
@@ -22,4 +28,37 @@ public enum Formats {
         }
         return null;
     }
+
+    /**
+     * Check if a file is gzip compressed, from its name.
+     *
+     * @param filename the file name
+     * @return true if the name ends with .gz
+     */
+    public static boolean isCompressed(String filename) {
+        return filename.regionMatches(true, filename.length() - GZIP_EXTENSION.length(), GZIP_EXTENSION, 0,
+                GZIP_EXTENSION.length());
+    }
+
+    /**
+     * Strip the .gz extension of a compressed file name.
+     *
+     * @param filename the file name
+     * @return the name without .gz, the name itself if it is not compressed
+     */
+    public static String stripCompression(String filename) {
+        return isCompressed(filename) ? filename.substring(0, filename.length() - GZIP_EXTENSION.length()) : filename;
+    }
+
+    /**
+     * Get the format of a file from the extension of its name, such as
+     * list.csv or list.csv.gz.
+     *
+     * @param filename the file name
+     * @return the format if found, null otherwise
+     */
+    public static Formats fromFilename(String filename) {
+        String name = stripCompression(filename);
+        return containsValues(name.substring(name.lastIndexOf('.') + 1));
+    }
 }
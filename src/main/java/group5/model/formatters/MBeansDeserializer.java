@@ -1,6 +1,8 @@
 package group5.model.formatters;
 
+import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
 
@@ -8,13 +10,39 @@ import java.io.IOException;
 import java.util.List;
 import java.util.Arrays;
 import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
 import java.time.format.DateTimeFormatter;
 
 /**
  * Custom Deserializer class for deserializaing data to MBeans fields.
+ *
+ * Numbers, runtimes, box office values and dates are parsed straight from the
+ * characters of the current token, without building a String of the value.
+ * Values in any other shape fall back to parsing the String, so they are read
+ * or rejected the same way as before.
  */
 public class MBeansDeserializer {
 
+    /** Value of a field that is not available. */
+    private static final char[] NOT_AVAILABLE = "N/A".toCharArray();
+
+    /** Format of release dates. */
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd MMM yyyy");
+
+    /** Month abbreviations of release dates, in month order. */
+    private static final String MONTHS = "JanFebMarAprMayJunJulAugSepOctNovDec";
+
+    /** Result of parseInt when the characters are not a plain int. */
+    private static final long NOT_AN_INT = Long.MIN_VALUE;
+
+    /** Largest mantissa parseDecimal reads, every long up to it is an exact double. */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    /** Powers of ten that are exact doubles, by exponent. */
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
     /** Nested static class for Deserializing Integer. */
     public static class IntDeserializer extends JsonDeserializer<Integer> {
 
@@ -28,6 +56,21 @@ public class MBeansDeserializer {
          */
         @Override
         public Integer deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.hasToken(JsonToken.VALUE_NUMBER_INT) && p.getNumberType() == JsonParser.NumberType.INT) {
+                return p.getIntValue();
+            }
+            if (p.hasToken(JsonToken.VALUE_STRING)) {
+                char[] text = p.getTextCharacters();
+                int start = p.getTextOffset();
+                int end = start + p.getTextLength();
+                if (isNotAvailable(text, start, end)) {
+                    return -1;
+                }
+                long value = parseInt(text, start, end, false);
+                if (value != NOT_AN_INT) {
+                    return (int) value;
+                }
+            }
             String intString = p.getValueAsString(); // Get the value as a string
             if (intString.equals("N/A")) {
                 return -1;
@@ -50,6 +93,21 @@ public class MBeansDeserializer {
          */
         @Override
         public Double deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.hasToken(JsonToken.VALUE_NUMBER_FLOAT) || p.hasToken(JsonToken.VALUE_NUMBER_INT)) {
+                return p.getDoubleValue();
+            }
+            if (p.hasToken(JsonToken.VALUE_STRING)) {
+                char[] text = p.getTextCharacters();
+                int start = p.getTextOffset();
+                int end = start + p.getTextLength();
+                if (isNotAvailable(text, start, end)) {
+                    return -1.0;
+                }
+                double value = parseDecimal(text, start, end);
+                if (!Double.isNaN(value)) {
+                    return value;
+                }
+            }
             String doubleString = p.getValueAsString(); // Get the value as a string
             if (doubleString.equals("N/A")) {
                 return -1.0;
@@ -72,15 +130,26 @@ public class MBeansDeserializer {
          */
         @Override
         public LocalDate deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.hasToken(JsonToken.VALUE_STRING)) {
+                char[] text = p.getTextCharacters();
+                int start = p.getTextOffset();
+                int end = start + p.getTextLength();
+                if (isNotAvailable(text, start, end)) {
+                    return null;
+                }
+                LocalDate date = parseDate(text, start, end);
+                if (date != null) {
+                    return date;
+                }
+            }
             String dateString = p.getValueAsString(); // Get the value as a string
             if (dateString.equals("N/A")) {
                 return null;
             } else {
                 try {
-                    DateTimeFormatter format = DateTimeFormatter.ofPattern("dd MMM yyyy");
-                    return LocalDate.parse(dateString, format); // Parse to Date
+                    return LocalDate.parse(dateString, DATE_FORMAT); // Parse to Date
                 } catch (Exception e) {
-                    throw new IOException("Error parsing date value: " + dateString, e);
+                    throw new JsonParseException(p, "Error parsing date value: " + dateString, e);
                 }
             }
         }
@@ -99,6 +168,23 @@ public class MBeansDeserializer {
          */
         @Override
         public Integer deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.hasToken(JsonToken.VALUE_STRING)) {
+                char[] text = p.getTextCharacters();
+                int start = p.getTextOffset();
+                int end = start + p.getTextLength();
+                if (isNotAvailable(text, start, end)) {
+                    return -1;
+                }
+                // The minutes end at the first space, as in "142 min"
+                int space = start;
+                while (space < end && text[space] != ' ') {
+                    space++;
+                }
+                long minutes = parseInt(text, start, space, false);
+                if (minutes != NOT_AN_INT) {
+                    return (int) minutes;
+                }
+            }
             String minutesString = p.getValueAsString(); // Get the value as a string
             if (minutesString.equals("N/A")) {
                 return -1;
@@ -109,21 +195,84 @@ public class MBeansDeserializer {
         }
     }
 
+    /** Nested static class for Deserializing a repeated String value. */
+    public static class StringDeserializer extends JsonDeserializer<String> {
+
+        /**
+         * {@inheritDoc}
+         *
+         * Deserialize read string value to its canonical instance in the
+         * StringDictionary.
+         *
+         * @return canonical String of the read value
+         */
+        @Override
+        public String deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            return StringDictionary.canonical(p.getValueAsString());
+        }
+    }
+
     /** Nested static class for Deserializing List of values. */
     public static class StringListDeserializer extends JsonDeserializer<List<String>> {
 
         /**
          * {@inheritDoc}
          *
-         * Deserialize read string value to List of Strings.
+         * Deserialize read string value to an immutable List of Strings,
+         * split the way String.split(", ") would. Each value is the canonical
+         * instance in the StringDictionary.
          *
          * @return List of Strings from a list of values read
          */
         @Override
         public List<String> deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
-            String genreString = p.getValueAsString(); // Get the value as a string
-            List<String> genreArray = Arrays.asList(genreString.split(", ")); // Split to Array
-            return genreArray;
+            char[] text;
+            int start;
+            int end;
+            if (p.hasToken(JsonToken.VALUE_STRING)) {
+                text = p.getTextCharacters();
+                start = p.getTextOffset();
+                end = start + p.getTextLength();
+            } else {
+                text = p.getValueAsString().toCharArray(); // Get the value as a string
+                start = 0;
+                end = text.length;
+            }
+            int count = 1;
+            for (int i = start; i < end - 1; i++) {
+                if (isSeparator(text, i)) {
+                    count++;
+                    i++;
+                }
+            }
+            String[] values = new String[count];
+            int valueStart = start;
+            int value = 0;
+            for (int i = start; i < end - 1; i++) {
+                if (isSeparator(text, i)) {
+                    values[value++] = StringDictionary.canonical(new String(text, valueStart, i - valueStart));
+                    valueStart = i + 2;
+                    i++;
+                }
+            }
+            values[value] = StringDictionary.canonical(new String(text, valueStart, end - valueStart));
+            // Trailing empty values are dropped, as by String.split
+            int size = count;
+            while (count > 1 && size > 0 && values[size - 1].isEmpty()) {
+                size--;
+            }
+            return List.of(size == count ? values : Arrays.copyOf(values, size));
+        }
+
+        /**
+         * Check whether a ", " separator starts at a character.
+         *
+         * @param text the characters
+         * @param i offset of the character, before the last one
+         * @return true if a separator starts there
+         */
+        private static boolean isSeparator(char[] text, int i) {
+            return text[i] == ',' && text[i + 1] == ' ';
         }
     }
 
@@ -140,6 +289,18 @@ public class MBeansDeserializer {
          */
         @Override
         public Integer deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.hasToken(JsonToken.VALUE_STRING)) {
+                char[] text = p.getTextCharacters();
+                int start = p.getTextOffset();
+                int end = start + p.getTextLength();
+                if (isNotAvailable(text, start, end)) {
+                    return -1;
+                }
+                long value = parseInt(text, start, end, true);
+                if (value != NOT_AN_INT) {
+                    return (int) value;
+                }
+            }
             String boxOfficeString = p.getValueAsString(); // Get the value as a string
             if (boxOfficeString.equals("N/A")) {
                 return -1;
@@ -149,4 +310,121 @@ public class MBeansDeserializer {
             return boxOffice;
         }
     }
+
+    /**
+     * Check whether characters of a token are "N/A".
+     *
+     * @param text the characters
+     * @param start offset of the first character
+     * @param end offset after the last character
+     * @return true if the value is not available
+     */
+    private static boolean isNotAvailable(char[] text, int start, int end) {
+        return Arrays.equals(text, start, end, NOT_AVAILABLE, 0, NOT_AVAILABLE.length);
+    }
+
+    /**
+     * Parse characters of a token as an int, the way Integer.parseInt does.
+     *
+     * @param text the characters
+     * @param start offset of the first character
+     * @param end offset after the last character
+     * @param money true to skip the '$' and ',' of an amount such as
+     *              "$85,892,546"
+     * @return the int, NOT_AN_INT if the characters are not a plain int in
+     *         range, left to the String parsing to read or reject
+     */
+    private static long parseInt(char[] text, int start, int end, boolean money) {
+        boolean negative = false;
+        boolean digits = false;
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            char c = text[i];
+            if (c >= '0' && c <= '9') {
+                value = 10 * value + (c - '0');
+                digits = true;
+                if (value > (long) Integer.MAX_VALUE + 1) {
+                    return NOT_AN_INT;
+                }
+            } else if (money && (c == '$' || c == ',')) {
+                continue;
+            } else if (c == '-' && !digits && !negative && (i == start || money)) {
+                negative = true;
+            } else {
+                return NOT_AN_INT;
+            }
+        }
+        if (!digits) {
+            return NOT_AN_INT;
+        }
+        value = negative ? -value : value;
+        return value > Integer.MAX_VALUE ? NOT_AN_INT : value;
+    }
+
+    /**
+     * Parse characters of a token such as "8.2" as a double.
+     *
+     * Only plain decimals are read, such as IMDb ratings. Their mantissa and
+     * power of ten are exact doubles, so the division rounds to the same
+     * double as Double.parseDouble.
+     *
+     * @param text the characters
+     * @param start offset of the first character
+     * @param end offset after the last character
+     * @return the double, NaN if the characters are not a plain decimal, left
+     *         to the String parsing to read or reject
+     */
+    private static double parseDecimal(char[] text, int start, int end) {
+        long mantissa = 0;
+        int digits = 0;
+        int point = -1;
+        for (int i = start; i < end; i++) {
+            char c = text[i];
+            if (c >= '0' && c <= '9') {
+                mantissa = 10 * mantissa + (c - '0');
+                digits++;
+                if (mantissa > MAX_EXACT_MANTISSA) {
+                    return Double.NaN;
+                }
+            } else if (c == '.' && point < 0) {
+                point = i;
+            } else {
+                return Double.NaN;
+            }
+        }
+        int scale = point < 0 ? 0 : end - point - 1;
+        if (digits == 0 || scale >= POWERS_OF_TEN.length) {
+            return Double.NaN;
+        }
+        return mantissa / POWERS_OF_TEN[scale];
+    }
+
+    /**
+     * Parse characters of a token as a "dd MMM yyyy" date with an English
+     * month, such as "20 Jul 1988".
+     *
+     * @param text the characters
+     * @param start offset of the first character
+     * @param end offset after the last character
+     * @return the date, null if the characters are not such a date, left to
+     *         the formatter to read or reject
+     */
+    private static LocalDate parseDate(char[] text, int start, int end) {
+        if (end - start != 11 || text[start + 2] != ' ' || text[start + 6] != ' ') {
+            return null;
+        }
+        long day = parseInt(text, start, start + 2, false);
+        long year = parseInt(text, start + 7, end, false);
+        if (day < 1 || year < 1) {
+            return null;
+        }
+        for (int month = 0; month < 12; month++) {
+            if (MONTHS.charAt(3 * month) == text[start + 3] && MONTHS.charAt(3 * month + 1) == text[start + 4]
+                    && MONTHS.charAt(3 * month + 2) == text[start + 5]) {
+                return day <= Month.of(month + 1).length(Year.isLeap(year))
+                        ? LocalDate.of((int) year, month + 1, (int) day) : null;
+            }
+        }
+        return null;
+    }
 }
@@ -5,13 +5,10 @@ import java.io.PrintStream;
 import java.io.OutputStream;
 import java.util.Collection;
 
-
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectWriter;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.dataformat.csv.CsvMapper;
-import com.fasterxml.jackson.dataformat.csv.CsvSchema;
-import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 
 import group5.model.beans.MBeans;
 
@@ -32,8 +29,9 @@ public final class MBeansFormatter {
      *
      * @param records the records to print
      * @param out the output stream to write to
+     * @throws IOException if writing to the stream fails
      */
-     private static void writeMediasToTXT(Collection<MBeans> records, OutputStream out) {
+     private static void writeMediasToTXT(Collection<MBeans> records, OutputStream out) throws IOException {
          PrintStream pout = new PrintStream(out); // so i can use println
          int i = 1;
          for (MBeans record : records) {
@@ -46,6 +44,10 @@ public final class MBeansFormatter {
              pout.println();
              i++;
          }
+         pout.flush();
+         if (pout.checkError()) {
+             throw new IOException("Error writing to TXT");
+         }
      }
 
     /**
@@ -53,16 +55,11 @@ public final class MBeansFormatter {
      *
      * @param records the records to write
      * @param out the output stream to write to
+     * @throws IOException if serializing or writing to the stream fails
      */
-     private static void writeMediasToXML(Collection<MBeans> records, OutputStream out) {
-         XmlMapper mapper = new XmlMapper();
-         mapper.enable((SerializationFeature.INDENT_OUTPUT));
+     private static void writeMediasToXML(Collection<MBeans> records, OutputStream out) throws IOException {
          MovieXMLWrapper domain = new MovieXMLWrapper(records);
-         try {
-             mapper.writeValue(out, domain);
-         } catch (IOException e) {
-             e.printStackTrace();
-         }
+         MBeansMappers.writer(Formats.XML).writeValue(out, domain);
      }
 
     /**
@@ -70,52 +67,123 @@ public final class MBeansFormatter {
      *
      * @param records the records to write
      * @param out the output stream to write to
+     * @throws IOException if serializing or writing to the stream fails
      */
-    private static void writeMediasToJSON(Collection<MBeans> records, OutputStream out) {
+    private static void writeMediasToJSON(Collection<MBeans> records, OutputStream out) throws IOException {
         if (records == null) {
             return;
         }
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.enable(SerializationFeature.INDENT_OUTPUT);
-        try {
-            mapper.writeValue(out, records);
-        } catch (IOException e) {
-            System.out.println("Error writing to JSON");
-            e.printStackTrace();
+        MBeansMappers.writer(Formats.JSON).writeValue(out, records);
+    }
+
+    /**
+     * Stream the data as compact JSON, one record at a time.
+     *
+     * The generator buffers its output, so the stream does not need to.
+     *
+     * @param records the records to write
+     * @param out the output stream to write to
+     * @throws IOException if serializing or writing to the stream fails
+     */
+    private static void streamMediasToJSON(Collection<MBeans> records, OutputStream out) throws IOException {
+        if (records == null) {
+            return;
+        }
+        ObjectWriter writer = MBeansMappers.recordWriter();
+        try (JsonGenerator gen = writer.createGenerator(out, JsonEncoding.UTF8)) {
+            gen.writeStartArray();
+            for (MBeans record : records) {
+                writer.writeValue(gen, record);
+            }
+            gen.writeEndArray();
+        }
+    }
+
+    /**
+     * Stream the data as CSV, one row at a time.
+     *
+     * @param records the records to write
+     * @param out the output stream to write to
+     * @throws IOException if serializing or writing to the stream fails
+     */
+    private static void writeMediasToCSV(Collection<MBeans> records, OutputStream out) throws IOException {
+        if (records == null) {
+            return;
+        }
+        try (SequenceWriter rows = MBeansMappers.csvRowWriter().writeValues(out)) {
+            for (MBeans record : records) {
+                rows.write(record);
+            }
         }
     }
 
     /**
-     * Write the data as CSV.
+     * Write the data as a binary snapshot.
      *
      * @param records the records to write
      * @param out the output stream to write to
+     * @throws IOException if writing to the stream fails
      */
-    private static void writeMediasToCSV(Collection<MBeans> records, OutputStream out) {
+    private static void writeMediasToBinary(Collection<MBeans> records, OutputStream out) throws IOException {
         if (records == null) {
             return;
         }
-        CsvMapper mapper = new CsvMapper();
-        CsvSchema schema = mapper.schemaFor(MBeans.class).withHeader();
-        ObjectWriter csvWriter = mapper.writer(schema);
+        BinarySnapshot.write(records, out);
+    }
+
+    /**
+     * Public writer method to be invoked from Model and MovieList.
+     *
+     * Only accepts the following formats: JSON, CSV, PRETTY, XML, BINARY
+     *
+     * @param records the records to write
+     * @param out the output stream to write to
+     * @param format the format to write the records in
+     */
+    public static void writeMediasToFile(Collection<MBeans> records, OutputStream out, Formats format) {
         try {
-            csvWriter.writeValue(out, records);
+            writeMedias(records, out, format);
         } catch (IOException e) {
-            System.out.println("Error writing to CSV");
+            System.out.println("Error writing to " + format);
             e.printStackTrace();
         }
     }
 
     /**
-     * Public writer method to be invoked from Model and MovieList.
+     * Writer method for files the application reads back, such as the source
+     * list and saved watch lists.
      *
-     * Only accepts the following formats: JSON, CSV, PRETTY, XML
+     * JSON is streamed compact, one record at a time, instead of indented as
+     * for files users export. Other formats are written as by writeMedias.
      *
      * @param records the records to write
      * @param out the output stream to write to
      * @param format the format to write the records in
+     * @throws IOException if serializing or writing to the stream fails, or
+     *                     the format is not supported
      */
-    public static void writeMediasToFile(Collection<MBeans> records, OutputStream out, Formats format) {
+    public static void writeMediasCompact(Collection<MBeans> records, OutputStream out, Formats format)
+            throws IOException {
+        if (format == Formats.JSON) {
+            streamMediasToJSON(records, out);
+        } else {
+            writeMedias(records, out, format);
+        }
+    }
+
+    /**
+     * Writer method that reports failures to the caller, so a partly written
+     * file can be discarded.
+     *
+     * Only accepts the following formats: JSON, CSV, PRETTY, XML, BINARY
+     *
+     * @param records the records to write
+     * @param out the output stream to write to
+     * @param format the format to write the records in
+     * @throws IOException if serializing or writing to the stream fails, or
+     *                     the format is not supported
+     */
+    public static void writeMedias(Collection<MBeans> records, OutputStream out, Formats format) throws IOException {
         switch (format) {
             case JSON:
                 writeMediasToJSON(records, out);
@@ -129,8 +197,11 @@ public final class MBeansFormatter {
             case XML:
                 writeMediasToXML(records, out);
                 break;
+            case BINARY:
+                writeMediasToBinary(records, out);
+                break;
             default:
-                System.out.println("Invalid format");
+                throw new IOException("Invalid format");
         }
     }
 }
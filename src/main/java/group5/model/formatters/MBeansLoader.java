@@ -1,24 +1,43 @@
 package group5.model.formatters;
 
-import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPInputStream;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.MappingIterator;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.dataformat.csv.CsvMapper;
-import com.fasterxml.jackson.dataformat.csv.CsvSchema;
 
 import group5.model.beans.MBeans;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 import java.util.HashSet;
+import java.util.function.Consumer;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Class to load file data into MBeans objects.
  */
 public final class MBeansLoader {
 
+    /** Number of records per batch when a file is loaded at once. */
+    private static final int BATCH_SIZE = 10_000;
+
+    /** Number of invalid CSV rows reported one by one before the rest are only counted. */
+    private static final int MAX_REPORTED_ROWS = 20;
+
+    /** Size of the buffer of compressed input read at a time. */
+    private static final int GZIP_BUFFER_SIZE = 1 << 16;
+
     /**
      * Private constructor to prevent instantiation.
      */
@@ -33,47 +52,74 @@ public final class MBeansLoader {
      * @return Set of MBeans objects mapped from read file
      */
     private static Set<MBeans> loadMediasFromJSON(String filename) {
-        try {
-            File inFile = new File(filename);
-            ObjectMapper mapper = new ObjectMapper();
-            mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-            Set<MBeans> records = new HashSet<>();
-            records = mapper.readValue(inFile, new TypeReference<Set<MBeans>>() {
-            });
-            if (records.stream().anyMatch(bean -> bean.getID() == null)) {
-                return null;
-            }
-            return records;
+        try (Stream<MBeans> records = streamMediasFromJSON(filename)) {
+            return records.collect(Collectors.toCollection(HashSet::new));
         } catch (Exception e) {
             e.printStackTrace();
             return null;
         }
     }
 
+    /**
+     * Lazily deserialize a JSON array of records into MBeans objects.
+     *
+     * Records are parsed one at a time as the stream is consumed, so only the
+     * records held by the caller stay in memory. Each record is validated as
+     * it is parsed. The stream should be closed to release the file if it is
+     * not consumed to the end.
+     *
+     * @param filename path to the file to read from
+     * @return stream of MBeans objects in file order
+     * @throws IOException if the file cannot be opened
+     * @throws UncheckedIOException from the stream when a record has no imdbID
+     * @throws RuntimeException from the stream when a record cannot be parsed
+     */
+    public static Stream<MBeans> streamMediasFromJSON(String filename) throws IOException {
+        MappingIterator<MBeans> records = MBeansMappers.reader(Formats.JSON).readValues(openFile(filename));
+        Iterator<MBeans> validated = new Iterator<>() {
+            /** Number of records read so far. */
+            private int count;
+
+            @Override
+            public boolean hasNext() {
+                return records.hasNext();
+            }
+
+            @Override
+            public MBeans next() {
+                MBeans next = records.next();
+                count++;
+                if (next == null || next.getID() == null || next.getID().isEmpty()) {
+                    throw new UncheckedIOException(new IOException("Record " + count + " of " + filename
+                            + " has no imdbID"));
+                }
+                return next;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(validated,
+                        Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        records.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
     /**
      * Deserialize data from CSV data format into MBeans objects.
      *
+     * Invalid rows are reported and skipped.
+     *
      * @param filename path to the file to read from
-     * @return Set of MBeans objects mapped from read file
+     * @return Set of MBeans objects mapped from read file, null if it has no
+     *         valid row
      */
     private static Set<MBeans> loadMediasFromCSV(String filename) {
         try {
-            File inFile = new File(filename);
-            CsvMapper mapper = new CsvMapper();
-            mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-            CsvSchema schema = CsvSchema.emptySchema().withHeader();
-            MappingIterator<MBeans> it = mapper.readerFor(MBeans.class)
-                    .with(schema)
-                    .readValues(inFile);
             Set<MBeans> records = new HashSet<>();
-            while (it.hasNext()) {
-                MBeans next = it.next();
-                if (next.getID() != null) {
-                    records.add(next);
-                } else {
-                    return null;
-                }
-            }
+            readMediasFromCSV(filename, BATCH_SIZE, records::addAll);
 
             if (records.isEmpty()) {
                 return null;
@@ -86,10 +132,201 @@ public final class MBeansLoader {
         }
     }
 
+    /**
+     * Read the rows of a CSV file in batches.
+     *
+     * Rows are parsed one at a time and handed over batchSize rows at a time,
+     * so only one batch is held in memory. A row that cannot be parsed or has
+     * no imdbID is reported with its row number, the header being row 1, and
+     * skipped. The rest of the file is still read. Files ending in .gz are
+     * decompressed as they are read.
+     *
+     * @param filename path to the file to read from
+     * @param batchSize number of records per batch
+     * @param batches receives each batch of valid records, in file order
+     * @return number of invalid rows skipped
+     * @throws IOException if the file cannot be opened or is not CSV
+     */
+    public static int readMediasFromCSV(String filename, int batchSize, Consumer<List<MBeans>> batches)
+            throws IOException {
+        int invalid = 0;
+        int row = 1;
+        try (MappingIterator<MBeans> rows = MBeansMappers.reader(Formats.CSV).readValues(openFile(filename))) {
+            List<MBeans> batch = new ArrayList<>(batchSize);
+            while (rows.hasNextValue()) {
+                row++;
+                MBeans next;
+                try {
+                    next = rows.nextValue();
+                } catch (JsonProcessingException e) {
+                    reportRow(filename, row, e.getOriginalMessage(), invalid++);
+                    continue;
+                }
+                if (next == null || next.getID() == null || next.getID().isEmpty()) {
+                    reportRow(filename, row, "no imdbID", invalid++);
+                    continue;
+                }
+                batch.add(next);
+                if (batch.size() == batchSize) {
+                    batches.accept(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                batches.accept(batch);
+            }
+        }
+        if (invalid > MAX_REPORTED_ROWS) {
+            System.out.println("Error reading " + filename + ": " + invalid + " invalid rows in total");
+        }
+        return invalid;
+    }
+
+    /**
+     * Report an invalid CSV row, unless MAX_REPORTED_ROWS rows were already
+     * reported.
+     *
+     * @param filename path to the file read
+     * @param row number of the row, the header being row 1
+     * @param reason why the row is invalid
+     * @param reported number of invalid rows found before this one
+     */
+    private static void reportRow(String filename, int row, String reason, int reported) {
+        if (reported < MAX_REPORTED_ROWS) {
+            System.out.println("Error reading row " + row + " of " + filename + ": " + reason);
+        }
+    }
+
+    /**
+     * Read the records of a file in batches.
+     *
+     * CSV rows are read as by readMediasFromCSV. A JSON or binary record that
+     * cannot be read fails the whole read, as it does when the file is loaded
+     * at once.
+     *
+     * Only accepts the following formats: JSON, CSV, BINARY
+     *
+     * @param filename path to the file to read from
+     * @param format the format of the file
+     * @param batchSize number of records per batch
+     * @param batches receives each batch of records, in file order
+     * @return number of invalid CSV rows skipped
+     * @throws IOException if the file cannot be read, or the format is not
+     *                     supported
+     */
+    public static int readMediasFromFile(String filename, Formats format, int batchSize,
+            Consumer<List<MBeans>> batches) throws IOException {
+        if (format == Formats.CSV) {
+            return readMediasFromCSV(filename, batchSize, batches);
+        }
+        Stream<MBeans> stream;
+        if (format == Formats.JSON) {
+            stream = streamMediasFromJSON(filename);
+        } else if (format == Formats.BINARY) {
+            stream = streamMediasFromBinary(filename);
+        } else {
+            throw new IOException("Invalid format");
+        }
+        try (Stream<MBeans> records = stream) {
+            List<MBeans> batch = new ArrayList<>(batchSize);
+            Iterator<MBeans> it = records.iterator();
+            while (it.hasNext()) {
+                batch.add(it.next());
+                if (batch.size() == batchSize) {
+                    batches.accept(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                batches.accept(batch);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return 0;
+    }
+
+    /**
+     * Open a file to read, decompressing it if its name ends with .gz.
+     *
+     * @param filename path to the file to read from
+     * @return the stream of the file content
+     * @throws IOException if the file cannot be opened
+     */
+    private static InputStream openFile(String filename) throws IOException {
+        InputStream in = new FileInputStream(filename);
+        if (!Formats.isCompressed(filename)) {
+            return in;
+        }
+        try {
+            return new GZIPInputStream(in, GZIP_BUFFER_SIZE);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Deserialize a binary snapshot into MBeans objects.
+     *
+     * @param filename path to the file to read from
+     * @return Set of MBeans objects mapped from read file
+     */
+    private static Set<MBeans> loadMediasFromBinary(String filename) {
+        try (Stream<MBeans> records = streamMediasFromBinary(filename)) {
+            return records.collect(Collectors.toCollection(HashSet::new));
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Lazily read the records of a binary snapshot.
+     *
+     * The string table is read when the stream is created, records are read
+     * as the stream is consumed. The stream should be closed to release the
+     * file if it is not consumed to the end.
+     *
+     * @param filename path to the file to read from
+     * @return stream of MBeans objects in file order
+     * @throws IOException if the file cannot be opened or is not a snapshot
+     * @throws UncheckedIOException from the stream when a record cannot be read
+     */
+    public static Stream<MBeans> streamMediasFromBinary(String filename) throws IOException {
+        BinarySnapshot.Records records = BinarySnapshot.read(new FileInputStream(filename));
+        return StreamSupport.stream(Spliterators.spliterator(records, records.count(),
+                        Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        records.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Open a binary snapshot in place through a memory mapping.
+     *
+     * Only the string table and the imdbID of each record are read onto the
+     * heap. Other fields are decoded from the mapping whenever they are read,
+     * until a setter copies the record onto the heap. Suited to catalogues
+     * too large to load onto the heap.
+     *
+     * @param filename path to the file to map
+     * @return stream of MBeans objects in file order
+     * @throws IOException if the file cannot be mapped or is not a snapshot
+     */
+    public static Stream<MBeans> mapMediasFromBinary(String filename) throws IOException {
+        MappedSnapshot snapshot = MappedSnapshot.open(filename);
+        return IntStream.range(0, snapshot.count()).mapToObj(record -> new MappedMBeans(snapshot, record));
+    }
+
     /**
      * Public loader method to be invoked from Model.
      *
-     * Only accepts the following formats: JSON, CSV
+     * Only accepts the following formats: JSON, CSV, BINARY
      *
      * @param filename path to the file to read from
      * @param format the format of the file
@@ -100,6 +337,8 @@ public final class MBeansLoader {
             return loadMediasFromJSON(filename);
         } else if (format == Formats.CSV) {
             return loadMediasFromCSV(filename);
+        } else if (format == Formats.BINARY) {
+            return loadMediasFromBinary(filename);
         } else {
             return null;
         }
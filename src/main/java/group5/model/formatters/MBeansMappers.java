@@ -0,0 +1,148 @@
+package group5.model.formatters;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+
+import group5.model.beans.MBeans;
+
+/**
+ * Shared Jackson readers and writers for MBeans.
+ *
+ * Mappers are configured once and their readers and writers are created up
+ * front for the record types, so serializer lookups and the CSV schema are
+ * not rebuilt on every call. ObjectReader and ObjectWriter are immutable and
+ * safe to share between threads.
+ */
+public final class MBeansMappers {
+
+    /** Mapper for JSON, ignoring unknown properties. */
+    private static final ObjectMapper JSON_MAPPER = JsonMapper.builder()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    /** Mapper for CSV, ignoring unknown columns. */
+    private static final CsvMapper CSV_MAPPER = CsvMapper.builder()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    /** Mapper for XML. */
+    private static final XmlMapper XML_MAPPER = XmlMapper.builder().build();
+
+    /** CSV schema of MBeans with a header row. */
+    private static final CsvSchema CSV_SCHEMA = CSV_MAPPER.schemaFor(MBeans.class).withHeader();
+
+    /** Readers of MBeans records per format. */
+    private static final Map<Formats, ObjectReader> READERS = new EnumMap<>(Formats.class);
+
+    /** Writers of MBeans collections per format. */
+    private static final Map<Formats, ObjectWriter> WRITERS = new EnumMap<>(Formats.class);
+
+    /**
+     * Compact JSON writer of single records, for streaming them one at a
+     * time into a generator without flushing after each.
+     */
+    private static final ObjectWriter RECORD_WRITER = JSON_MAPPER.writerFor(MBeans.class)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+    /**
+     * CSV writer of single records with a header row, for streaming rows one
+     * at a time without flushing after each.
+     */
+    private static final ObjectWriter CSV_ROW_WRITER = CSV_MAPPER.writerFor(MBeans.class).with(CSV_SCHEMA)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+    /** JSON readers of other types, created on first use. */
+    private static final Map<Class<?>, ObjectReader> JSON_READERS = new ConcurrentHashMap<>();
+
+    static {
+        READERS.put(Formats.JSON, JSON_MAPPER.readerFor(MBeans.class));
+        READERS.put(Formats.CSV, CSV_MAPPER.readerFor(MBeans.class).with(CsvSchema.emptySchema().withHeader()));
+
+        WRITERS.put(Formats.JSON, JSON_MAPPER
+                .writerFor(JSON_MAPPER.getTypeFactory().constructCollectionType(Collection.class, MBeans.class))
+                .with(SerializationFeature.INDENT_OUTPUT));
+        WRITERS.put(Formats.XML, XML_MAPPER.writerFor(MovieXMLWrapper.class)
+                .with(SerializationFeature.INDENT_OUTPUT));
+    }
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private MBeansMappers() {
+        // empty
+    }
+
+    /**
+     * Get the reader of MBeans records in a format.
+     *
+     * Only accepts the following formats: JSON, CSV
+     *
+     * @param format the format to read
+     * @return the shared reader
+     */
+    public static ObjectReader reader(Formats format) {
+        ObjectReader reader = READERS.get(format);
+        if (reader == null) {
+            throw new IllegalArgumentException("No reader for format " + format);
+        }
+        return reader;
+    }
+
+    /**
+     * Get the writer of MBeans collections in a format.
+     *
+     * Only accepts the following formats: JSON, XML. XML writes a
+     * MovieXMLWrapper. CSV is written row by row with csvRowWriter.
+     *
+     * @param format the format to write
+     * @return the shared writer
+     */
+    public static ObjectWriter writer(Formats format) {
+        ObjectWriter writer = WRITERS.get(format);
+        if (writer == null) {
+            throw new IllegalArgumentException("No writer for format " + format);
+        }
+        return writer;
+    }
+
+    /**
+     * Get the compact JSON writer of single MBeans records.
+     *
+     * @return the shared writer
+     */
+    public static ObjectWriter recordWriter() {
+        return RECORD_WRITER;
+    }
+
+    /**
+     * Get the CSV writer of single MBeans records, writing the header row
+     * before the first.
+     *
+     * @return the shared writer
+     */
+    public static ObjectWriter csvRowWriter() {
+        return CSV_ROW_WRITER;
+    }
+
+    /**
+     * Get a JSON reader of any type, ignoring unknown properties.
+     *
+     * @param type the type to read
+     * @return the shared reader
+     */
+    public static ObjectReader jsonReader(Class<?> type) {
+        return JSON_READERS.computeIfAbsent(type, JSON_MAPPER::readerFor);
+    }
+}
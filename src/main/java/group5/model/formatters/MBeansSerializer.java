@@ -6,16 +6,20 @@ import com.fasterxml.jackson.databind.JsonSerializer;
 
 import java.io.IOException;
 import java.util.List;
-import java.util.Locale;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.text.NumberFormat;
 
 /**
  * Custom Serializer class for deserializaing data to MBeans fields.
  */
 public class MBeansSerializer {
 
+    /** Format of release dates. */
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd MMM yyyy");
+
+    /** Longest box office value, "$-2,147,483,648". */
+    private static final int BOX_OFFICE_LENGTH = 15;
+
     /** Nested static class for Serializing Integer. */
     public static class IntSerializer extends JsonSerializer<Integer> {
 
@@ -69,8 +73,7 @@ public class MBeansSerializer {
                 gen.writeString("N/A");
                 return;
             } else {
-                DateTimeFormatter format = DateTimeFormatter.ofPattern("dd MMM yyyy");
-                String formattedDate = date.format(format);
+                String formattedDate = date.format(DATE_FORMAT);
                 gen.writeString(formattedDate);
             }
         }
@@ -127,9 +130,24 @@ public class MBeansSerializer {
                 gen.writeString("N/A");
                 return;
             }
-            NumberFormat usdFormatter = NumberFormat.getNumberInstance(Locale.US);
-            String boxOfficeStr = usdFormatter.format(boxOffice);
-            gen.writeString("$" + boxOfficeStr);
+            // Written as "$" and the amount grouped the US way, as in "$85,892,546"
+            char[] text = new char[BOX_OFFICE_LENGTH];
+            int start = text.length;
+            long amount = Math.abs((long) boxOffice);
+            int digits = 0;
+            do {
+                if (digits > 0 && digits % 3 == 0) {
+                    text[--start] = ',';
+                }
+                text[--start] = (char) ('0' + amount % 10);
+                amount /= 10;
+                digits++;
+            } while (amount > 0);
+            if (boxOffice < 0) {
+                text[--start] = '-';
+            }
+            text[--start] = '$';
+            gen.writeString(text, start, text.length - start);
         }
     }
 }
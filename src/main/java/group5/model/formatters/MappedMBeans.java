@@ -0,0 +1,313 @@
+package group5.model.formatters;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import group5.model.beans.MBeans;
+
+/**
+ * MBeans whose fields are decoded from a mapped snapshot when read.
+ *
+ * Only the imdbID is kept on the heap. The first call to a setter copies every
+ * field onto the heap, after which the bean no longer reads the snapshot.
+ * Serializing the bean writes a plain MBeans copy.
+ */
+final class MappedMBeans extends MBeans {
+
+    /** Serialization version. */
+    private static final long serialVersionUID = 1L;
+
+    /** The snapshot holding the record. */
+    private final transient MappedSnapshot snapshot;
+
+    /** Record number in the snapshot. */
+    private final int record;
+
+    /** Whether the fields were copied onto the heap, set once they all were. */
+    private volatile boolean materialized;
+
+    /**
+     * Mapped bean constructor.
+     *
+     * @param snapshot the snapshot holding the record
+     * @param record record number in the snapshot
+     */
+    MappedMBeans(MappedSnapshot snapshot, int record) {
+        this.snapshot = snapshot;
+        this.record = record;
+        super.setID(snapshot.getString(record, BinarySnapshot.ID));
+    }
+
+    @Override
+    public String getTitle() {
+        return this.materialized ? super.getTitle() : this.snapshot.getString(this.record, BinarySnapshot.TITLE);
+    }
+
+    @Override
+    public int getYear() {
+        return this.materialized ? super.getYear() : this.snapshot.getInt(this.record, BinarySnapshot.YEAR);
+    }
+
+    @Override
+    public String getType() {
+        return this.materialized ? super.getType() : this.snapshot.getString(this.record, BinarySnapshot.TYPE);
+    }
+
+    @Override
+    public String getRated() {
+        return this.materialized ? super.getRated() : this.snapshot.getString(this.record, BinarySnapshot.RATED);
+    }
+
+    @Override
+    public LocalDate getReleased() {
+        if (this.materialized) {
+            return super.getReleased();
+        }
+        return BinarySnapshot.toDate(this.snapshot.getInt(this.record, BinarySnapshot.RELEASED));
+    }
+
+    @Override
+    public int getRuntime() {
+        return this.materialized ? super.getRuntime() : this.snapshot.getInt(this.record, BinarySnapshot.RUNTIME);
+    }
+
+    @Override
+    public List<String> getGenre() {
+        return this.materialized ? super.getGenre() : this.snapshot.getList(this.record, BinarySnapshot.GENRE);
+    }
+
+    @Override
+    public List<String> getDirector() {
+        return this.materialized ? super.getDirector() : this.snapshot.getList(this.record, BinarySnapshot.DIRECTOR);
+    }
+
+    @Override
+    public List<String> getWriter() {
+        return this.materialized ? super.getWriter() : this.snapshot.getList(this.record, BinarySnapshot.WRITER);
+    }
+
+    @Override
+    public List<String> getActors() {
+        return this.materialized ? super.getActors() : this.snapshot.getList(this.record, BinarySnapshot.ACTORS);
+    }
+
+    @Override
+    public String getPlot() {
+        return this.materialized ? super.getPlot() : this.snapshot.getString(this.record, BinarySnapshot.PLOT);
+    }
+
+    @Override
+    public List<String> getLanguage() {
+        return this.materialized ? super.getLanguage() : this.snapshot.getList(this.record, BinarySnapshot.LANGUAGE);
+    }
+
+    @Override
+    public List<String> getCountry() {
+        return this.materialized ? super.getCountry() : this.snapshot.getList(this.record, BinarySnapshot.COUNTRY);
+    }
+
+    @Override
+    public String getAwards() {
+        return this.materialized ? super.getAwards() : this.snapshot.getString(this.record, BinarySnapshot.AWARDS);
+    }
+
+    @Override
+    public String getPoster() {
+        return this.materialized ? super.getPoster() : this.snapshot.getString(this.record, BinarySnapshot.POSTER);
+    }
+
+    @Override
+    public int getMetascore() {
+        return this.materialized ? super.getMetascore() : this.snapshot.getInt(this.record, BinarySnapshot.METASCORE);
+    }
+
+    @Override
+    public double getImdbRating() {
+        if (this.materialized) {
+            return super.getImdbRating();
+        }
+        return this.snapshot.getDouble(this.record, BinarySnapshot.IMDB_RATING);
+    }
+
+    @Override
+    public int getBoxOffice() {
+        return this.materialized ? super.getBoxOffice() : this.snapshot.getInt(this.record, BinarySnapshot.BOX_OFFICE);
+    }
+
+    @Override
+    public boolean getWatched() {
+        return this.materialized ? super.getWatched() : this.snapshot.getBoolean(this.record, BinarySnapshot.WATCHED);
+    }
+
+    @Override
+    public double getMyRating() {
+        return this.materialized ? super.getMyRating() : this.snapshot.getDouble(this.record, BinarySnapshot.MY_RATING);
+    }
+
+    @Override
+    public void setTitle(String title) {
+        materialize();
+        super.setTitle(title);
+    }
+
+    @Override
+    public void setYear(int year) {
+        materialize();
+        super.setYear(year);
+    }
+
+    @Override
+    public void setType(String type) {
+        materialize();
+        super.setType(type);
+    }
+
+    @Override
+    public void setRated(String rated) {
+        materialize();
+        super.setRated(rated);
+    }
+
+    @Override
+    public void setReleased(LocalDate released) {
+        materialize();
+        super.setReleased(released);
+    }
+
+    @Override
+    public void setRuntime(int runtime) {
+        materialize();
+        super.setRuntime(runtime);
+    }
+
+    @Override
+    public void setGenre(List<String> genre) {
+        materialize();
+        super.setGenre(genre);
+    }
+
+    @Override
+    public void setDirector(List<String> director) {
+        materialize();
+        super.setDirector(director);
+    }
+
+    @Override
+    public void setWriter(List<String> writer) {
+        materialize();
+        super.setWriter(writer);
+    }
+
+    @Override
+    public void setActors(List<String> actors) {
+        materialize();
+        super.setActors(actors);
+    }
+
+    @Override
+    public void setPlot(String plot) {
+        materialize();
+        super.setPlot(plot);
+    }
+
+    @Override
+    public void setLanguage(List<String> language) {
+        materialize();
+        super.setLanguage(language);
+    }
+
+    @Override
+    public void setCountry(List<String> country) {
+        materialize();
+        super.setCountry(country);
+    }
+
+    @Override
+    public void setAwards(String awards) {
+        materialize();
+        super.setAwards(awards);
+    }
+
+    @Override
+    public void setPoster(String poster) {
+        materialize();
+        super.setPoster(poster);
+    }
+
+    @Override
+    public void setMetascore(int metascore) {
+        materialize();
+        super.setMetascore(metascore);
+    }
+
+    @Override
+    public void setImdbRating(double imdbRating) {
+        materialize();
+        super.setImdbRating(imdbRating);
+    }
+
+    @Override
+    public void setBoxOffice(int boxOffice) {
+        materialize();
+        super.setBoxOffice(boxOffice);
+    }
+
+    @Override
+    public void setWatched(boolean watched) {
+        materialize();
+        super.setWatched(watched);
+    }
+
+    @Override
+    public void setMyRating(double myRating) {
+        materialize();
+        super.setMyRating(myRating);
+    }
+
+    @Override
+    public void setID(String id) {
+        materialize();
+        super.setID(id);
+    }
+
+    /**
+     * Copy every field onto the heap, so edits are kept in the bean.
+     */
+    private void materialize() {
+        if (this.materialized) {
+            return;
+        }
+        super.setTitle(getTitle());
+        super.setYear(getYear());
+        super.setType(getType());
+        super.setRated(getRated());
+        super.setReleased(getReleased());
+        super.setRuntime(getRuntime());
+        super.setGenre(getGenre());
+        super.setDirector(getDirector());
+        super.setWriter(getWriter());
+        super.setActors(getActors());
+        super.setPlot(getPlot());
+        super.setLanguage(getLanguage());
+        super.setCountry(getCountry());
+        super.setAwards(getAwards());
+        super.setPoster(getPoster());
+        super.setMetascore(getMetascore());
+        super.setImdbRating(getImdbRating());
+        super.setBoxOffice(getBoxOffice());
+        super.setWatched(getWatched());
+        super.setMyRating(getMyRating());
+        this.materialized = true;
+    }
+
+    /**
+     * Serialize a plain copy, the mapping cannot be serialized.
+     *
+     * @return a copy of this bean
+     */
+    private Object writeReplace() {
+        return new MBeans(getTitle(), getYear(), getType(), getRated(), getReleased(), getRuntime(), getGenre(),
+                getDirector(), getWriter(), getActors(), getPlot(), getLanguage(), getCountry(), getAwards(),
+                getPoster(), getMetascore(), getImdbRating(), getBoxOffice(), getID(), getWatched(), getMyRating());
+    }
+}
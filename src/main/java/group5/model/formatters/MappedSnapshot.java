@@ -0,0 +1,352 @@
+package group5.model.formatters;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Binary snapshot read in place through memory mapped buffers.
+ *
+ * Only the string table is read onto the heap. Record fields are decoded from
+ * the mapping each time they are asked for, so the operating system pages
+ * records in and out as they are used. Files larger than a single mapping are
+ * split into regions on record boundaries. Reads use absolute positions and
+ * are safe from several threads.
+ */
+final class MappedSnapshot {
+
+    /** Largest mapped region. */
+    private static final long MAX_REGION = 1L << 30;
+
+    /** Variable field is a length-prefixed string. */
+    private static final int STRING = 0;
+
+    /** Variable field is a string table reference. */
+    private static final int REF = 1;
+
+    /** Variable field is a list of string table references. */
+    private static final int REFS = 2;
+
+    /** Kind of each variable field, in record order. */
+    private static final int[] KINDS = {STRING, STRING, REF, REF, REFS, REFS, REFS, REFS, STRING, REFS, REFS,
+        STRING, STRING};
+
+    /** The string table. */
+    private final String[] table;
+
+    /** Number of records in the snapshot. */
+    private final int count;
+
+    /** Mapped offsets of the records. */
+    private final ByteBuffer index;
+
+    /** Mapped regions holding the records. */
+    private final MappedByteBuffer[] regions;
+
+    /** File offset at which each region starts. */
+    private final long[] regionStarts;
+
+    /** First record of each region. */
+    private final int[] regionFirstRecords;
+
+    /**
+     * Map a snapshot and read its string table.
+     *
+     * @param channel channel of the snapshot file
+     * @throws IOException if the file is not a snapshot or cannot be mapped
+     */
+    private MappedSnapshot(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size < 2 * Integer.BYTES + BinarySnapshot.TRAILER_SIZE) {
+            throw new IOException("Not a binary snapshot");
+        }
+        ByteBuffer trailer = channel.map(FileChannel.MapMode.READ_ONLY, size - BinarySnapshot.TRAILER_SIZE,
+                BinarySnapshot.TRAILER_SIZE);
+        long indexOffset = trailer.getLong(0);
+        if (trailer.getInt(Long.BYTES) != BinarySnapshot.MAGIC || indexOffset < 0 || indexOffset > size) {
+            throw new IOException("Not a binary snapshot");
+        }
+
+        Cursor header = new Cursor(channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                Math.min(indexOffset, MAX_REGION)), 0);
+        if (header.readInt() != BinarySnapshot.MAGIC) {
+            throw new IOException("Not a binary snapshot");
+        }
+        int version = header.readInt();
+        if (version != BinarySnapshot.VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        this.table = new String[header.readVarInt()];
+        for (int i = 0; i < this.table.length; i++) {
+            this.table[i] = header.readString();
+        }
+        this.count = header.readVarInt();
+        if (indexOffset + (long) this.count * Long.BYTES + BinarySnapshot.TRAILER_SIZE != size) {
+            throw new IOException("Snapshot index does not match the file size");
+        }
+        this.index = channel.map(FileChannel.MapMode.READ_ONLY, indexOffset, (long) this.count * Long.BYTES);
+
+        // Start a new region whenever the next record would not fit in the current one
+        List<Long> starts = new ArrayList<>();
+        List<Integer> firsts = new ArrayList<>();
+        for (int record = 0; record < this.count; record++) {
+            long end = record + 1 < this.count ? offset(record + 1) : indexOffset;
+            if (starts.isEmpty() || end - starts.get(starts.size() - 1) > MAX_REGION) {
+                if (end - offset(record) > MAX_REGION) {
+                    throw new IOException("Snapshot record " + record + " is too large");
+                }
+                starts.add(offset(record));
+                firsts.add(record);
+            }
+        }
+        this.regions = new MappedByteBuffer[starts.size()];
+        this.regionStarts = new long[starts.size()];
+        this.regionFirstRecords = new int[starts.size()];
+        for (int i = 0; i < this.regions.length; i++) {
+            long end = i + 1 < this.regions.length ? starts.get(i + 1) : indexOffset;
+            this.regionStarts[i] = starts.get(i);
+            this.regionFirstRecords[i] = firsts.get(i);
+            this.regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, starts.get(i), end - starts.get(i));
+        }
+    }
+
+    /**
+     * Open a snapshot file.
+     *
+     * The mapping stays valid after the file is replaced or the channel is
+     * closed, until the snapshot is garbage collected.
+     *
+     * @param filename path to the snapshot
+     * @return the mapped snapshot
+     * @throws IOException if the file is not a snapshot or cannot be mapped
+     */
+    static MappedSnapshot open(String filename) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            return new MappedSnapshot(channel);
+        }
+    }
+
+    /**
+     * Get the number of records in the snapshot.
+     *
+     * @return the record count
+     */
+    int count() {
+        return this.count;
+    }
+
+    /**
+     * Read an int from the fixed block of a record.
+     *
+     * @param record the record number
+     * @param field offset of the field in the fixed block
+     * @return the value
+     */
+    int getInt(int record, int field) {
+        Cursor cursor = locate(record);
+        return cursor.buffer.getInt(cursor.position + field);
+    }
+
+    /**
+     * Read a double from the fixed block of a record.
+     *
+     * @param record the record number
+     * @param field offset of the field in the fixed block
+     * @return the value
+     */
+    double getDouble(int record, int field) {
+        Cursor cursor = locate(record);
+        return cursor.buffer.getDouble(cursor.position + field);
+    }
+
+    /**
+     * Read a boolean from the fixed block of a record.
+     *
+     * @param record the record number
+     * @param field offset of the field in the fixed block
+     * @return the value
+     */
+    boolean getBoolean(int record, int field) {
+        Cursor cursor = locate(record);
+        return cursor.buffer.get(cursor.position + field) != 0;
+    }
+
+    /**
+     * Read a string field of a record.
+     *
+     * @param record the record number
+     * @param field position of the field among the variable fields
+     * @return the value, may be null
+     */
+    String getString(int record, int field) {
+        Cursor cursor = variable(record, field);
+        return KINDS[field] == REF ? cursor.readRef(this.table) : cursor.readString();
+    }
+
+    /**
+     * Read a list field of a record.
+     *
+     * @param record the record number
+     * @param field position of the field among the variable fields
+     * @return the value, may be null
+     */
+    List<String> getList(int record, int field) {
+        Cursor cursor = variable(record, field);
+        int size = cursor.readVarInt() - 1;
+        if (size < 0) {
+            return null;
+        }
+        String[] values = new String[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = cursor.readRef(this.table);
+        }
+        return Arrays.asList(values);
+    }
+
+    /**
+     * Get the file offset of a record.
+     *
+     * @param record the record number
+     * @return the offset
+     */
+    private long offset(int record) {
+        return this.index.getLong(record * Long.BYTES);
+    }
+
+    /**
+     * Position a cursor at the start of a record.
+     *
+     * @param record the record number
+     * @return cursor at the fixed block of the record
+     */
+    private Cursor locate(int record) {
+        if (record < 0 || record >= this.count) {
+            throw new IndexOutOfBoundsException("Record " + record + " of " + this.count);
+        }
+        int region = 0;
+        if (this.regions.length > 1) {
+            region = Arrays.binarySearch(this.regionFirstRecords, record);
+            if (region < 0) {
+                region = -region - 2;
+            }
+        }
+        return new Cursor(this.regions[region], (int) (offset(record) - this.regionStarts[region]));
+    }
+
+    /**
+     * Position a cursor at a variable field of a record.
+     *
+     * @param record the record number
+     * @param field position of the field among the variable fields
+     * @return cursor at the field
+     */
+    private Cursor variable(int record, int field) {
+        Cursor cursor = locate(record);
+        cursor.position += BinarySnapshot.FIXED_SIZE;
+        for (int i = 0; i < field; i++) {
+            cursor.skip(KINDS[i]);
+        }
+        return cursor;
+    }
+
+    /**
+     * Read position in a mapped buffer.
+     */
+    private static final class Cursor {
+
+        /** The buffer read, only through absolute gets. */
+        private final ByteBuffer buffer;
+
+        /** Position of the next byte to read. */
+        private int position;
+
+        /**
+         * Cursor constructor.
+         *
+         * @param buffer the buffer to read
+         * @param position the position to start at
+         */
+        private Cursor(ByteBuffer buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        /**
+         * Read a big-endian int.
+         *
+         * @return the int
+         */
+        private int readInt() {
+            int value = this.buffer.getInt(this.position);
+            this.position += Integer.BYTES;
+            return value;
+        }
+
+        /**
+         * Read an unsigned variable length int.
+         *
+         * @return the int
+         */
+        private int readVarInt() {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = this.buffer.get(this.position++);
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalStateException("Invalid variable length int");
+        }
+
+        /**
+         * Read a length-prefixed UTF-8 string.
+         *
+         * @return the string, null if none was stored
+         */
+        private String readString() {
+            int length = readVarInt() - 1;
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            this.buffer.get(this.position, bytes);
+            this.position += length;
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Read a string table reference.
+         *
+         * @param table the string table
+         * @return the string, null if none was stored
+         */
+        private String readRef(String[] table) {
+            int index = readVarInt() - 1;
+            return index < 0 ? null : table[index];
+        }
+
+        /**
+         * Skip a variable field.
+         *
+         * @param kind the kind of the field
+         */
+        private void skip(int kind) {
+            int value = readVarInt();
+            if (kind == STRING && value > 0) {
+                this.position += value - 1;
+            } else if (kind == REFS) {
+                for (int i = 1; i < value; i++) {
+                    readVarInt();
+                }
+            }
+        }
+    }
+}
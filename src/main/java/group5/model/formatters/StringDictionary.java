@@ -0,0 +1,59 @@
+package group5.model.formatters;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared dictionary of the strings repeated across records, such as genres,
+ * people, languages, countries and content ratings.
+ *
+ * Deserializers map each value they read to one canonical instance, so a
+ * name appearing in thousands of records is kept once. The dictionary is
+ * safe to use from several threads, and stops growing once it holds
+ * MAX_SIZE strings, after which new values are returned as they are.
+ */
+public final class StringDictionary {
+
+    /** Maximum number of strings kept in the dictionary. */
+    private static final int MAX_SIZE = 1 << 20;
+
+    /** Canonical instance of each string. */
+    private static final ConcurrentHashMap<String, String> STRINGS = new ConcurrentHashMap<>();
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private StringDictionary() {
+        // empty
+    }
+
+    /**
+     * Get the canonical instance of a string.
+     *
+     * @param value the string, may be null
+     * @return the instance equal to the string first seen, the string itself
+     *         if it is new or the dictionary is full, null if it is null
+     */
+    public static String canonical(String value) {
+        if (value == null) {
+            return null;
+        }
+        String canonical = STRINGS.get(value);
+        if (canonical != null) {
+            return canonical;
+        }
+        if (STRINGS.size() >= MAX_SIZE) {
+            return value;
+        }
+        canonical = STRINGS.putIfAbsent(value, value);
+        return canonical == null ? value : canonical;
+    }
+
+    /**
+     * Get the number of strings in the dictionary.
+     *
+     * @return the size
+     */
+    public static int size() {
+        return STRINGS.size();
+    }
+}
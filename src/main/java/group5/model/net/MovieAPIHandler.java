@@ -9,11 +9,12 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
 
-import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 
 import group5.model.beans.MBeans;
+import group5.model.formatters.Formats;
+import group5.model.formatters.MBeansMappers;
 
 /**
  * the API interface and logic for the program.
@@ -155,15 +156,14 @@ public final class MovieAPIHandler {
      * @return the list of apibeans
      */
     public static List<APIBeans> parseAPITitle(InputStream inputStream) {
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        ObjectReader reader = MBeansMappers.jsonReader(APIBeans.class);
         try {
-            JsonNode root = mapper.readTree(inputStream);
+            JsonNode root = reader.readTree(inputStream);
             JsonNode searchResults = root.path("Search");
             List<APIBeans> apiList = new ArrayList<>();
             if (searchResults.isArray()) {
                 for (JsonNode node : searchResults) {
-                    apiList.add(mapper.treeToValue(node, APIBeans.class));
+                    apiList.add(reader.readValue(node));
                 }
             }
             return apiList;
@@ -180,11 +180,8 @@ public final class MovieAPIHandler {
      * @return an MBeans
      */
     public static MBeans parseMovieFromAPI(InputStream inputStream) {
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
         try {
-            JsonNode root = mapper.readTree(inputStream);
-            return mapper.treeToValue(root, MBeans.class);
+            return MBeansMappers.reader(Formats.JSON).readValue(inputStream);
         } catch (IOException e) {
             e.printStackTrace();
         }
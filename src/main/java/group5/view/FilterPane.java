@@ -4,12 +4,14 @@ import group5.controller.IFeature;
 import group5.model.beans.MBeans;
 
 import javax.swing.*;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.awt.event.*;
 import java.text.NumberFormat;
 import java.util.*;
 import java.util.function.ToDoubleFunction;
-import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -20,6 +22,8 @@ public class FilterPane extends JPanel implements ActionListener, FocusListener
     private final int DEFAULT_WIDTH = 225;
     /** Default panel height. */
     private final int DEFAULT_HEIGHT = 100;
+    /** Pause in typing, in milliseconds, before the typed filters are applied. */
+    private final int TYPING_DELAY = 250;
 
     /** Set of movies. */
     private Set<MBeans> movies = new HashSet<>();
@@ -75,6 +79,12 @@ public class FilterPane extends JPanel implements ActionListener, FocusListener
     /** Clear filters button. */
     private JButton clearFiltersButton = new JButton("Clear Filters");
 
+    /** Timer restarted by each keystroke in a text filter, fires once typing pauses. */
+    private Timer typingTimer = new Timer(TYPING_DELAY, null);
+
+    /** Whether the program is setting the text of a text filter, which is not typing. */
+    private boolean settingText;
+
     // GridBagConstraints & grid row int
     /** Class global GridBagConstraints. */
     private GridBagConstraints gbc = new GridBagConstraints();
@@ -131,6 +141,13 @@ public class FilterPane extends JPanel implements ActionListener, FocusListener
         writerFilter.addActionListener(this);
         applyFiltersButton.addActionListener(this);
         clearFiltersButton.addActionListener(this);
+
+        // filter as the user types
+        typingTimer.setRepeats(false);
+        listenForTyping(titleFilter);
+        listenForTyping(directorFilter);
+        listenForTyping(actorFilter);
+        listenForTyping(writerFilter);
     }
 
     /* Getters -------------------------------------------------------------------------------------------------------*/
@@ -346,10 +363,23 @@ public class FilterPane extends JPanel implements ActionListener, FocusListener
      * Sets the min and max of each range filter based on the MBeans in the movies set.
      */
     private void setRangeFilterRanges() {
+        setRangeFilterRanges(getFilterRange(MBeans::getYear), getFilterRange(MBeans::getImdbRating),
+                getFilterRange(MBeans::getBoxOffice));
+    }
+
+    /**
+     * Sets the min and max of each range filter from ranges found elsewhere, such as the source list index.
+     * Placeholders are left as they are.
+     *
+     * @param released {min, max} year released, null if there are no movies
+     * @param imdbRating {min, max} IMDB rating, null if there are no movies
+     * @param boxOffice {min, max} box office earnings, null if there are no movies
+     */
+    public void setRangeFilterRanges(double[] released, double[] imdbRating, double[] boxOffice) {
         // set filter ranges
-        getIntFilterRange(MBeans::getYear, releasedFrom, releasedTo);
-        getDoubleFilterRange(MBeans::getImdbRating, imdbRatingFrom, imdbRatingTo);
-        getIntFilterRange(MBeans::getBoxOffice, boxOfficeEarningsFrom, boxOfficeEarningsTo);
+        putIntFilterRange(released, releasedFrom, releasedTo);
+        putDoubleFilterRange(imdbRating, imdbRatingFrom, imdbRatingTo);
+        putIntFilterRange(boxOffice, boxOfficeEarningsFrom, boxOfficeEarningsTo);
 
         // format box office earnings min/max in millions of dollars
         rangeFilterMap.put(boxOfficeEarningsFrom,
@@ -484,7 +514,24 @@ public class FilterPane extends JPanel implements ActionListener, FocusListener
      * @param value a String containing the placeholder text
      */
     private void setPlaceholder(JTextField textField, String value) {
-        textField.setText(value);
+        setTextQuietly(textField, value);
+    }
+
+    /**
+     * Sets the text of a JTextField without restarting the typing timer, so
+     * text set by the program never starts a filter pass even while the field
+     * has the focus.
+     *
+     * @param textField the JTextField receiving the text
+     * @param value the text
+     */
+    private void setTextQuietly(JTextField textField, String value) {
+        settingText = true;
+        try {
+            textField.setText(value);
+        } finally {
+            settingText = false;
+        }
     }
 
     /* Helper Methods ------------------------------------------------------------------------------------------------*/
@@ -512,20 +559,27 @@ public class FilterPane extends JPanel implements ActionListener, FocusListener
     }
 
     /**
-     * Finds and maps the minimum and maximum values in a double returning getter from a stream of the movies set.
+     * Finds the minimum and maximum values of a getter over the movies set in a single pass.
+     *
+     * @param fieldFunction the number returning getter method
+     * @return {min, max} of the values, null if the movies set is empty
+     */
+    private double[] getFilterRange(ToDoubleFunction<MBeans> fieldFunction) {
+        DoubleSummaryStatistics stats = movies.stream().mapToDouble(fieldFunction).summaryStatistics();
+        return stats.getCount() == 0 ? null : new double[] {stats.getMin(), stats.getMax()};
+    }
+
+    /**
+     * Maps the minimum and maximum values of a double column to its range filter.
      *
-     * @param fieldFunction the double returning getter method
+     * @param range {min, max} of the column, null if unknown
      * @param from JTextField for range filter minimum
      * @param to JTextField for range filter maximum
      */
-    private void getDoubleFilterRange(ToDoubleFunction<MBeans> fieldFunction, JTextField from, JTextField to) {
-        // find max/min
-        OptionalDouble maxValue = movies.stream().mapToDouble(fieldFunction).max();
-        OptionalDouble minValue = movies.stream().mapToDouble(fieldFunction).min();
-
+    private void putDoubleFilterRange(double[] range, JTextField from, JTextField to) {
         // convert to string
-        String maxValueString = maxValue.isPresent() ? Double.toString(maxValue.getAsDouble()) : "No Max";
-        String minValueString = minValue.isPresent() ? Double.toString(minValue.getAsDouble()) : "No Min";
+        String minValueString = range != null ? Double.toString(range[0]) : "No Min";
+        String maxValueString = range != null ? Double.toString(range[1]) : "No Max";
 
         // map min/max values to corresponding JTextFields
         rangeFilterMap.put(from, minValueString);
@@ -533,28 +587,16 @@ public class FilterPane extends JPanel implements ActionListener, FocusListener
     }
 
     /**
-     * Finds and maps the minimum and maximum values in an int returning getter from a stream of the movies set.
+     * Maps the minimum and maximum values of an int column to its range filter.
      *
-     * @param fieldFunction the int returning getter method
+     * @param range {min, max} of the column, null if unknown
      * @param from JTextField for range filter minimum
      * @param to JTextField for range filter maximum
      */
-    private void getIntFilterRange(ToIntFunction<MBeans> fieldFunction, JTextField from, JTextField to) {
-        // find max/min
-        OptionalInt minValue = movies.stream().mapToInt(fieldFunction).min();
-        OptionalInt maxValue = movies.stream().mapToInt(fieldFunction).max();
-
-
-        // convert to string
-        String minValueString = minValue.isPresent() ? Integer.toString(minValue.getAsInt()) : "No Min";
-        String maxValueString = maxValue.isPresent() ? Integer.toString(maxValue.getAsInt()) : "No Max";
-
-        if (Integer.parseInt(minValueString) < 0) {
-            minValueString = "N/A";
-        }
-        if (Integer.parseInt(maxValueString) < 0) {
-            maxValueString = "N/A";
-        }
+    private void putIntFilterRange(double[] range, JTextField from, JTextField to) {
+        // negative values mark missing data
+        String minValueString = (range != null && range[0] >= 0) ? Integer.toString((int) range[0]) : "N/A";
+        String maxValueString = (range != null && range[1] >= 0) ? Integer.toString((int) range[1]) : "N/A";
 
         rangeFilterMap.put(from, minValueString);
         rangeFilterMap.put(to, maxValueString);
@@ -678,10 +720,10 @@ public class FilterPane extends JPanel implements ActionListener, FocusListener
             filter.removeAllItems();
         }
         for (JTextField filter : textFilters) {
-            filter.setText("");
+            setTextQuietly(filter, "");
         }
         for (JTextField filter : rangeFilterMap.keySet()) {
-            filter.setText("");
+            setTextQuietly(filter, "");
         }
     }
 
@@ -706,7 +748,7 @@ public class FilterPane extends JPanel implements ActionListener, FocusListener
      */
     public void resetTextFilters() {
         for (JTextField filter : textFilters) {
-            filter.setText("");
+            setTextQuietly(filter, "");
         }
     }
 
@@ -738,7 +780,7 @@ public class FilterPane extends JPanel implements ActionListener, FocusListener
         } else if (updateOrClearPlaceholders.equalsIgnoreCase("clear")) {
             // clear range filter placeholders
             for (JTextField filter : rangeFilterMap.keySet()) {
-                filter.setText("");
+                setTextQuietly(filter, "");
             }
         }
     }
@@ -865,6 +907,37 @@ public class FilterPane extends JPanel implements ActionListener, FocusListener
         }
     }
 
+    /**
+     * Restarts the typing timer whenever the user edits a text filter. Text set by the program, such as cleared
+     * filters, is ignored as it is set through setTextQuietly or the field does not have the focus.
+     *
+     * @param textField the text filter to listen to
+     */
+    private void listenForTyping(JTextField textField) {
+        textField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                typed();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                typed();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                // attribute changes do not change the filter
+            }
+
+            private void typed() {
+                if (!settingText && textField.isFocusOwner()) {
+                    typingTimer.restart();
+                }
+            }
+        });
+    }
+
     /**
      * Invoked when a component gains the keyboard focus.
      *
@@ -874,7 +947,7 @@ public class FilterPane extends JPanel implements ActionListener, FocusListener
     public void focusGained(FocusEvent e) {
         // clear text when focus is gained
         JTextField textField = (JTextField) e.getSource();
-        textField.setText("");
+        setTextQuietly(textField, "");
     }
 
     /**
@@ -899,8 +972,15 @@ public class FilterPane extends JPanel implements ActionListener, FocusListener
      * @param features action tiggered by the FilterPane
      */
     public void bindFeatures(IFeature features) {
-        applyFiltersButton.addActionListener(e -> features.applyFilters());
-        clearFiltersButton.addActionListener(e -> features.clearFiltersAndReloadRecords());
+        applyFiltersButton.addActionListener(e -> {
+            typingTimer.stop();
+            features.applyFilters();
+        });
+        clearFiltersButton.addActionListener(e -> {
+            typingTimer.stop();
+            features.clearFiltersAndReloadRecords();
+        });
+        typingTimer.addActionListener(e -> features.filterAsYouType());
     }
 
     /* enums ---------------------------------------------------------------------------------------------------------*/
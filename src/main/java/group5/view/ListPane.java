@@ -23,6 +23,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -378,7 +379,7 @@ public class ListPane extends JPanel {
     private void localImportListHandler() {
         JFileChooser fileChooser = new JFileChooser();
         FileNameExtensionFilter fileFilters = new FileNameExtensionFilter(
-                "JSON or CSV (*.json;*.csv)", "json", "csv");
+                "JSON or CSV (*.json;*.csv;*.csv.gz)", "json", "csv", "gz");
         fileChooser.setAcceptAllFileFilterUsed(false);
         fileChooser.setFileFilter(fileFilters);
         fileChooser.setDialogTitle("Import List");
@@ -399,11 +400,15 @@ public class ListPane extends JPanel {
         fileChooser.setFileFilter(new FileNameExtensionFilter("XML (*.xml)", "xml"));
         fileChooser.addChoosableFileFilter(new FileNameExtensionFilter("JSON (*.json)", "json"));
         fileChooser.addChoosableFileFilter(new FileNameExtensionFilter("CSV (*.csv)", "csv"));
+        // The filter only sees the text after the last dot, the .csv part is added below
+        FileNameExtensionFilter compressedCsv = new FileNameExtensionFilter("Compressed CSV (*.csv.gz)", "gz");
+        fileChooser.addChoosableFileFilter(compressedCsv);
         fileChooser.addChoosableFileFilter(new FileNameExtensionFilter("Text (*.txt)", "txt"));
         int userSelection = fileChooser.showSaveDialog(this);
         if (userSelection == JFileChooser.APPROVE_OPTION) {
             File selectedFile = fileChooser.getSelectedFile();
-            String selectedExtension = ((FileNameExtensionFilter) fileChooser.getFileFilter()).getExtensions()[0];
+            String selectedExtension = fileChooser.getFileFilter() == compressedCsv ? "csv.gz"
+                    : ((FileNameExtensionFilter) fileChooser.getFileFilter()).getExtensions()[0];
             String filePath = selectedFile.getAbsolutePath();
             // Check if the file path already has the selected extension
             if (!filePath.toLowerCase().endsWith("." + selectedExtension.toLowerCase())) {
@@ -445,12 +450,9 @@ public class ListPane extends JPanel {
         if (tabbedPane.getTabCount() - 2 < watchlistIndex) {
             throw new IllegalArgumentException("User-defined list index out of bounds");
         }
-        List<MBeans> mBeansList = records.toList();
         MovieTableModel targetUserListModel = watchlistModels.get(watchlistIndex);
-        List<MovieTableModelRecord> tmRecords = new ArrayList<>();
-        for (MBeans record : mBeansList) {
-            tmRecords.add(new MovieTableModelRecord(record));
-        }
+        List<MovieTableModelRecord> tmRecords = records.map(MovieTableModelRecord::new)
+                .collect(Collectors.toCollection(ArrayList::new));
         int selectedRow = watchlistTables.get(watchlistIndex).getSelectedRow();
         targetUserListModel.setMovieTableModelRecords(tmRecords);
         if (selectedRow >= 0 && selectedRow < watchlistTables.get(watchlistIndex).getRowCount()
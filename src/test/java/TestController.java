@@ -20,6 +20,9 @@ import group5.view.DetailsPane;
 
 import java.lang.ref.SoftReference;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.swing.SwingUtilities;
 import java.util.stream.Stream;
 
 
@@ -356,6 +359,57 @@ public class TestController {
         verify(mockFilterPane, never()).setMovies(any(), anyBoolean());
     }
 
+    @Test
+    void testFilterAsYouType() throws Exception {
+        when(mockView.getActiveTab()).thenReturn(1);
+        when(mockFilterPane.getFilteredTitle()).thenReturn("a");
+        when(mockFilterPane.getFilteredGenre()).thenReturn("");
+        when(mockFilterPane.getFilteredMpaRating()).thenReturn("");
+        when(mockFilterPane.getFilteredReleasedMin()).thenReturn("");
+        when(mockFilterPane.getFilteredReleasedMax()).thenReturn("");
+        when(mockFilterPane.getFilteredImdbRatingMin()).thenReturn("");
+        when(mockFilterPane.getFilteredImdbRatingMax()).thenReturn("");
+        when(mockFilterPane.getFilteredBoxOfficeEarningsMin()).thenReturn("");
+        when(mockFilterPane.getFilteredBoxOfficeEarningsMax()).thenReturn("");
+        when(mockFilterPane.getFilteredDirectorFilter()).thenReturn("");
+        when(mockFilterPane.getFilteredActorFilter()).thenReturn("");
+        when(mockFilterPane.getFilteredWriterFilter()).thenReturn("");
+        when(mockFilterPane.getFilteredLanguageFilter()).thenReturn("");
+
+        // The first keystroke's pass is still running when the second one comes
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        MBeans stale = new MBeans();
+        MBeans current = new MBeans();
+        List<List<String>> first = List.of(List.of("TITLE", "~=", "a"));
+        List<List<String>> second = List.of(List.of("TITLE", "~=", "ab"));
+        when(mockModel.filterRecords(eq(0), eq(first))).thenAnswer(invocation -> {
+            started.countDown();
+            boolean waiting = true;
+            while (waiting) {
+                try {
+                    waiting = !release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    // cancelled by the second keystroke, finish anyway to check the result is dropped
+                }
+            }
+            return Stream.of(stale);
+        });
+        when(mockModel.filterRecords(eq(0), eq(second))).thenReturn(Stream.of(current));
+
+        controller.filterAsYouType();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        when(mockFilterPane.getFilteredTitle()).thenReturn("ab");
+        controller.filterAsYouType();
+        release.countDown();
+
+        // Only the result of the latest keystroke reaches the table
+        verify(mockView, timeout(5000)).setUserTableRecords(any(), eq(0));
+        SwingUtilities.invokeAndWait(() -> { });
+        verify(mockView, times(1)).setUserTableRecords(any(), eq(0));
+        verify(mockModel).setFilter(second);
+        verify(mockModel, never()).addNewMBeans(any(), any());
+    }
 
     @Test
     void testGo() {
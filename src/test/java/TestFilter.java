@@ -2,16 +2,29 @@
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import group5.model.MovieData;
+import group5.model.filter.FilterCompiler;
 import group5.model.filter.FilterHandler;
+import group5.model.filter.FilterOperation;
+import group5.model.filter.MovieIndex;
+import group5.model.filter.OrdinalBitmap;
+import group5.model.filter.Operations;
+import group5.model.filter.QueryPlan;
+import group5.model.filter.QueryPlanner;
 import group5.model.beans.MBeans;
+import group5.model.beans.SearchKeys;
 
 public class TestFilter {
 
@@ -131,6 +144,352 @@ public class TestFilter {
         assertTrue(result.stream().allMatch(MBeans::getWatched));
     }
 
+    @Test
+    public void testCompiledMatchesFilterOperation() {
+        List<List<String>> specs = List.of(
+                List.of("title", "~=", "THE"),
+                List.of("title", "!=", "Inception"),
+                List.of("mpa", "==", "pg-13"),
+                List.of("actor", "~=", "leo"),
+                List.of("writer", "==", "christopher nolan"),
+                List.of("released", ">=", "2010"),
+                List.of("released", "<", "2010"),
+                List.of("runtime", "<=", "136"),
+                List.of("boxoffice", ">", "abc"),
+                List.of("imdb", ">", "8.65"),
+                List.of("user", "==", "-1.0"),
+                List.of("haswatched", "==", "false"),
+                List.of("number", "==", "1"));
+        for (List<String> spec : specs) {
+            MovieData column = MovieData.fromString(spec.get(0));
+            Operations op = Operations.getOperatorFromStr(spec.get(1));
+            List<MBeans> expected = movies.stream()
+                    .filter(FilterOperation.getFilter(column, op, spec.get(2)))
+                    .collect(Collectors.toList());
+            assertEquals(expected, movies.stream().filter(FilterCompiler.compile(List.of(spec)))
+                    .collect(Collectors.toList()), spec.toString());
+        }
+    }
+
+    @Test
+    public void testCompiledCombination() {
+        // Terms are reordered but every filter must still pass
+        Predicate<MBeans> compiled = FilterCompiler.compile(List.of(
+                List.of("genre", "~=", "sci"),
+                List.of("director", "==", "Christopher Nolan"),
+                List.of("imdb", ">=", "8.7")));
+        assertEquals(List.of(movies.get(0)), movies.stream().filter(compiled).collect(Collectors.toList()));
+
+        // An operator a column does not support matches nothing
+        assertEquals(0, movies.stream().filter(FilterCompiler.compile(List.of(
+                List.of("released", ">", "1900"),
+                List.of("genre", ">", "Action")))).count());
+        assertEquals(5, movies.stream().filter(FilterCompiler.compile(List.of())).count());
+        assertThrows(IllegalArgumentException.class, () -> FilterCompiler.compile(List.of(List.of("title", "=="))));
+    }
+
+    @Test
+    public void testFilterIsSinglePass() {
+        AtomicInteger visited = new AtomicInteger();
+        Stream<MBeans> result = filterHandler.filter(List.of(
+                List.of("genre", "==", "Drama"),
+                List.of("released", ">", "2000"),
+                List.of("title", "~=", "a")), movies.stream().peek(movie -> visited.incrementAndGet()));
+
+        // Nothing is read until the result is consumed, then every movie is read once
+        assertEquals(0, visited.get());
+        assertEquals(3, result.count());
+        assertEquals(movies.size(), visited.get());
+    }
+
+    @Test
+    public void testSingleFilter() {
+        List<String> filter = List.of("genre", "==", "drama");
+        List<MBeans> expected = filterHandler.filter(List.of(filter), movies.stream()).collect(Collectors.toList());
+        assertEquals(expected, FilterHandler.makeAndApplySingleFilter(movies, filter).collect(Collectors.toList()));
+        assertEquals(expected, FilterHandler.makeAndApplySingleFilter(movies.stream(), filter)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testParallelMatchesSequential() {
+        List<MBeans> large = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            MBeans movie = new MBeans();
+            movie.setID("tt" + i);
+            movie.setTitle(i % 3 == 0 ? "Night " + i : "Day " + i);
+            movie.setImdbRating(i % 10);
+            large.add(movie);
+        }
+        List<List<String>> filters = List.of(
+                List.of("title", "~=", "night"),
+                List.of("imdb", ">=", "5"));
+        List<MBeans> sequential = filterHandler.filter(filters, large.stream()).collect(Collectors.toList());
+
+        FilterHandler parallel = new FilterHandler(1000);
+        parallel.setParallelism(4);
+        // Matches come back in source order whichever chunk finishes first
+        assertEquals(sequential, parallel.filter(filters, large.stream()).collect(Collectors.toList()));
+        assertEquals(2, parallel.filter(List.of(List.of("genre", "==", "Action")), movies.stream()).count());
+        parallel.close();
+        assertEquals(sequential, parallel.filter(filters, large.stream()).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testIndexMatchesScan() {
+        MovieIndex index = new MovieIndex(movies);
+        List<List<List<String>>> queries = List.of(
+                List.of(List.of("genre", "==", "drama")),
+                List.of(List.of("genre", "==", "Sci-Fi"), List.of("director", "==", "christopher nolan")),
+                List.of(List.of("actor", "==", "Keanu Reeves"), List.of("language", "==", "English")),
+                List.of(List.of("writer", "==", "Aaron Sorkin"), List.of("released", ">", "2011")),
+                List.of(List.of("genre", "==", "Western")),
+                List.of(List.of("genre", "~=", "fi"), List.of("title", "~=", "in")),
+                List.of(List.of("title", "~=", "THE")),
+                List.of(List.of("title", "~=", "social net")),
+                List.of(List.of("actor", "~=", "reeves")),
+                List.of(List.of("director", "~=", "nolan"), List.of("title", "~=", "tion")),
+                List.of(List.of("director", "~=", "wachowski"), List.of("genre", "==", "action")),
+                List.of(List.of("title", "~=", "xyz")));
+        for (List<List<String>> query : queries) {
+            assertEquals(filterHandler.filter(query, movies.stream()).collect(Collectors.toList()),
+                    filterHandler.filter(query, index).collect(Collectors.toList()));
+        }
+        assertEquals(movies, filterHandler.filter(List.of(), index).collect(Collectors.toList()));
+        // Only the filters the planner looks up narrow the candidates
+        assertEquals(3, FilterHandler.match(List.of(List.of("genre", "==", "DRAMA"), List.of("runtime", ">", "100")),
+                index).cardinality());
+        assertEquals(2, FilterHandler.match(List.of(List.of("director", "~=", "NOLAN")), index).cardinality());
+        assertEquals(null, FilterHandler.match(List.of(List.of("title", "~=", "in")), index));
+    }
+
+    @Test
+    public void testNumericIndex() {
+        MovieIndex index = new MovieIndex(movies);
+        List<List<List<String>>> queries = List.of(
+                List.of(List.of("released", "==", "1999")),
+                List.of(List.of("released", ">=", "2010"), List.of("released", "<=", "2010")),
+                List.of(List.of("imdb", ">", "8.7")),
+                List.of(List.of("imdb", "<", "5.3")),
+                List.of(List.of("boxoffice", "<=", "0")),
+                List.of(List.of("runtime", ">=", "160"), List.of("genre", "==", "drama")),
+                List.of(List.of("released", ">=", "19x9")));
+        for (List<List<String>> query : queries) {
+            assertEquals(filterHandler.filter(query, movies.stream()).collect(Collectors.toList()),
+                    filterHandler.filter(query, index).collect(Collectors.toList()));
+        }
+        assertEquals(1, FilterHandler.match(List.of(List.of("released", "==", "1999")), index).cardinality());
+        assertTrue(FilterHandler.match(List.of(List.of("imdb", ">", "9")), index).isEmpty());
+
+        assertEquals(1999, index.range(MovieData.RELEASED)[0]);
+        assertEquals(2014, index.range(MovieData.RELEASED)[1]);
+        assertEquals(-1, index.range(MovieData.BOXOFFICE)[0]);
+        assertEquals(8.8, index.range(MovieData.IMDB)[1]);
+        assertEquals(null, index.range(MovieData.TITLE));
+        assertEquals(null, new MovieIndex().range(MovieData.IMDB));
+
+        // Ratings change in place and are picked up once the edit is indexed
+        double before = movies.get(3).getMyRating();
+        movies.get(3).setMyRating(9.5);
+        index.updateNumeric(MovieData.USER, movies.get(3), before);
+        assertEquals(List.of(movies.get(3)), filterHandler.filter(List.of(List.of("user", ">", "9")), index)
+                .collect(Collectors.toList()));
+        assertEquals(9.5, index.range(MovieData.USER)[1]);
+
+        // Single edits move one entry and match a full scan
+        double[] ratings = {7.0, -1.0, 9.5, Double.NaN, 7.0, 0.0, -0.0, 3.5};
+        for (int i = 0; i < ratings.length; i++) {
+            MBeans movie = movies.get(i % movies.size());
+            double previous = movie.getMyRating();
+            movie.setMyRating(ratings[i]);
+            index.updateNumeric(MovieData.USER, movie, previous);
+            for (String op : List.of("==", ">", "<=")) {
+                for (String bound : List.of("-1", "0", "7", "9")) {
+                    List<List<String>> query = List.of(List.of("user", op, bound));
+                    assertEquals(filterHandler.filter(query, movies.stream()).collect(Collectors.toList()),
+                            filterHandler.filter(query, index).collect(Collectors.toList()));
+                }
+            }
+        }
+        assertEquals(movies.stream().mapToDouble(MBeans::getMyRating).filter(rating -> !Double.isNaN(rating)).max()
+                .getAsDouble(), index.range(MovieData.USER)[1]);
+    }
+
+    @Test
+    public void testBitmapIndexes() {
+        MovieIndex index = new MovieIndex(movies);
+        List<List<List<String>>> queries = List.of(
+                List.of(List.of("mpa", "==", "pg-13"), List.of("released", ">=", "2010")),
+                List.of(List.of("haswatched", "==", "true")),
+                List.of(List.of("haswatched", "==", "false"), List.of("genre", "==", "drama")),
+                List.of(List.of("released", "<", "2010"), List.of("released", ">", "1999")),
+                List.of(List.of("genre", "==", "Sci-Fi"), List.of("mpa", "==", "PG-13"),
+                        List.of("released", "<=", "2014"), List.of("haswatched", "==", "false"),
+                        List.of("language", "==", "english"), List.of("director", "~=", "nolan")));
+        for (List<List<String>> query : queries) {
+            assertEquals(filterHandler.filter(query, movies.stream()).collect(Collectors.toList()),
+                    filterHandler.filter(query, index).collect(Collectors.toList()));
+        }
+
+        // The watched bitmap follows status changes
+        movies.get(0).setWatched(true);
+        index.updateWatched(movies.get(0));
+        assertEquals(List.of(movies.get(0), movies.get(4)),
+                filterHandler.filter(List.of(List.of("haswatched", "==", "true")), index)
+                        .collect(Collectors.toList()));
+        assertEquals(2, index.ordinal(movies.get(2)));
+        assertEquals(-1, index.ordinal(new MBeans()));
+    }
+
+    @Test
+    public void testOrdinalBitmap() {
+        OrdinalBitmap sparse = OrdinalBitmap.of(1, 6, 70000, 70002, 200000);
+        OrdinalBitmap dense = new OrdinalBitmap();
+        for (int i = 0; i < 150000; i += 3) {
+            dense.add(i);
+        }
+        assertEquals(50000, dense.cardinality());
+        assertTrue(dense.contains(69999) && !dense.contains(70000));
+        assertArrayEquals(new int[] {6, 70002}, sparse.and(dense).toArray());
+        assertEquals(50003, sparse.or(dense).cardinality());
+        assertArrayEquals(new int[] {1, 70000, 200000}, sparse.andNot(dense).toArray());
+        assertEquals(49998, dense.andNot(sparse).cardinality());
+
+        // Chunks switch between arrays and words as they fill and empty
+        for (int i = 0; i < 150000; i += 3) {
+            dense.remove(i);
+        }
+        assertTrue(dense.isEmpty());
+        assertEquals(70000, OrdinalBitmap.range(70000).cardinality());
+        assertTrue(OrdinalBitmap.range(70000).contains(69999) && !OrdinalBitmap.range(70000).contains(70000));
+        OrdinalBitmap copy = sparse.copy();
+        copy.add(3);
+        assertEquals(5, sparse.cardinality());
+        assertArrayEquals(new int[] {1, 3, 6, 70000, 70002, 200000}, copy.toArray());
+    }
+
+    @Test
+    public void testSearchKeys() {
+        assertEquals("amelie poulain", SearchKeys.normalize("  Am\u00e9lie \t POULAIN "));
+        assertEquals("sci-fi", SearchKeys.normalize("Sci-Fi"));
+        String key = "the matrix";
+        assertTrue(key == SearchKeys.normalize(key));
+        assertEquals(null, SearchKeys.normalize((String) null));
+        assertEquals(List.of("lana wachowski", "lilly wachowski"), movies.get(1).getDirectorKeys());
+
+        // Keys are rebuilt after a setter and match accents and spacing on every path
+        MovieIndex index = new MovieIndex(movies);
+        movies.get(0).setTitle("Incepti\u00f3n");
+        assertEquals("inception", movies.get(0).getTitleKey());
+        movies.get(0).setTitle("Inception");
+        List<List<String>> query = List.of(List.of("title", "~=", "INC\u00c9PTION"),
+                List.of("actor", "==", "leonardo  dicaprio"));
+        assertEquals(List.of(movies.get(0)), filterHandler.filter(query, movies.stream()).collect(Collectors.toList()));
+        assertEquals(List.of(movies.get(0)), filterHandler.filter(query, index).collect(Collectors.toList()));
+        assertTrue(FilterOperation.getFilter(movies.get(0), MovieData.TITLE, Operations.CONTAINS, "c\u00e9p"));
+    }
+
+    @Test
+    public void testNormalize() {
+        List<List<String>> expected = List.of(List.of("GENRE", "EQUALS", "drama"),
+                List.of("RELEASED", "GREATEROREQUAL", "1990"));
+        assertEquals(expected, FilterCompiler.normalize(List.of(List.of("released", ">=", "01990"),
+                List.of("Genre", "==", "DRAMA"), List.of("type", "==", "drama"), List.of("runtime", ">", "x"))));
+        assertEquals(List.of(List.of("GENRE", "GREATERTHAN", "drama")), FilterCompiler.normalize(
+                List.of(List.of("released", ">=", "1990"), List.of("genre", ">", "Drama"))));
+        assertEquals(List.of(), FilterCompiler.normalize(null));
+    }
+
+    @Test
+    public void testRefines() {
+        List<List<String>> previous = FilterCompiler.normalize(List.of(List.of("title", "~=", "the"),
+                List.of("released", ">", "1990")));
+        assertTrue(FilterCompiler.refines(FilterCompiler.normalize(List.of(List.of("title", "~=", "the k"),
+                List.of("released", ">", "1990"))), previous));
+        assertTrue(FilterCompiler.refines(FilterCompiler.normalize(List.of(List.of("title", "~=", "THE"),
+                List.of("released", "==", "2000"), List.of("genre", "==", "drama"))), previous));
+        assertTrue(FilterCompiler.refines(FilterCompiler.normalize(List.of(List.of("title", "~=", "other"),
+                List.of("released", ">=", "1991"))), previous));
+        // Dropping a filter, widening a range or changing a needle is not a refinement
+        assertEquals(false, FilterCompiler.refines(FilterCompiler.normalize(List.of(List.of("title", "~=", "the"))),
+                previous));
+        assertEquals(false, FilterCompiler.refines(FilterCompiler.normalize(List.of(List.of("title", "~=", "the"),
+                List.of("released", ">=", "1990"))), previous));
+        assertEquals(false, FilterCompiler.refines(FilterCompiler.normalize(List.of(List.of("title", "~=", "th"),
+                List.of("released", ">", "1990"))), previous));
+        // A range does not narrow another operator, and a spec matching nothing narrows to nothing
+        List<List<String>> notEqual = FilterCompiler.normalize(List.of(List.of("user", "!=", "5")));
+        assertEquals(false, FilterCompiler.refines(FilterCompiler.normalize(List.of(List.of("user", ">=", "3"))),
+                notEqual));
+        assertEquals(false, FilterCompiler.refines(FilterCompiler.normalize(List.of(List.of("user", "!=", "5"),
+                List.of("released", ">", "1990"))), notEqual));
+    }
+
+    @Test
+    public void testQueryPlanner() {
+        List<MBeans> large = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            MBeans movie = new MBeans();
+            movie.setID("tt" + i);
+            movie.setTitle("Movie " + i);
+            movie.setYear(1900 + i % 120);
+            movie.setRuntime(i % 200);
+            movie.setGenre(List.of(i % 2 == 0 ? "Drama" : "Comedy"));
+            movie.setDirector(List.of(i % 400 == 0 ? "Rare Director" : "Director " + i % 7));
+            large.add(movie);
+        }
+        MovieIndex index = new MovieIndex(large);
+        assertEquals(200, index.statistics(MovieData.RUNTIME).getDistinct());
+        assertEquals(0.5, index.statistics(MovieData.RUNTIME).selectivity(Operations.LESSTHAN, 100), 0.05);
+        assertEquals(8, index.statistics(MovieData.DIRECTOR).getDistinct());
+
+        // The rare director is looked up first, the broad year range is left to the scan
+        QueryPlan plan = QueryPlanner.plan(List.of(List.of("released", ">=", "1901"),
+                List.of("genre", "==", "drama"), List.of("director", "==", "rare director")), index);
+        assertEquals(List.of("director", "==", "rare director"), plan.getSteps().get(0).getFilter());
+        assertEquals(QueryPlan.Access.INDEX, plan.getSteps().get(0).getAccess());
+        assertEquals(List.of(List.of("genre", "==", "drama"), List.of("released", ">=", "1901")),
+                plan.getScanned());
+        assertTrue(plan.explain().contains("INDEX director == rare director"));
+
+        assertEquals(QueryPlan.Access.SCAN, QueryPlanner.plan(List.of(List.of("runtime", ">", "10")), index)
+                .getSteps().get(0).getAccess());
+        assertEquals(QueryPlan.Access.INDEX, QueryPlanner.plan(List.of(List.of("runtime", ">", "190")), index)
+                .getSteps().get(0).getAccess());
+        assertEquals(QueryPlan.Access.SKIP, QueryPlanner.plan(List.of(List.of("runtime", ">", "x")), index)
+                .getSteps().get(0).getAccess());
+        QueryPlan empty = QueryPlanner.plan(List.of(List.of("genre", ">", "drama")), index);
+        assertTrue(empty.isEmpty() && empty.candidates().isEmpty());
+
+        List<List<List<String>>> queries = List.of(
+                List.of(List.of("released", ">=", "1901"), List.of("genre", "==", "drama"),
+                        List.of("director", "==", "rare director")),
+                List.of(List.of("runtime", ">", "10"), List.of("title", "~=", "ie 19")),
+                List.of(List.of("runtime", ">", "190"), List.of("released", "<", "1950")),
+                List.of(List.of("genre", ">", "drama"), List.of("runtime", ">", "190")));
+        for (List<List<String>> query : queries) {
+            List<MBeans> expected = filterHandler.filter(query, large.stream()).collect(Collectors.toList());
+            assertEquals(expected, filterHandler.filter(query, index).collect(Collectors.toList()));
+            // Narrowing an earlier result gives the same matches whichever way it runs
+            assertEquals(expected, filterHandler.filter(query, index, large).collect(Collectors.toList()));
+            assertEquals(expected, filterHandler.filter(query, index, expected).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void testIndexIsIncremental() {
+        MovieIndex index = new MovieIndex(movies.subList(0, 2));
+        List<List<String>> query = List.of(List.of("director", "==", "Christopher Nolan"));
+        assertEquals(1, filterHandler.filter(query, index).count());
+        index.addAll(movies.subList(2, movies.size()));
+        assertEquals(5, index.size());
+        List<MBeans> result = filterHandler.filter(query, index).collect(Collectors.toList());
+        assertEquals(List.of(movies.get(0), movies.get(2)), result);
+        assertEquals(List.of(movies.get(4)), filterHandler.filter(List.of(List.of("actor", "~=", "stewart")), index)
+                .collect(Collectors.toList()));
+        assertEquals(2014, index.range(MovieData.RELEASED)[1]);
+    }
+
     @Test
     public void testFilterByMultipleCriteria() {
         List<MBeans> result = filterHandler.filter(List.of(
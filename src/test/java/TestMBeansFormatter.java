@@ -1,4 +1,6 @@
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.io.TempDir;
@@ -12,7 +14,11 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.net.URL;
 import java.time.format.DateTimeFormatter;
+import java.io.ByteArrayOutputStream;
 import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import group5.model.beans.MBeans;
 import group5.model.formatters.MBeansFormatter;
@@ -72,6 +78,25 @@ public class TestMBeansFormatter {
         assertEquals(expectedSet, loadedJSON);
     }
 
+    @Test
+    public void testWriteCompact() throws Exception {
+        List<MBeans> sampleList = List.of(titanic, insideOut);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MBeansFormatter.writeMediasCompact(sampleList, out, Formats.JSON);
+        String compactJSON = out.toString(StandardCharsets.UTF_8);
+        String expectedJSON = Files.readString(Paths.get("data/test/test_load.json"));
+
+        // Same records as the indented file, without the indentation
+        ObjectMapper mapper = new ObjectMapper();
+        assertEquals(mapper.readTree(expectedJSON), mapper.readTree(compactJSON));
+        assertFalse(compactJSON.contains("\n"));
+        assertTrue(compactJSON.length() < expectedJSON.length());
+
+        Path tempJSON = tempDir.resolve("test_write_compact.json");
+        Files.writeString(tempJSON, compactJSON);
+        assertEquals(Set.of(insideOut, titanic), MBeansLoader.loadMediasFromFile(tempJSON.toString(), Formats.JSON));
+    }
+
     @Test
     public void testBadWrite() throws Exception {
 
@@ -1,15 +1,31 @@
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 import java.time.format.DateTimeFormatter;
 
 import group5.model.beans.MBeans;
+import group5.model.formatters.MBeansFormatter;
 import group5.model.formatters.MBeansLoader;
 import group5.model.formatters.Formats;
 
@@ -18,6 +34,9 @@ public class TestMBeansLoader {
     private MBeans insideOut;
     private MBeans titanic;
 
+    @TempDir
+    static Path tempDir;
+
     @BeforeEach
     public void setUp() throws Exception {
         DateTimeFormatter dtf = DateTimeFormatter.ofPattern("dd MMM yyyy");
@@ -79,6 +98,183 @@ public class TestMBeansLoader {
         assertEquals(titanic.getMyRating(), loadedSingle.getMyRating());
     }
 
+    @Test
+    public void testStream() throws Exception {
+        // Records are streamed in file order
+        try (Stream<MBeans> records = MBeansLoader.streamMediasFromJSON("./data/test/test_load.json")) {
+            assertEquals(Set.of(insideOut, titanic), records.collect(Collectors.toSet()));
+        }
+        try (Stream<MBeans> records = MBeansLoader.streamMediasFromJSON("./data/test/titanic.json")) {
+            Iterator<MBeans> it = records.iterator();
+            assertEquals(titanic, it.next());
+        }
+
+        // A record without an imdbID fails when it is reached
+        Path noId = tempDir.resolve("no_id.json");
+        Files.writeString(noId, "[{\"Title\": \"Titanic\", \"imdbID\": \"tt0120338\"}, {\"Title\": \"No ID\"}]");
+        try (Stream<MBeans> records = MBeansLoader.streamMediasFromJSON(noId.toString())) {
+            Iterator<MBeans> it = records.iterator();
+            assertEquals(titanic, it.next());
+            assertThrows(UncheckedIOException.class, it::next);
+        }
+        assertNull(MBeansLoader.loadMediasFromFile(noId.toString(), Formats.JSON));
+    }
+
+    @Test
+    public void testSharedStrings() throws Exception {
+        // Repeated values read from JSON are the same instance
+        try (Stream<MBeans> records = MBeansLoader.streamMediasFromJSON("./data/test/test_load.json")) {
+            List<MBeans> loaded = records.collect(Collectors.toList());
+            assertSame(loaded.get(0).getType(), loaded.get(1).getType());
+            assertSame(loaded.get(0).getCountry().get(0), loaded.get(1).getCountry().get(0));
+            assertSame(loaded.get(0).getLanguage().get(0), loaded.get(1).getLanguage().get(0));
+            assertThrows(UnsupportedOperationException.class, () -> loaded.get(0).getGenre().add("Drama"));
+        }
+
+        // Lists split the way String.split does
+        Path lists = tempDir.resolve("lists.json");
+        Files.writeString(lists, "[{\"Genre\": \"Drama, , Romance, \", \"Country\": \"\", \"imdbID\": \"tt0120338\"}]");
+        try (Stream<MBeans> records = MBeansLoader.streamMediasFromJSON(lists.toString())) {
+            MBeans loaded = records.iterator().next();
+            assertEquals(Arrays.asList("Drama, , Romance, ".split(", ")), loaded.getGenre());
+            assertEquals(Arrays.asList("".split(", ")), loaded.getCountry());
+        }
+    }
+
+    @Test
+    public void testFieldValues() throws Exception {
+        // Values as the API sends them, and as the formatter writes them
+        Path fields = tempDir.resolve("fields.json");
+        Files.writeString(fields, "[{\"Year\": \"1988\", \"Released\": \"20 Jul 1988\", \"Runtime\": \"132 min\","
+                + " \"Metascore\": \"N/A\", \"imdbRating\": \"8.2\", \"BoxOffice\": \"$85,892,546\", \"imdbID\": \"tt1\"},"
+                + " {\"Year\": 2020, \"Released\": \"29 Feb 2020\", \"Runtime\": \"N/A\", \"Metascore\": 72,"
+                + " \"imdbRating\": 7, \"BoxOffice\": \"N/A\", \"imdbID\": \"tt2\"},"
+                + " {\"Released\": \"N/A\", \"Runtime\": \"90\", \"imdbRating\": \"N/A\", \"BoxOffice\": \"-$5\", \"imdbID\": \"tt3\"}]");
+        try (Stream<MBeans> records = MBeansLoader.streamMediasFromJSON(fields.toString())) {
+            List<MBeans> loaded = records.collect(Collectors.toList());
+            assertEquals(1988, loaded.get(0).getYear());
+            assertEquals(LocalDate.of(1988, 7, 20), loaded.get(0).getReleased());
+            assertEquals(132, loaded.get(0).getRuntime());
+            assertEquals(-1, loaded.get(0).getMetascore());
+            assertEquals(Double.parseDouble("8.2"), loaded.get(0).getImdbRating());
+            assertEquals(85892546, loaded.get(0).getBoxOffice());
+            assertEquals(2020, loaded.get(1).getYear());
+            assertEquals(LocalDate.of(2020, 2, 29), loaded.get(1).getReleased());
+            assertEquals(-1, loaded.get(1).getRuntime());
+            assertEquals(72, loaded.get(1).getMetascore());
+            assertEquals(7.0, loaded.get(1).getImdbRating());
+            assertEquals(-1, loaded.get(1).getBoxOffice());
+            assertEquals(LocalDate.of(1800, 1, 1), loaded.get(2).getReleased());
+            assertEquals(90, loaded.get(2).getRuntime());
+            assertEquals(-1.0, loaded.get(2).getImdbRating());
+            assertEquals(-5, loaded.get(2).getBoxOffice());
+        }
+
+        // Values in no known shape are still rejected
+        Path badDate = tempDir.resolve("bad_date.json");
+        Files.writeString(badDate, "[{\"Released\": \"32 Jul 1988\", \"imdbID\": \"tt1\"}]");
+        assertNull(MBeansLoader.loadMediasFromFile(badDate.toString(), Formats.JSON));
+        Path badBoxOffice = tempDir.resolve("bad_box_office.json");
+        Files.writeString(badBoxOffice, "[{\"BoxOffice\": \"$9,999,999,999\", \"imdbID\": \"tt1\"}]");
+        assertNull(MBeansLoader.loadMediasFromFile(badBoxOffice.toString(), Formats.JSON));
+    }
+
+    @Test
+    public void testBinary() throws Exception {
+        Path snapshot = tempDir.resolve("snapshot.bin");
+        try (OutputStream out = Files.newOutputStream(snapshot)) {
+            MBeansFormatter.writeMediasToFile(List.of(insideOut, titanic), out, Formats.BINARY);
+        }
+        assertEquals(Set.of(insideOut, titanic), MBeansLoader.loadMediasFromFile(snapshot.toString(), Formats.BINARY));
+
+        // Every field survives the round trip, in write order
+        try (Stream<MBeans> records = MBeansLoader.streamMediasFromBinary(snapshot.toString())) {
+            List<MBeans> loaded = records.collect(Collectors.toList());
+            assertEquals(insideOut.toString(), loaded.get(0).toString());
+            assertEquals(titanic.toString(), loaded.get(1).toString());
+            assertEquals(titanic.getPoster(), loaded.get(1).getPoster());
+            assertEquals(titanic.getWatched(), loaded.get(1).getWatched());
+        }
+
+        // A truncated snapshot fails to load
+        byte[] bytes = Files.readAllBytes(snapshot);
+        Files.write(snapshot, Arrays.copyOf(bytes, bytes.length / 2));
+        assertNull(MBeansLoader.loadMediasFromFile(snapshot.toString(), Formats.BINARY));
+        assertNull(MBeansLoader.loadMediasFromFile("./data/test/titanic.json", Formats.BINARY));
+    }
+
+    @Test
+    public void testMapped() throws Exception {
+        Path snapshot = tempDir.resolve("mapped.bin");
+        try (OutputStream out = Files.newOutputStream(snapshot)) {
+            MBeansFormatter.writeMediasToFile(List.of(insideOut, titanic), out, Formats.BINARY);
+        }
+        List<MBeans> mapped;
+        try (Stream<MBeans> records = MBeansLoader.mapMediasFromBinary(snapshot.toString())) {
+            mapped = records.collect(Collectors.toList());
+        }
+        assertEquals(List.of(insideOut, titanic), mapped);
+        assertEquals(insideOut.toString(), mapped.get(0).toString());
+        assertEquals(titanic.toString(), mapped.get(1).toString());
+        assertEquals(titanic.getTitleKey(), mapped.get(1).getTitleKey());
+        assertEquals(titanic.getActorsKeys(), mapped.get(1).getActorsKeys());
+
+        // Mapped records serialize like the originals
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        MBeansFormatter.writeMediasToFile(List.of(insideOut, titanic), expected, Formats.JSON);
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        MBeansFormatter.writeMediasToFile(mapped, actual, Formats.JSON);
+        assertEquals(expected.toString(), actual.toString());
+
+        // Edits are kept on the heap, the other fields are unchanged
+        mapped.get(1).setMyRating(9.0);
+        assertEquals(9.0, mapped.get(1).getMyRating());
+        assertEquals(titanic.getActors(), mapped.get(1).getActors());
+        assertEquals(-1.0, mapped.get(0).getMyRating());
+
+        // A file without the snapshot trailer cannot be mapped
+        assertThrows(IOException.class, () -> MBeansLoader.mapMediasFromBinary("./data/test/titanic.json"));
+    }
+
+    @Test
+    public void testCSVRows() throws Exception {
+        Path csv = tempDir.resolve("rows.csv");
+        try (OutputStream out = Files.newOutputStream(csv)) {
+            MBeansFormatter.writeMediasToFile(List.of(insideOut, titanic, insideOut), out, Formats.CSV);
+        }
+        List<String> lines = Files.readAllLines(csv);
+        lines.add(2, lines.get(1).replace("19 Jun 2015", "32 Jun 2015"));  // Bad release date
+        lines.add(4, lines.get(3).replace("tt0120338", ""));  // No imdbID
+        Files.write(csv, lines);
+
+        // Invalid rows are skipped, the rest is read in batches
+        List<List<MBeans>> batches = new ArrayList<>();
+        int invalid = MBeansLoader.readMediasFromFile(csv.toString(), Formats.CSV, 2, batches::add);
+        assertEquals(2, invalid);
+        assertEquals(List.of(List.of(insideOut, titanic), List.of(insideOut)), batches);
+        assertEquals(Set.of(insideOut, titanic), MBeansLoader.loadMediasFromFile(csv.toString(), Formats.CSV));
+    }
+
+    @Test
+    public void testCompressed() throws Exception {
+        Path csv = tempDir.resolve("list.csv.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(csv))) {
+            MBeansFormatter.writeMediasToFile(List.of(insideOut, titanic), out, Formats.CSV);
+        }
+        assertEquals(Formats.CSV, Formats.fromFilename(csv.toString()));
+
+        List<MBeans> loaded = new ArrayList<>();
+        assertEquals(0, MBeansLoader.readMediasFromFile(csv.toString(), Formats.CSV, 10, loaded::addAll));
+        assertEquals(List.of(insideOut, titanic), loaded);
+        assertEquals(titanic.toString(), loaded.get(1).toString());
+
+        Path json = tempDir.resolve("list.json.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(json))) {
+            MBeansFormatter.writeMediasToFile(List.of(insideOut, titanic), out, Formats.JSON);
+        }
+        assertEquals(Set.of(insideOut, titanic), MBeansLoader.loadMediasFromFile(json.toString(), Formats.JSON));
+    }
+
     @Test
     public void testNull() {
 
@@ -1,24 +1,38 @@
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.io.TempDir;
 
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.Map;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.nio.file.Path;
 import java.util.stream.Collectors;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
 
 import group5.model.beans.MBeans;
 import group5.model.IModel;
 import group5.model.Model;
+import group5.model.filter.FilterCompiler;
 import group5.model.formatters.Formats;
 import group5.model.formatters.MBeansLoader;
 import group5.model.net.MovieAPIHandler;
@@ -35,6 +49,36 @@ public class TestModel {
         model = new Model();
     }
 
+    @AfterEach
+    public void tearDown() {
+        model.close();
+    }
+
+    // A movie without a release date, as read from a mapped snapshot
+    private static MBeans undated(String id) {
+        MBeans undated = new MBeans() {
+            @Override
+            public LocalDate getReleased() {
+                return null;
+            }
+        };
+        undated.setID(id);
+        undated.setTitle("Undated");
+        undated.setGenre(List.of());
+        return undated;
+    }
+
+    // Read the source list kept in a model directory, journal replayed
+    private static List<MBeans> reload(Path directory) {
+        IModel reloaded = new Model(List.of(), false, directory);
+        try {
+            reloaded.loadSourceData();
+            return reloaded.getAllRecords().collect(Collectors.toList());
+        } finally {
+            reloaded.close();
+        }
+    }
+
     @Test
     public void testSourceData() {
         // Test data init from model constructor
@@ -64,12 +108,22 @@ public class TestModel {
 
         assertEquals(2, model.getUserListCount());
 
+        // Test watch list membership of a source record
+        MBeans record = model.getRecords(watchList02).findFirst().get();
+        assertArrayEquals(new int[] {1}, model.getUserListIndicesForRecord(record));
+        model.addToWatchList(record, watchList01);
+        assertArrayEquals(new int[] {0, 1}, model.getUserListIndicesForRecord(record));
+        model.removeFromWatchList(record, watchList01);
+        assertArrayEquals(new int[] {1}, model.getUserListIndicesForRecord(record));
+
         // Save watchlist
         model.saveWatchList(tempSave.toString(), watchList02);
         assertEquals(expected, MBeansLoader.loadMediasFromFile(tempSave.toString(), Formats.JSON));
         // Delete watchlist
         model.deleteWatchList(watchList02);
         assertTrue(model.getUserListCount() == 1);
+        assertArrayEquals(new int[0], model.getUserListIndicesForRecord(record));
+        model.flush();
 
         // Clean up
         File file01 = new File("./data/watchlist/Test Watch List.json");
@@ -91,6 +145,7 @@ public class TestModel {
         List<List<String>> filters02 = List.of(List.of("title", "~", "titanic"));
         Set<MBeans> expected2 = model.getRecords(watchList02, filters02).collect(Collectors.toSet());
         assertEquals(expected2, model.getRecords().collect(Collectors.toSet()));
+        model.flush();
 
         // Clean up
         File file01 = new File("./data/watchlist/platoon.json");
@@ -100,6 +155,141 @@ public class TestModel {
 
     }
 
+    @Test
+    public void testFilterCache() {
+        int watchList = model.loadWatchList("./data/test/platoon.json");
+        List<List<String>> filters = List.of(List.of("title", "~=", "platoon"), List.of("released", ">=", "1980"));
+        List<MBeans> first = model.getRecords(watchList, filters).collect(Collectors.toList());
+        assertEquals(1, first.size());
+        long misses = model.getFilterCacheMisses();
+
+        // The same filters in another order and spelling are answered from the cache
+        assertEquals(first, model.getRecords(watchList, List.of(List.of("RELEASED", ">=", "01980"),
+                List.of("title", "~", "PLATOON"))).collect(Collectors.toList()));
+        assertEquals(1, model.getFilterCacheHits());
+        assertEquals(misses, model.getFilterCacheMisses());
+
+        // Each list has its own entry, and changes to the lists invalidate them
+        model.getRecords().count();
+        assertEquals(misses + 1, model.getFilterCacheMisses());
+        model.removeFromWatchList(first.get(0), watchList);
+        assertEquals(0, model.getRecords(watchList).count());
+        assertEquals(misses + 2, model.getFilterCacheMisses());
+
+        // Typing further narrows the previous result and matches a full scan
+        List<MBeans> all = model.getAllRecords().collect(Collectors.toList());
+        for (String needle : List.of("t", "th", "the", "the ", "the")) {
+            List<List<String>> typed = List.of(List.of("title", "~=", needle), List.of("released", ">=", "1990"));
+            assertEquals(all.stream().filter(FilterCompiler.compile(typed)).collect(Collectors.toList()),
+                    model.getRecords(typed).collect(Collectors.toList()));
+        }
+        model.flush();
+
+        // Clean up
+        File file01 = new File("./data/watchlist/platoon.json");
+        file01.delete();
+    }
+
+    @Test
+    public void testFilterCacheNotEqual() {
+        Set<MBeans> source = MBeansLoader.loadMediasFromFile("./data/test/test_load.json", Formats.JSON);
+        Model directoryModel = new Model(source, false, tempDir.resolve("not_equal"));
+        MBeans rated = directoryModel.getAllRecords().findFirst().get();
+        directoryModel.updateUserRating(rated, 5.0);
+
+        // A range after a filter matching nothing is not filtered from its empty result
+        assertEquals(0, directoryModel.getRecords(List.of(List.of("user", "!=", "5"))).count());
+        List<List<String>> atLeast = List.of(List.of("user", ">=", "3"));
+        List<MBeans> all = directoryModel.getAllRecords().collect(Collectors.toList());
+        assertEquals(all.stream().filter(FilterCompiler.compile(atLeast)).collect(Collectors.toList()),
+                directoryModel.getRecords(atLeast).collect(Collectors.toList()));
+        assertTrue(directoryModel.getRecords(atLeast).anyMatch(rated::equals));
+        directoryModel.close();
+    }
+
+    @Test
+    public void testRecordsSnapshot() {
+        Set<MBeans> source = MBeansLoader.loadMediasFromFile("./data/test/test_load.json", Formats.JSON);
+        Model directoryModel = new Model(source, false, tempDir.resolve("snapshot"));
+        MBeans added = new MBeans();
+        added.setID("tt0000001");
+        added.setTitle("Added While Reading");
+
+        // A stream started before the source changes reads the source as it was
+        Iterator<MBeans> reading = directoryModel.getAllRecords().iterator();
+        reading.next();
+        directoryModel.updateSourceList(Set.of(added));
+        int rest = 0;
+        while (reading.hasNext()) {
+            reading.next();
+            rest++;
+        }
+        assertEquals(source.size() - 1, rest);
+        assertEquals(source.size() + 1, directoryModel.getAllRecords().count());
+        directoryModel.close();
+    }
+
+    @Test
+    public void testColumnarSource() throws Exception {
+        List<MBeans> source = new ArrayList<>(MBeansLoader.loadMediasFromFile("./data/test/test_load.json",
+                Formats.JSON));
+        source.add(undated("tt0000002"));
+        Model columnar = new Model(source, true, tempDir.resolve("columnar"));
+        List<MBeans> views = columnar.getAllRecords().collect(Collectors.toList());
+
+        // Views read back every field, in source order
+        assertEquals(source.size(), views.size());
+        for (int i = 0; i < source.size(); i++) {
+            MBeans expected = source.get(i);
+            MBeans view = views.get(i);
+            assertNotEquals(MBeans.class, view.getClass());
+            assertEquals(expected.toString(), view.toString());
+            assertEquals(expected.getID(), view.getID());
+            assertEquals(expected.getType(), view.getType());
+            assertEquals(expected.getTitleKey(), view.getTitleKey());
+            assertEquals(expected.getRatedKey(), view.getRatedKey());
+            assertEquals(expected.getActorsKeys(), view.getActorsKeys());
+        }
+
+        // Missing dates, lists and strings stay missing, empty lists stay empty
+        MBeans undatedView = views.get(views.size() - 1);
+        assertNull(undatedView.getReleased());
+        assertNull(undatedView.getType());
+        assertNull(undatedView.getRated());
+        assertNull(undatedView.getActors());
+        assertEquals(List.of(), undatedView.getGenre());
+        columnar.updateSourceList(Set.of(undated("tt0000003")));
+        assertNull(columnar.getAllRecords().filter(bean -> bean.getID().equals("tt0000003")).findFirst().get()
+                .getReleased());
+
+        // Watched and rating edits are kept by the view before and after other fields change
+        MBeans view = views.get(0);
+        columnar.updateWatched(view, true);
+        columnar.updateUserRating(view, 8.5);
+        assertEquals(true, view.getWatched());
+        assertEquals(8.5, view.getMyRating());
+        view.setTitle("Renamed");
+        assertEquals("Renamed", view.getTitle());
+        assertEquals(source.get(0).getActors(), view.getActors());
+        assertEquals(source.get(0).getReleased(), view.getReleased());
+        columnar.updateUserRating(view, 4.0);
+        assertEquals(4.0, view.getMyRating());
+        assertEquals(true, view.getWatched());
+        assertEquals(List.of(view), columnar.getRecords(List.of(List.of("user", "==", "4"))).collect(Collectors.toList()));
+
+        // Views serialize as plain records
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(view);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            MBeans plain = (MBeans) in.readObject();
+            assertEquals(MBeans.class, plain.getClass());
+            assertEquals(view.toString(), plain.toString());
+        }
+        columnar.close();
+    }
+
     @Test
     public void addRemoveItem() {
         int watchList01 = model.loadWatchList("./data/test/platoon.json");
@@ -122,6 +312,7 @@ public class TestModel {
         assertEquals(expected2, model.getRecords(watchList02).collect(Collectors.toSet()));
 
         // Test changes reflect onto file
+        model.flush();
         assertEquals(expected1, MBeansLoader.loadMediasFromFile("./data/watchlist/platoon.json", Formats.JSON));
         assertEquals(expected2, MBeansLoader.loadMediasFromFile("./data/watchlist/test_load.json", Formats.JSON));
 
@@ -176,17 +367,124 @@ public class TestModel {
         MBeans appPlatoon = model.getRecords(watchList01).collect(Collectors.toSet()).iterator().next();
         assertEquals(9.9, appPlatoon.getMyRating());
         assertEquals(true, appPlatoon.getWatched());
+        assertTrue(model.getRecords(List.of(List.of("haswatched", "==", "true"))).anyMatch(appPlatoon::equals));
+        model.updateWatched(platoon, false);
+        assertTrue(model.getRecords(List.of(List.of("haswatched", "==", "false"))).anyMatch(appPlatoon::equals));
+        model.flush();
 
         // Clean up
         File file01 = new File("./data/source/source.json");
         File file02 = new File("./data/watchlist/platoon.json");
+        File file03 = new File(IModel.DEFAULT_JOURNAL);
         file01.delete();
         file02.delete();
+        file03.delete();
         // Reload backup un-altered version of source into folder
         model.loadSourceData();
 
     }
 
+    @Test
+    public void testJournalReplay() throws IOException {
+        Path directory = tempDir.resolve("journal");
+        Path data = directory.resolve("source.json");
+        Set<MBeans> source = MBeansLoader.loadMediasFromFile("./data/test/test_load.json", Formats.JSON);
+        Model directoryModel = new Model(source, false, directory);
+        try {
+            directoryModel.saveSourceList();
+            MBeans first = directoryModel.getAllRecords().findFirst().get();
+            String sourceBefore = Files.readString(data);
+
+            directoryModel.updateUserRating(first, 7.5);
+            directoryModel.updateWatched(first, true);
+            directoryModel.flush();
+
+            // Edits are journaled, the source file is not rewritten
+            assertEquals(sourceBefore, Files.readString(data));
+            assertTrue(Files.exists(directory.resolve("source.journal")));
+
+            // A new model replays the journal on top of the source file
+            MBeans replayed = reload(directory).stream().filter(bean -> bean.equals(first)).findFirst().get();
+            assertEquals(7.5, replayed.getMyRating());
+            assertEquals(true, replayed.getWatched());
+        } finally {
+            directoryModel.close();
+        }
+    }
+
+    @Test
+    public void testSourceBackupFallback() throws IOException {
+        Path directory = tempDir.resolve("backup");
+        Path source = directory.resolve("source.json");
+        Path backup = directory.resolve("source.json.bak");
+        Set<MBeans> expected = MBeansLoader.loadMediasFromFile("./data/test/test_load.json", Formats.JSON);
+        Model directoryModel = new Model(expected, false, directory);
+        try {
+            directoryModel.saveSourceList();
+            String original = Files.readString(source);
+
+            // Saving keeps the previous generation as a backup
+            directoryModel.saveSourceList();
+            assertEquals(original, Files.readString(backup));
+            assertEquals(expected, MBeansLoader.loadMediasFromFile(source.toString(), Formats.JSON));
+
+            // A truncated source file falls back to the backup, with no snapshot to read instead
+            Files.delete(directory.resolve("source.bin"));
+            Files.writeString(source, "[{\"Title\": \"Trunc");
+            assertEquals(expected, Set.copyOf(reload(directory)));
+        } finally {
+            directoryModel.close();
+        }
+    }
+
+    @Test
+    public void testSnapshot() throws IOException {
+        Path directory = tempDir.resolve("source_snapshot");
+        Path snapshot = directory.resolve("source.bin");
+        Set<MBeans> source = MBeansLoader.loadMediasFromFile("./data/test/test_load.json", Formats.JSON);
+        Model directoryModel = new Model(source, false, directory);
+        try {
+            List<String> expected = directoryModel.getAllRecords().map(MBeans::toString).collect(Collectors.toList());
+
+            // Saving writes the snapshot next to the JSON file, and it is read back in order
+            directoryModel.saveSourceList();
+            assertTrue(Files.exists(snapshot));
+            assertEquals(expected, reload(directory).stream().map(MBeans::toString).collect(Collectors.toList()));
+
+            // A stale snapshot is ignored once the JSON file changes
+            Files.writeString(snapshot, "stale");
+            Files.setLastModifiedTime(snapshot, FileTime.fromMillis(0));
+            assertEquals(expected, reload(directory).stream().map(MBeans::toString).collect(Collectors.toList()));
+        } finally {
+            directoryModel.close();
+        }
+    }
+
+    @Test
+    public void testModelDirectory() throws IOException {
+        Path directory = tempDir.resolve("model");
+        Set<MBeans> source = MBeansLoader.loadMediasFromFile("./data/test/test_load.json", Formats.JSON);
+        long journalLength = new File(IModel.DEFAULT_JOURNAL).length();
+        String sourceBefore = Files.readString(Path.of(IModel.DEFAULT_DATA));
+        Model directoryModel = new Model(source, false, directory);
+
+        // Edits and saves go to the given directory only
+        MBeans first = directoryModel.getAllRecords().findFirst().get();
+        directoryModel.updateUserRating(first, 6.5);
+        directoryModel.createNewWatchList("Directory List");
+        directoryModel.flush();
+        directoryModel.saveSourceList();
+        assertTrue(Files.exists(directory.resolve("watchlist").resolve("Directory List.json")));
+        assertEquals(source, MBeansLoader.loadMediasFromFile(directory.resolve("source.json").toString(), Formats.JSON));
+        assertEquals(journalLength, new File(IModel.DEFAULT_JOURNAL).length());
+        assertEquals(sourceBefore, Files.readString(Path.of(IModel.DEFAULT_DATA)));
+        assertFalse(new File("./data/watchlist/Directory List.json").exists());
+
+        directoryModel.deleteWatchList(0);
+        assertTrue(Files.exists(directory.resolve("unused").resolve("Directory List.json")));
+        directoryModel.close();
+    }
+
     @Test
     void testLoadEmptyFile() throws IOException {
         Path tempFile = Files.createTempFile("test_watchlist", ".json");